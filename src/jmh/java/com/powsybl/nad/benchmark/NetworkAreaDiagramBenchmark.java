@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.benchmark;
+
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
+import com.powsybl.nad.layout.BasicForceLayout;
+import com.powsybl.nad.layout.LayoutParameters;
+import com.powsybl.nad.model.Graph;
+import com.powsybl.nad.svg.DefaultEdgeRendering;
+import com.powsybl.nad.svg.SvgParameters;
+import com.powsybl.nad.svg.SvgWriter;
+import com.powsybl.nad.svg.iidm.DefaultLabelProvider;
+import com.powsybl.nad.svg.iidm.TopologicalStyleProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of each stage of the generation of a network area diagram.
+ * The layout benchmark uses by default the Barnes-Hut approximation, needed to lay out large networks in a reasonable
+ * time. For instance, to run the layout benchmark with the exact computation of the forces, only possible on the IEEE
+ * networks:
+ * <pre>mvn -Pjmh test-compile exec:exec -Djmh.args="forceLayout -p networkName=IEEE_14,IEEE_30,IEEE_57,IEEE_118 -p barnesHutTheta=0.0 -prof gc"</pre>
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkAreaDiagramBenchmark {
+
+    private static final String SYNTHETIC_PREFIX = "SYNTHETIC_";
+
+    /** Barnes-Hut approximation of the layout giving the graph rendered by the rendering benchmarks */
+    private static final double RENDERING_BARNES_HUT_THETA = 0.8;
+
+    @Param({"IEEE_14", "IEEE_30", "IEEE_57", "IEEE_118", "SYNTHETIC_1000", "SYNTHETIC_10000"})
+    private String networkName;
+
+    /** Barnes-Hut approximation used by the layout benchmark, the exact computation (0) being limited to the IEEE networks */
+    @Param({"0.8"})
+    private double barnesHutTheta;
+
+    private Network network;
+    private LayoutParameters layoutParameters;
+    private SvgParameters svgParameters;
+    private SvgWriter svgWriter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (barnesHutTheta == 0 && networkName.startsWith(SYNTHETIC_PREFIX)) {
+            throw new IllegalArgumentException("Exact computation of the forces too slow for network " + networkName
+                    + ", use a positive barnesHutTheta");
+        }
+        network = createNetwork(networkName);
+        layoutParameters = new LayoutParameters().setBarnesHutThetaForceLayout(barnesHutTheta);
+        svgParameters = new SvgParameters();
+        svgWriter = new SvgWriter(svgParameters, new TopologicalStyleProvider(network), new DefaultLabelProvider(network, svgParameters));
+    }
+
+    private static Network createNetwork(String networkName) {
+        if (networkName.startsWith(SYNTHETIC_PREFIX)) {
+            return SyntheticNetworkFactory.create(Integer.parseInt(networkName.substring(SYNTHETIC_PREFIX.length())));
+        }
+        switch (networkName) {
+            case "IEEE_14":
+                return IeeeCdfNetworkFactory.create14();
+            case "IEEE_30":
+                return IeeeCdfNetworkFactory.create30();
+            case "IEEE_57":
+                return IeeeCdfNetworkFactory.create57();
+            case "IEEE_118":
+                return IeeeCdfNetworkFactory.create118();
+            default:
+                throw new IllegalArgumentException("Unknown network " + networkName);
+        }
+    }
+
+    /**
+     * Graph laid out once for all, used as input of the rendering benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class LaidOutGraph {
+        private Graph graph;
+
+        @Setup(Level.Trial)
+        public void setup(NetworkAreaDiagramBenchmark benchmark) {
+            graph = new NetworkGraphBuilder(benchmark.network).buildGraph();
+            new BasicForceLayout().run(graph, new LayoutParameters().setBarnesHutThetaForceLayout(RENDERING_BARNES_HUT_THETA));
+        }
+    }
+
+    /**
+     * Graph not laid out yet, built again before each invocation of the layout benchmark as the layout updates the
+     * positions of the graph nodes.
+     */
+    @State(Scope.Thread)
+    public static class GraphToLayOut {
+        private Graph graph;
+
+        @Setup(Level.Invocation)
+        public void setup(NetworkAreaDiagramBenchmark benchmark) {
+            graph = new NetworkGraphBuilder(benchmark.network).buildGraph();
+        }
+    }
+
+    @Benchmark
+    public Graph buildGraph() {
+        return new NetworkGraphBuilder(network).buildGraph();
+    }
+
+    @Benchmark
+    public Graph forceLayout(GraphToLayOut graphToLayOut) {
+        new BasicForceLayout().run(graphToLayOut.graph, layoutParameters);
+        return graphToLayOut.graph;
+    }
+
+    @Benchmark
+    public Graph edgeRendering(LaidOutGraph laidOutGraph) {
+        new DefaultEdgeRendering().run(laidOutGraph.graph, svgParameters);
+        return laidOutGraph.graph;
+    }
+
+    /**
+     * Note that the edge rendering is done again when writing the SVG.
+     */
+    @Benchmark
+    public String writeSvg(LaidOutGraph laidOutGraph) {
+        StringWriter writer = new StringWriter();
+        svgWriter.writeSvg(laidOutGraph.graph, writer);
+        return writer.toString();
+    }
+}
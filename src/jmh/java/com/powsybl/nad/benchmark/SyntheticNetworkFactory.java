@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.benchmark;
+
+import com.powsybl.iidm.network.*;
+
+import java.util.Random;
+
+/**
+ * Generates networks of any size, with a mesh of 400 kV voltage levels and some 225 kV voltage levels connected to
+ * them through transformers.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public final class SyntheticNetworkFactory {
+
+    private SyntheticNetworkFactory() {
+    }
+
+    /**
+     * Creates a network with the given number of voltage levels. The 400 kV voltage levels are laid out on a square
+     * grid, each one connected to its neighbours, with additional long-distance lines. One voltage level out of five
+     * is a 225 kV voltage level connected to the previous 400 kV voltage level.
+     */
+    public static Network create(int nbVoltageLevels) {
+        Network network = Network.create("synthetic-" + nbVoltageLevels, "test");
+        int side = (int) Math.ceil(Math.sqrt(nbVoltageLevels));
+        Substation substation = null;
+        for (int k = 0; k < nbVoltageLevels; k++) {
+            if (isHighVoltage(k)) {
+                substation = network.newSubstation().setId("S" + k).add();
+                createVoltageLevel(substation, k, 400);
+                int row = k / side;
+                int column = k % side;
+                if (column > 0 && isHighVoltage(k - 1)) {
+                    createLine(network, k - 1, k);
+                }
+                if (row > 0 && isHighVoltage(k - side)) {
+                    createLine(network, k - side, k);
+                }
+            } else {
+                createVoltageLevel(substation, k, 225);
+                createTransformer(substation, k - 1, k);
+            }
+        }
+
+        // Deterministic randomness
+        Random random = new Random(0L);
+        for (int i = 0; i < nbVoltageLevels / 20; i++) {
+            int k1 = random.nextInt(nbVoltageLevels);
+            int k2 = random.nextInt(nbVoltageLevels);
+            if (k1 != k2 && isHighVoltage(k1) && isHighVoltage(k2)) {
+                createLine(network, k1, k2);
+            }
+        }
+        return network;
+    }
+
+    private static boolean isHighVoltage(int k) {
+        return k % 5 != 4;
+    }
+
+    private static void createVoltageLevel(Substation substation, int k, double nominalV) {
+        VoltageLevel vl = substation.newVoltageLevel()
+                .setId("VL" + k)
+                .setNominalV(nominalV)
+                .setTopologyKind(TopologyKind.BUS_BREAKER)
+                .add();
+        vl.getBusBreakerView().newBus()
+                .setId("B" + k)
+                .add();
+        vl.newLoad()
+                .setId("LD" + k)
+                .setConnectableBus("B" + k)
+                .setBus("B" + k)
+                .setP0(50)
+                .setQ0(10)
+                .add();
+        if (k % 3 == 0) {
+            vl.newGenerator()
+                    .setId("G" + k)
+                    .setConnectableBus("B" + k)
+                    .setBus("B" + k)
+                    .setTargetP(150)
+                    .setTargetV(nominalV)
+                    .setMinP(0)
+                    .setMaxP(300)
+                    .setVoltageRegulatorOn(true)
+                    .add();
+        }
+    }
+
+    private static void createLine(Network network, int k1, int k2) {
+        network.newLine()
+                .setId("L" + k1 + "-" + k2 + "-" + network.getLineCount())
+                .setVoltageLevel1("VL" + k1)
+                .setBus1("B" + k1)
+                .setVoltageLevel2("VL" + k2)
+                .setBus2("B" + k2)
+                .setR(1)
+                .setX(10)
+                .setG1(0)
+                .setG2(0)
+                .setB1(0)
+                .setB2(0)
+                .add();
+    }
+
+    private static void createTransformer(Substation substation, int k1, int k2) {
+        substation.newTwoWindingsTransformer()
+                .setId("T" + k1 + "-" + k2)
+                .setVoltageLevel1("VL" + k1)
+                .setBus1("B" + k1)
+                .setVoltageLevel2("VL" + k2)
+                .setBus2("B" + k2)
+                .setR(0.5)
+                .setX(20)
+                .setG(0)
+                .setB(0)
+                .setRatedU1(400)
+                .setRatedU2(225)
+                .add();
+    }
+}
@@ -38,7 +38,10 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * The following algorithm is a force layout algorithm.
@@ -64,14 +67,44 @@ public class ForceLayout<V, E> {
     private static final double DEFAULT_MAX_SPEED = 100;
     /** Spring repulsion is disabled by default */
     private static final double DEFAULT_SPRING_REPULSION_FACTOR = 0.0;
+    /** Barnes-Hut approximation is disabled by default */
+    private static final double DEFAULT_BARNES_HUT_THETA = 0.0;
+    /** Spring repulsion is computed between all points and springs by default */
+    private static final double DEFAULT_SPRING_REPULSION_CUTOFF = 0.0;
+    /** Additional stopping criteria are disabled by default */
+    private static final double DEFAULT_TOTAL_ENERGY_THRESHOLD = 0.0;
+    private static final int DEFAULT_ENERGY_DECREASE_WINDOW = 0;
+    private static final double DEFAULT_MIN_ENERGY_DECREASE = 0.0;
+    private static final long DEFAULT_TIME_BUDGET = 0;
+    /** Steps are not scaled by default */
+    private static final StepControl DEFAULT_STEP_CONTROL = StepControl.CONSTANT;
+    private static final double DEFAULT_COOLING_FACTOR = 0.99;
+    /** Factor applied to the step length by the adaptive step control, and number of energy decreases needed to increase it */
+    private static final double ADAPTIVE_STEP_FACTOR = 0.9;
+    private static final int ADAPTIVE_STEP_PROGRESS = 5;
+    /** The adaptive step control never lengthens the steps beyond the unscaled ones */
+    private static final double ADAPTIVE_MAX_STEP_FACTOR = 1;
+    /** Number of points handled by each task when computing forces in parallel */
+    private static final int PARALLEL_CHUNK_SIZE = 64;
+    private static final int MAX_PARALLEL_CHUNKS = 64;
 
     private int maxSteps;
     private double minEnergyThreshold;
+    private double totalEnergyThreshold;
+    private int energyDecreaseWindow;
+    private double minEnergyDecrease;
+    private long timeBudgetNanos;
+    private LongSupplier nanoClock = System::nanoTime;
+    private StepControl stepControl;
+    private double coolingFactor;
     private double deltaTime;
     private double repulsion;
     private double friction;
     private double maxSpeed;
     private double springRepulsionFactor;
+    private double barnesHutTheta;
+    private double springRepulsionCutoff;
+    private ForkJoinPool forkJoinPool;
     /** Initial location for some nodes */
     private Map<V, Point> initialPoints = Collections.emptyMap();
     /** The location of these nodes should not be modified by the layout */
@@ -81,16 +114,71 @@ public class ForceLayout<V, E> {
     private final Map<V, Point> points = new LinkedHashMap<>();
     private final Set<Spring> springs = new LinkedHashSet<>();
 
+    /** Simulation state, stored in arrays indexed by the order of the points map to avoid allocations at each step */
+    private int nbPoints;
+    private double[] positionX;
+    private double[] positionY;
+    private double[] velocityX;
+    private double[] velocityY;
+    private double[] forceX;
+    private double[] forceY;
+    private double[] mass;
+    private boolean[] fixed;
+    /**
+     * Compact index of the points which are not fixed: forces are only computed and integrated for those, the fixed
+     * points being only sources of forces. Forces incidentally added to fixed points are never read.
+     */
+    private int nbMovable;
+    private int[] movable;
+    private int nbSprings;
+    private int[] springNode1;
+    private int[] springNode2;
+    private double[] springLength;
+    private double[] springStiffness;
+    private double[] springCenterX;
+    private double[] springCenterY;
+    /** Compact index of the springs with at least one movable end, the others having no effect on the layout */
+    private int nbMovableSprings;
+    private int[] movableSprings;
+
+    private final Quadtree quadtree = new Quadtree();
+    private final SpatialGrid springGrid = new SpatialGrid();
+
+    /**
+     * Parallel execution state: the points are split into a number of chunks which only depends on the number of points,
+     * each chunk having its own force buffers, so that results do not depend on the parallelism of the pool.
+     */
+    private int nbChunks;
+    private double[][] chunkForceX;
+    private double[][] chunkForceY;
+
     private boolean hasBeenExecuted = false;
+    private int nbSteps;
+    /** Total and maximum kinetic energy of the points, computed when updating velocities */
+    private double energy;
+    private double maxPointEnergy;
+    private StoppingCriterion stoppingCriterion;
+    /** Factor applied to the velocities by the step control, and state of the adaptive step control */
+    private double stepFactor;
+    private double previousUnscaledEnergy;
+    private int energyProgress;
 
     public ForceLayout(Graph<V, E> graph) {
         this.maxSteps = DEFAULT_MAX_STEPS;
         this.minEnergyThreshold = DEFAULT_MIN_ENERGY_THRESHOLD;
+        this.totalEnergyThreshold = DEFAULT_TOTAL_ENERGY_THRESHOLD;
+        this.energyDecreaseWindow = DEFAULT_ENERGY_DECREASE_WINDOW;
+        this.minEnergyDecrease = DEFAULT_MIN_ENERGY_DECREASE;
+        this.timeBudgetNanos = DEFAULT_TIME_BUDGET;
+        this.stepControl = DEFAULT_STEP_CONTROL;
+        this.coolingFactor = DEFAULT_COOLING_FACTOR;
         this.deltaTime = DEFAULT_DELTA_TIME;
         this.repulsion = DEFAULT_REPULSION;
         this.friction = DEFAULT_FRICTION;
         this.maxSpeed = DEFAULT_MAX_SPEED;
         this.springRepulsionFactor = DEFAULT_SPRING_REPULSION_FACTOR;
+        this.barnesHutTheta = DEFAULT_BARNES_HUT_THETA;
+        this.springRepulsionCutoff = DEFAULT_SPRING_REPULSION_CUTOFF;
         this.graph = Objects.requireNonNull(graph);
     }
 
@@ -104,6 +192,57 @@ public class ForceLayout<V, E> {
         return this;
     }
 
+    /**
+     * Sets the total energy of the points below which the layout stops. Zero, the default value, disables this criterion.
+     */
+    public ForceLayout<V, E> setTotalEnergyThreshold(double totalEnergyThreshold) {
+        this.totalEnergyThreshold = totalEnergyThreshold;
+        return this;
+    }
+
+    /**
+     * Stops the layout when the total energy decreased by less than the given ratio over the last window of steps.
+     * A window of zero steps, the default value, disables this criterion.
+     */
+    public ForceLayout<V, E> setEnergyDecreaseCriterion(int energyDecreaseWindow, double minEnergyDecrease) {
+        this.energyDecreaseWindow = energyDecreaseWindow;
+        this.minEnergyDecrease = minEnergyDecrease;
+        return this;
+    }
+
+    /**
+     * Sets the maximum duration of the layout, in milliseconds. Zero, the default value, disables this criterion.
+     */
+    public ForceLayout<V, E> setTimeBudget(long timeBudgetMillis) {
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+        return this;
+    }
+
+    /**
+     * Sets the clock giving the current time in nanoseconds, used for the time budget. {@link System#nanoTime} by default.
+     */
+    public ForceLayout<V, E> setNanoClock(LongSupplier nanoClock) {
+        this.nanoClock = Objects.requireNonNull(nanoClock);
+        return this;
+    }
+
+    /**
+     * Sets how the length of the steps evolves along the layout. The default value {@link StepControl#CONSTANT}
+     * keeps the steps unscaled.
+     */
+    public ForceLayout<V, E> setStepControl(StepControl stepControl) {
+        this.stepControl = Objects.requireNonNull(stepControl);
+        return this;
+    }
+
+    /**
+     * Sets the factor by which the temperature is multiplied at each step with the {@link StepControl#COOLING} step control.
+     */
+    public ForceLayout<V, E> setCoolingFactor(double coolingFactor) {
+        this.coolingFactor = coolingFactor;
+        return this;
+    }
+
     public ForceLayout<V, E> setDeltaTime(double deltaTime) {
         this.deltaTime = deltaTime;
         return this;
@@ -129,6 +268,35 @@ public class ForceLayout<V, E> {
         return this;
     }
 
+    /**
+     * Sets the opening angle of the Barnes-Hut approximation of the repulsion between points.
+     * A group of points is seen as a single point if the ratio of its width to its distance is lower than theta.
+     * Zero, the default value, disables the approximation and computes the exact repulsion between each pair of points.
+     */
+    public ForceLayout<V, E> setBarnesHutTheta(double barnesHutTheta) {
+        this.barnesHutTheta = barnesHutTheta;
+        return this;
+    }
+
+    /**
+     * Sets the distance beyond which the repulsion exerted by the springs is ignored, allowing to compute it on large
+     * graphs with a grid of the spring centers. Zero, the default value, computes the repulsion between all points and
+     * springs.
+     */
+    public ForceLayout<V, E> setSpringRepulsionCutoff(double springRepulsionCutoff) {
+        this.springRepulsionCutoff = springRepulsionCutoff;
+        return this;
+    }
+
+    /**
+     * Sets the pool used to compute the repulsion forces in parallel, or null, the default value, to compute them
+     * in the calling thread. The layout obtained is the same whatever the parallelism of the pool.
+     */
+    public ForceLayout<V, E> setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+        return this;
+    }
+
     public ForceLayout<V, E> setInitialPoints(Map<V, Point> initialPoints) {
         this.initialPoints = Objects.requireNonNull(initialPoints);
         return this;
@@ -155,6 +323,37 @@ public class ForceLayout<V, E> {
             }
             points.put(vertex, p);
         }
+
+        nbPoints = points.size();
+        positionX = new double[nbPoints];
+        positionY = new double[nbPoints];
+        velocityX = new double[nbPoints];
+        velocityY = new double[nbPoints];
+        forceX = new double[nbPoints];
+        forceY = new double[nbPoints];
+        mass = new double[nbPoints];
+        fixed = new boolean[nbPoints];
+        int i = 0;
+        for (Map.Entry<V, Point> vertexPoint : points.entrySet()) {
+            Point point = vertexPoint.getValue();
+            positionX[i] = point.getPosition().getX();
+            positionY[i] = point.getPosition().getY();
+            velocityX[i] = point.getVelocity().getX();
+            velocityY[i] = point.getVelocity().getY();
+            forceX[i] = point.getForces().getX();
+            forceY[i] = point.getForces().getY();
+            mass[i] = point.getMass();
+            fixed[i] = fixedNodes.contains(vertexPoint.getKey());
+            i++;
+        }
+
+        movable = new int[nbPoints];
+        nbMovable = 0;
+        for (int j = 0; j < nbPoints; j++) {
+            if (!fixed[j]) {
+                movable[nbMovable++] = j;
+            }
+        }
     }
 
     private void initializeSprings() {
@@ -165,14 +364,59 @@ public class ForceLayout<V, E> {
                 springs.add(new Spring(pointSource, pointTarget, graph.getEdgeWeight(e)));
             }
         }
+
+        Map<Point, Integer> pointIndexes = new IdentityHashMap<>(nbPoints);
+        int i = 0;
+        for (Point point : points.values()) {
+            pointIndexes.put(point, i++);
+        }
+
+        nbSprings = springs.size();
+        springNode1 = new int[nbSprings];
+        springNode2 = new int[nbSprings];
+        springLength = new double[nbSprings];
+        springStiffness = new double[nbSprings];
+        springCenterX = new double[nbSprings];
+        springCenterY = new double[nbSprings];
+        int k = 0;
+        for (Spring spring : springs) {
+            springNode1[k] = pointIndexes.get(spring.getNode1());
+            springNode2[k] = pointIndexes.get(spring.getNode2());
+            springLength[k] = spring.getLength();
+            springStiffness[k] = spring.getStiffness();
+            k++;
+        }
+
+        movableSprings = new int[nbSprings];
+        nbMovableSprings = 0;
+        for (int l = 0; l < nbSprings; l++) {
+            if (!fixed[springNode1[l]] || !fixed[springNode2[l]]) {
+                movableSprings[nbMovableSprings++] = l;
+            }
+        }
+    }
+
+    private void initializeChunks() {
+        nbChunks = Math.max(1, Math.min(MAX_PARALLEL_CHUNKS, (nbPoints + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE));
+        if (forkJoinPool != null && springRepulsionFactor != 0.0) {
+            chunkForceX = new double[nbChunks][nbPoints];
+            chunkForceY = new double[nbChunks][nbPoints];
+        }
     }
 
     public void execute() {
-        long start = System.nanoTime();
+        long start = nanoClock.getAsLong();
 
         initializePoints();
         initializeSprings();
-
+        initializeChunks();
+
+        double[] windowEnergies = new double[Math.max(energyDecreaseWindow, 0)];
+        energy = 0;
+        stoppingCriterion = StoppingCriterion.MAX_STEPS;
+        stepFactor = 1;
+        previousUnscaledEnergy = Double.POSITIVE_INFINITY;
+        energyProgress = 0;
         int i;
         for (i = 0; i < maxSteps; i++) {
             applyCoulombsLawToPoints();
@@ -184,129 +428,414 @@ public class ForceLayout<V, E> {
             updateVelocity();
             updatePosition();
 
-            if (isStable()) {
+            StoppingCriterion criterion = checkStoppingCriteria(i, windowEnergies, start);
+            if (criterion != null) {
+                stoppingCriterion = criterion;
                 break;
             }
         }
 
+        updatePoints();
         hasBeenExecuted = true;
+        // When stopped by a criterion, the step i has been done before breaking the loop
+        nbSteps = stoppingCriterion == StoppingCriterion.MAX_STEPS ? i : i + 1;
 
-        long elapsedTime = System.nanoTime() - start;
+        long elapsedTime = nanoClock.getAsLong() - start;
 
-        LOGGER.info("Number of steps: {}", i);
+        LOGGER.info("Number of steps: {}", nbSteps);
+        LOGGER.info("Stopping criterion: {}", stoppingCriterion);
         LOGGER.info("Elapsed time: {}", elapsedTime / 1e9);
     }
 
-    private Vector coulombsForce(Vector p1, Vector p2, double repulsion) {
-        Vector distance = p1.subtract(p2);
-        Vector direction = distance.normalize();
-        return direction.multiply(repulsion).divide(distance.magnitudeSquare() * 0.5 + 0.1);
+    /**
+     * Adds to the force of point i the repulsion exerted by a charge located at (qx, qy).
+     * The operations are done in the same order as with {@link Vector} objects, so that results are unchanged.
+     */
+    private void addCoulombsForce(int i, double qx, double qy, double repulsion) {
+        double dx = positionX[i] - qx;
+        double dy = positionY[i] - qy;
+        double magnitude = Math.sqrt(dx * dx + dy * dy);
+        double denominator = (dx * dx + dy * dy) * 0.5 + 0.1;
+        forceX[i] += dx / magnitude * repulsion / denominator;
+        forceY[i] += dy / magnitude * repulsion / denominator;
     }
 
     private void applyCoulombsLawToPoints() {
-        for (Point point : points.values()) {
-            Vector p = point.getPosition();
-            for (Point otherPoint : points.values()) {
-                if (!point.equals(otherPoint)) {
-                    point.applyForce(coulombsForce(p, otherPoint.getPosition(), repulsion));
+        if (barnesHutTheta > 0) {
+            quadtree.build(positionX, positionY, nbPoints);
+        }
+        if (forkJoinPool == null) {
+            applyCoulombsLawToPoints(0, nbMovable);
+        } else {
+            // Each task only modifies the forces of its own points: no buffer is needed
+            runChunks(nbMovable, (chunk, from, to) -> applyCoulombsLawToPoints(from, to));
+        }
+    }
+
+    /**
+     * Applies to the movable points of the given range of the movable index the repulsion exerted by all the points,
+     * fixed ones included.
+     */
+    private void applyCoulombsLawToPoints(int from, int to) {
+        if (barnesHutTheta > 0) {
+            for (int m = from; m < to; m++) {
+                quadtree.addRepulsion(movable[m], repulsion, barnesHutTheta, forceX, forceY);
+            }
+            return;
+        }
+        for (int m = from; m < to; m++) {
+            int i = movable[m];
+            for (int j = 0; j < nbPoints; j++) {
+                if (i != j) {
+                    addCoulombsForce(i, positionX[j], positionY[j], repulsion);
                 }
             }
         }
     }
 
     private void applyCoulombsLawToSprings() {
-        for (Point point : points.values()) {
-            Vector p = point.getPosition();
-            for (Spring spring : springs) {
-                Point n1 = spring.getNode1();
-                Point n2 = spring.getNode2();
-                if (!n1.equals(point) && !n2.equals(point)) {
-                    Vector q1 = spring.getNode1().getPosition();
-                    Vector q2 = spring.getNode2().getPosition();
-                    Vector center = q1.add(q2.subtract(q1).multiply(0.5));
-                    Vector force = coulombsForce(p, center, repulsion * springRepulsionFactor);
-                    point.applyForce(force);
-                    n1.applyForce(force.multiply(-0.5));
-                    n2.applyForce(force.multiply(-0.5));
+        double springRepulsion = repulsion * springRepulsionFactor;
+        if (springRepulsionCutoff > 0) {
+            for (int k = 0; k < nbSprings; k++) {
+                int n1 = springNode1[k];
+                int n2 = springNode2[k];
+                springCenterX[k] = positionX[n1] + (positionX[n2] - positionX[n1]) * 0.5;
+                springCenterY[k] = positionY[n1] + (positionY[n2] - positionY[n1]) * 0.5;
+            }
+            springGrid.build(springCenterX, springCenterY, nbSprings, springRepulsionCutoff);
+        }
+        if (forkJoinPool == null) {
+            applyCoulombsLawFromSpringsToPoints(0, nbPoints, springRepulsion, forceX, forceY);
+            applyCoulombsLawBetweenSprings(0, nbMovableSprings, springRepulsion, forceX, forceY);
+            return;
+        }
+
+        // Tasks modify the forces of any point: each chunk accumulates its forces in its own buffers,
+        // which are then summed up in chunk order to get a deterministic result
+        runChunks(nbPoints, (chunk, from, to) -> applyCoulombsLawFromSpringsToPoints(from, to, springRepulsion, chunkForceX[chunk], chunkForceY[chunk]));
+        runChunks(nbMovableSprings, (chunk, from, to) -> applyCoulombsLawBetweenSprings(from, to, springRepulsion, chunkForceX[chunk], chunkForceY[chunk]));
+        runChunks(nbMovable, (chunk, from, to) -> {
+            for (int c = 0; c < nbChunks; c++) {
+                double[] bufferX = chunkForceX[c];
+                double[] bufferY = chunkForceY[c];
+                for (int m = from; m < to; m++) {
+                    int i = movable[m];
+                    forceX[i] += bufferX[i];
+                    forceY[i] += bufferY[i];
+                    bufferX[i] = 0;
+                    bufferY[i] = 0;
                 }
             }
+        });
+    }
+
+    /**
+     * Applies the repulsion between the points of the given range and the springs, and its reaction on the ends of the
+     * springs. A fixed point is only considered with the springs having a movable end, as it cannot be moved itself.
+     */
+    private void applyCoulombsLawFromSpringsToPoints(int from, int to, double springRepulsion, double[] fX, double[] fY) {
+        if (springRepulsionCutoff > 0) {
+            applyCoulombsLawFromNearSpringsToPoints(from, to, springRepulsion, fX, fY);
+            return;
         }
-        for (Spring spring : springs) {
-            Point n1 = spring.getNode1();
-            Point n2 = spring.getNode2();
-            Vector p1 = spring.getNode1().getPosition();
-            Vector p2 = spring.getNode2().getPosition();
-            Vector center = p1.add(p2.subtract(p1).multiply(0.5));
-            for (Spring otherSpring : springs) {
-                if (!spring.equals(otherSpring)) {
+        for (int i = from; i < to; i++) {
+            boolean fixedPoint = fixed[i];
+            int nbTargetSprings = fixedPoint ? nbMovableSprings : nbSprings;
+            for (int s = 0; s < nbTargetSprings; s++) {
+                int k = fixedPoint ? movableSprings[s] : s;
+                int n1 = springNode1[k];
+                int n2 = springNode2[k];
+                if (n1 != i && n2 != i) {
+                    double centerX = positionX[n1] + (positionX[n2] - positionX[n1]) * 0.5;
+                    double centerY = positionY[n1] + (positionY[n2] - positionY[n1]) * 0.5;
+                    double dx = positionX[i] - centerX;
+                    double dy = positionY[i] - centerY;
+                    double magnitude = Math.sqrt(dx * dx + dy * dy);
+                    double denominator = (dx * dx + dy * dy) * 0.5 + 0.1;
+                    double fx = dx / magnitude * springRepulsion / denominator;
+                    double fy = dy / magnitude * springRepulsion / denominator;
+                    fX[i] += fx;
+                    fY[i] += fy;
+                    fX[n1] += fx * -0.5;
+                    fY[n1] += fy * -0.5;
+                    fX[n2] += fx * -0.5;
+                    fY[n2] += fy * -0.5;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies to the ends of the springs of the given range of the movable springs index the repulsion exerted by all
+     * the springs.
+     */
+    private void applyCoulombsLawBetweenSprings(int from, int to, double springRepulsion, double[] fX, double[] fY) {
+        if (springRepulsionCutoff > 0) {
+            applyCoulombsLawBetweenNearSprings(from, to, springRepulsion, fX, fY);
+            return;
+        }
+        for (int s = from; s < to; s++) {
+            int k = movableSprings[s];
+            int n1 = springNode1[k];
+            int n2 = springNode2[k];
+            double centerX = positionX[n1] + (positionX[n2] - positionX[n1]) * 0.5;
+            double centerY = positionY[n1] + (positionY[n2] - positionY[n1]) * 0.5;
+            for (int l = 0; l < nbSprings; l++) {
+                if (k != l) {
                     // Compute the repulsion force between centers of the springs
-                    Vector op1 = otherSpring.getNode1().getPosition();
-                    Vector op2 = otherSpring.getNode2().getPosition();
-                    Vector otherCenter = op1.add(op2.subtract(op1).multiply(0.5));
-                    Vector force = coulombsForce(center, otherCenter, repulsion * springRepulsionFactor);
+                    int o1 = springNode1[l];
+                    int o2 = springNode2[l];
+                    double otherCenterX = positionX[o1] + (positionX[o2] - positionX[o1]) * 0.5;
+                    double otherCenterY = positionY[o1] + (positionY[o2] - positionY[o1]) * 0.5;
+                    double dx = centerX - otherCenterX;
+                    double dy = centerY - otherCenterY;
+                    double magnitude = Math.sqrt(dx * dx + dy * dy);
+                    double denominator = (dx * dx + dy * dy) * 0.5 + 0.1;
+                    double fx = dx / magnitude * springRepulsion / denominator;
+                    double fy = dy / magnitude * springRepulsion / denominator;
 
                     // And apply it to both points of the spring
-                    n1.applyForce(force);
-                    n2.applyForce(force);
+                    fX[n1] += fx;
+                    fY[n1] += fy;
+                    fX[n2] += fx;
+                    fY[n2] += fy;
                 }
             }
         }
     }
 
-    private void applyHookesLaw() {
-        for (Spring spring : springs) {
-            Point point1 = spring.getNode1();
-            Point point2 = spring.getNode2();
+    /**
+     * Same as {@link #applyCoulombsLawFromSpringsToPoints} but only considering the springs whose center is within the
+     * cutoff distance, found with the grid of spring centers.
+     */
+    private void applyCoulombsLawFromNearSpringsToPoints(int from, int to, double springRepulsion, double[] fX, double[] fY) {
+        double cutoffSquare = springRepulsionCutoff * springRepulsionCutoff;
+        for (int i = from; i < to; i++) {
+            boolean fixedPoint = fixed[i];
+            int column = springGrid.getColumn(positionX[i]);
+            int row = springGrid.getRow(positionY[i]);
+            for (int r = Math.max(0, row - 1); r <= Math.min(springGrid.getNbRows() - 1, row + 1); r++) {
+                for (int c = Math.max(0, column - 1); c <= Math.min(springGrid.getNbColumns() - 1, column + 1); c++) {
+                    for (int index = springGrid.getCellStart(c, r); index < springGrid.getCellEnd(c, r); index++) {
+                        int k = springGrid.getItem(index);
+                        int n1 = springNode1[k];
+                        int n2 = springNode2[k];
+                        double dx = positionX[i] - springCenterX[k];
+                        double dy = positionY[i] - springCenterY[k];
+                        double magnitudeSquare = dx * dx + dy * dy;
+                        if (n1 != i && n2 != i && magnitudeSquare < cutoffSquare && (!fixedPoint || !fixed[n1] || !fixed[n2])) {
+                            double magnitude = Math.sqrt(magnitudeSquare);
+                            double denominator = magnitudeSquare * 0.5 + 0.1;
+                            double fx = dx / magnitude * springRepulsion / denominator;
+                            double fy = dy / magnitude * springRepulsion / denominator;
+                            fX[i] += fx;
+                            fY[i] += fy;
+                            fX[n1] += fx * -0.5;
+                            fY[n1] += fy * -0.5;
+                            fX[n2] += fx * -0.5;
+                            fY[n2] += fy * -0.5;
+                        }
+                    }
+                }
+            }
+        }
+    }
 
-            Vector distance = point2.getPosition().subtract(point1.getPosition());
-            double displacement = spring.getLength() - distance.magnitude();
-            Vector direction = distance.normalize();
+    /**
+     * Same as {@link #applyCoulombsLawBetweenSprings} but only considering the pairs of springs whose centers are within
+     * the cutoff distance, found with the grid of spring centers.
+     */
+    private void applyCoulombsLawBetweenNearSprings(int from, int to, double springRepulsion, double[] fX, double[] fY) {
+        double cutoffSquare = springRepulsionCutoff * springRepulsionCutoff;
+        for (int s = from; s < to; s++) {
+            int k = movableSprings[s];
+            int n1 = springNode1[k];
+            int n2 = springNode2[k];
+            int column = springGrid.getColumn(springCenterX[k]);
+            int row = springGrid.getRow(springCenterY[k]);
+            for (int r = Math.max(0, row - 1); r <= Math.min(springGrid.getNbRows() - 1, row + 1); r++) {
+                for (int c = Math.max(0, column - 1); c <= Math.min(springGrid.getNbColumns() - 1, column + 1); c++) {
+                    for (int index = springGrid.getCellStart(c, r); index < springGrid.getCellEnd(c, r); index++) {
+                        int l = springGrid.getItem(index);
+                        double dx = springCenterX[k] - springCenterX[l];
+                        double dy = springCenterY[k] - springCenterY[l];
+                        double magnitudeSquare = dx * dx + dy * dy;
+                        if (k != l && magnitudeSquare < cutoffSquare) {
+                            double magnitude = Math.sqrt(magnitudeSquare);
+                            double denominator = magnitudeSquare * 0.5 + 0.1;
+                            double fx = dx / magnitude * springRepulsion / denominator;
+                            double fy = dy / magnitude * springRepulsion / denominator;
+                            fX[n1] += fx;
+                            fY[n1] += fy;
+                            fX[n2] += fx;
+                            fY[n2] += fy;
+                        }
+                    }
+                }
+            }
+        }
+    }
 
-            Vector force = direction.multiply(spring.getStiffness() * displacement * 0.5);
-            point1.applyForce(force.multiply(-1));
-            point2.applyForce(force);
+    /**
+     * Splits the range [0, size) into nbChunks contiguous chunks and runs the given task on each of them in the
+     * fork-join pool, waiting for all of them to complete.
+     */
+    private void runChunks(int size, ChunkTask task) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(nbChunks);
+        for (int c = 0; c < nbChunks; c++) {
+            int chunk = c;
+            int from = (int) ((long) size * c / nbChunks);
+            int to = (int) ((long) size * (c + 1) / nbChunks);
+            tasks.add(ForkJoinTask.adapt(() -> task.run(chunk, from, to)));
         }
+        forkJoinPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
     }
 
-    private void attractToCenter() {
-        for (Point point : points.values()) {
-            Vector direction = point.getPosition().multiply(-1);
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int chunk, int from, int to);
+    }
 
-            point.applyForce(direction.multiply(repulsion / 200.0));
+    private void applyHookesLaw() {
+        for (int s = 0; s < nbMovableSprings; s++) {
+            int k = movableSprings[s];
+            int n1 = springNode1[k];
+            int n2 = springNode2[k];
+
+            double dx = positionX[n2] - positionX[n1];
+            double dy = positionY[n2] - positionY[n1];
+            double magnitude = Math.sqrt(dx * dx + dy * dy);
+            double displacement = springLength[k] - magnitude;
+            double intensity = springStiffness[k] * displacement * 0.5;
+
+            double fx = dx / magnitude * intensity;
+            double fy = dy / magnitude * intensity;
+            forceX[n1] += fx * -1;
+            forceY[n1] += fy * -1;
+            forceX[n2] += fx;
+            forceY[n2] += fy;
         }
     }
 
-    private void updateVelocity() {
-        for (Point point : points.values()) {
-            Vector newVelocity = point.getForces().multiply((1 - Math.exp(-deltaTime * friction / point.getMass())) / friction);
-            point.setVelocity(newVelocity);
+    private void attractToCenter() {
+        double attraction = repulsion / 200.0;
+        for (int m = 0; m < nbMovable; m++) {
+            int i = movable[m];
+            forceX[i] += positionX[i] * -1 * attraction;
+            forceY[i] += positionY[i] * -1 * attraction;
+        }
+    }
 
-            if (point.getVelocity().magnitude() > maxSpeed) {
-                Vector velocity = point.getVelocity().normalize().multiply(maxSpeed);
-                point.setVelocity(velocity);
+    private void updateVelocity() {
+        double totalEnergy = 0;
+        double maxEnergy = 0;
+        double unscaledEnergy = 0;
+        for (int m = 0; m < nbMovable; m++) {
+            int i = movable[m];
+            double factor = (1 - Math.exp(-deltaTime * friction / mass[i])) / friction;
+            double vx = forceX[i] * factor;
+            double vy = forceY[i] * factor;
+
+            double speed = Math.sqrt(vx * vx + vy * vy);
+            if (stepControl != StepControl.CONSTANT) {
+                double unscaledSpeed = Math.min(speed, maxSpeed);
+                unscaledEnergy += 0.5 * mass[i] * unscaledSpeed * unscaledSpeed;
+                vx *= stepFactor;
+                vy *= stepFactor;
+                speed *= stepFactor;
+            }
+            // The step factor is applied before the clamping so that the max speed is never exceeded
+            if (speed > maxSpeed) {
+                vx = vx / speed * maxSpeed;
+                vy = vy / speed * maxSpeed;
             }
+            velocityX[i] = vx;
+            velocityY[i] = vy;
 
-            point.resetForces();
+            double pointEnergy = 0.5 * mass[i] * (vx * vx + vy * vy);
+            totalEnergy += pointEnergy;
+            maxEnergy = Math.max(maxEnergy, pointEnergy);
+
+            forceX[i] = 0;
+            forceY[i] = 0;
+        }
+        energy = totalEnergy;
+        maxPointEnergy = maxEnergy;
+        updateStepFactor(unscaledEnergy);
+    }
+
+    /**
+     * Updates the factor applied to the velocities of next step, based on the energy the points would have had
+     * without step control.
+     */
+    private void updateStepFactor(double unscaledEnergy) {
+        switch (stepControl) {
+            case COOLING:
+                stepFactor *= coolingFactor;
+                break;
+            case ADAPTIVE:
+                if (unscaledEnergy < previousUnscaledEnergy) {
+                    energyProgress++;
+                    if (energyProgress >= ADAPTIVE_STEP_PROGRESS) {
+                        energyProgress = 0;
+                        stepFactor = Math.min(ADAPTIVE_MAX_STEP_FACTOR, stepFactor / ADAPTIVE_STEP_FACTOR);
+                    }
+                } else {
+                    energyProgress = 0;
+                    stepFactor *= ADAPTIVE_STEP_FACTOR;
+                }
+                previousUnscaledEnergy = unscaledEnergy;
+                break;
+            default:
+                break;
         }
     }
 
     private void updatePosition() {
-        // TODO do not compute forces or update velocities for fixed nodes
-        // We have computed forces and velocities for all nodes, even for the fixed ones
-        // We can optimize calculations by ignoring fixed nodes in those calculations
-        // Here we only update the position for the nodes that do not have fixed positions
-        for (Map.Entry<V, Point> vertexPoint : points.entrySet()) {
-            if (fixedNodes.contains(vertexPoint.getKey())) {
-                continue;
+        for (int m = 0; m < nbMovable; m++) {
+            int i = movable[m];
+            positionX[i] += velocityX[i] * deltaTime;
+            positionY[i] += velocityY[i] * deltaTime;
+        }
+    }
+
+    /**
+     * Returns the criterion for which the layout should stop after the given step, or null if it should go on.
+     * The energies are the ones computed when updating the velocities, hence no extra pass on the points is needed.
+     */
+    private StoppingCriterion checkStoppingCriteria(int step, double[] windowEnergies, long start) {
+        if (maxPointEnergy < minEnergyThreshold) {
+            return StoppingCriterion.POINTS_ENERGY;
+        }
+        if (energy < totalEnergyThreshold) {
+            return StoppingCriterion.TOTAL_ENERGY;
+        }
+        if (windowEnergies.length > 0) {
+            // Circular buffer of the energies of the last steps
+            int index = step % windowEnergies.length;
+            double previousEnergy = windowEnergies[index];
+            windowEnergies[index] = energy;
+            if (step >= windowEnergies.length && previousEnergy - energy < minEnergyDecrease * previousEnergy) {
+                return StoppingCriterion.ENERGY_DECREASE;
             }
-            Point point = vertexPoint.getValue();
-            Vector position = point.getPosition().add(point.getVelocity().multiply(deltaTime));
-            point.setPosition(position);
         }
+        if (timeBudgetNanos > 0 && nanoClock.getAsLong() - start > timeBudgetNanos) {
+            return StoppingCriterion.TIME_BUDGET;
+        }
+        return null;
     }
 
-    private boolean isStable() {
-        return points.values().stream().allMatch(p -> p.getEnergy() < minEnergyThreshold);
+    /**
+     * Copies the state of the simulation into the {@link Point} objects, which are the view of the layout result.
+     */
+    private void updatePoints() {
+        int i = 0;
+        for (Point point : points.values()) {
+            point.setPosition(new Vector(positionX[i], positionY[i]));
+            point.setVelocity(new Vector(velocityX[i], velocityY[i]));
+            point.resetForces();
+            i++;
+        }
     }
 
     public Vector getStablePosition(V vertex) {
@@ -316,6 +845,27 @@ public class ForceLayout<V, E> {
         return points.getOrDefault(vertex, new Point(-1, -1)).getPosition();
     }
 
+    /**
+     * Returns the number of steps done by the last execution.
+     */
+    public int getNbSteps() {
+        return nbSteps;
+    }
+
+    /**
+     * Returns the total kinetic energy of the points at the end of the last execution.
+     */
+    public double getEnergy() {
+        return energy;
+    }
+
+    /**
+     * Returns the criterion which stopped the last execution.
+     */
+    public StoppingCriterion getStoppingCriterion() {
+        return stoppingCriterion;
+    }
+
     public Set<Spring> getSprings() {
         return springs;
     }
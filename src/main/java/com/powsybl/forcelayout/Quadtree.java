@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.forcelayout;
+
+import java.util.Arrays;
+
+/**
+ * Region quadtree used for the Barnes-Hut approximation of the repulsion forces.
+ * The tree is stored in flat arrays which are reused each time the tree is rebuilt, in order to avoid allocating
+ * objects at each step of the layout.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+final class Quadtree {
+
+    /** Maximum depth, needed to stop subdividing cells containing points at the same location */
+    private static final int MAX_DEPTH = 32;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_CHILD = -1;
+    private static final int NO_BODY = -1;
+
+    private int nbCells;
+    private double[] centerX = new double[INITIAL_CAPACITY];
+    private double[] centerY = new double[INITIAL_CAPACITY];
+    private double[] halfSize = new double[INITIAL_CAPACITY];
+    private int[] depth = new int[INITIAL_CAPACITY];
+    /** Index of the first of the four children cells, which are contiguous, or NO_CHILD for a leaf */
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    /** Index of the point contained in a leaf, or NO_BODY if the leaf is empty or aggregates several points */
+    private int[] body = new int[INITIAL_CAPACITY];
+    private int[] count = new int[INITIAL_CAPACITY];
+    private double[] sumX = new double[INITIAL_CAPACITY];
+    private double[] sumY = new double[INITIAL_CAPACITY];
+
+    private double[] x;
+    private double[] y;
+
+    /**
+     * Rebuilds the tree with the given points coordinates.
+     */
+    void build(double[] x, double[] y, int nbPoints) {
+        this.x = x;
+        this.y = y;
+        nbCells = 0;
+        if (nbPoints == 0) {
+            return;
+        }
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < nbPoints; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        // Slightly enlarging the root cell so that all points are strictly inside
+        double rootHalfSize = Math.max(maxX - minX, maxY - minY) * 0.5 * 1.01 + 1e-9;
+        newCell((minX + maxX) * 0.5, (minY + maxY) * 0.5, rootHalfSize, 0);
+
+        for (int i = 0; i < nbPoints; i++) {
+            insert(i, 0);
+        }
+    }
+
+    private void insert(int point, int startCell) {
+        double px = x[point];
+        double py = y[point];
+        int cell = startCell;
+        while (true) {
+            count[cell]++;
+            sumX[cell] += px;
+            sumY[cell] += py;
+            if (firstChild[cell] != NO_CHILD) {
+                cell = getChildCell(cell, px, py);
+                continue;
+            }
+            if (count[cell] == 1) {
+                body[cell] = point;
+                return;
+            }
+            if (depth[cell] == MAX_DEPTH) {
+                // Several points at the same location: the leaf aggregates them
+                body[cell] = NO_BODY;
+                return;
+            }
+
+            // Leaf already containing a point: subdividing it and moving down the existing point
+            int existing = body[cell];
+            body[cell] = NO_BODY;
+            subdivide(cell);
+            if (existing != NO_BODY) {
+                insert(existing, getChildCell(cell, x[existing], y[existing]));
+            }
+            cell = getChildCell(cell, px, py);
+        }
+    }
+
+    private void subdivide(int cell) {
+        double quarterSize = halfSize[cell] * 0.5;
+        int childDepth = depth[cell] + 1;
+        // Children order needs to be consistent with getChildCell
+        int first = newCell(centerX[cell] - quarterSize, centerY[cell] - quarterSize, quarterSize, childDepth);
+        newCell(centerX[cell] + quarterSize, centerY[cell] - quarterSize, quarterSize, childDepth);
+        newCell(centerX[cell] - quarterSize, centerY[cell] + quarterSize, quarterSize, childDepth);
+        newCell(centerX[cell] + quarterSize, centerY[cell] + quarterSize, quarterSize, childDepth);
+        firstChild[cell] = first;
+    }
+
+    private int getChildCell(int cell, double px, double py) {
+        int quadrant = (px >= centerX[cell] ? 1 : 0) + (py >= centerY[cell] ? 2 : 0);
+        return firstChild[cell] + quadrant;
+    }
+
+    private int newCell(double cx, double cy, double hs, int cellDepth) {
+        if (nbCells == centerX.length) {
+            grow();
+        }
+        int cell = nbCells++;
+        centerX[cell] = cx;
+        centerY[cell] = cy;
+        halfSize[cell] = hs;
+        depth[cell] = cellDepth;
+        firstChild[cell] = NO_CHILD;
+        body[cell] = NO_BODY;
+        count[cell] = 0;
+        sumX[cell] = 0;
+        sumY[cell] = 0;
+        return cell;
+    }
+
+    private void grow() {
+        int capacity = centerX.length * 2;
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        halfSize = Arrays.copyOf(halfSize, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        body = Arrays.copyOf(body, capacity);
+        count = Arrays.copyOf(count, capacity);
+        sumX = Arrays.copyOf(sumX, capacity);
+        sumY = Arrays.copyOf(sumY, capacity);
+    }
+
+    /**
+     * Adds to the force of the given point the approximated repulsion exerted by all the other points of the tree.
+     * A cell is considered as a single body located at its center of mass if the ratio of its width to the distance
+     * to the point is lower than the given theta. A theta equal to zero gives the exact repulsion.
+     */
+    void addRepulsion(int point, double repulsion, double theta, double[] forceX, double[] forceY) {
+        if (nbCells > 0) {
+            addRepulsion(0, point, x[point], y[point], repulsion, theta, forceX, forceY);
+        }
+    }
+
+    private void addRepulsion(int cell, int point, double px, double py, double repulsion, double theta,
+                              double[] forceX, double[] forceY) {
+        int cellCount = count[cell];
+        if (cellCount == 0) {
+            return;
+        }
+        if (firstChild[cell] == NO_CHILD) {
+            int cellBody = body[cell];
+            if (cellBody != NO_BODY) {
+                if (cellBody != point) {
+                    addCoulombsForce(px, py, x[cellBody], y[cellBody], repulsion, point, forceX, forceY);
+                }
+            } else if (contains(cell, px, py)) {
+                // Aggregated leaf containing the point: removing the point from the aggregate
+                if (cellCount > 1) {
+                    addCoulombsForce(px, py, (sumX[cell] - px) / (cellCount - 1), (sumY[cell] - py) / (cellCount - 1),
+                            repulsion * (cellCount - 1), point, forceX, forceY);
+                }
+            } else {
+                addCoulombsForce(px, py, sumX[cell] / cellCount, sumY[cell] / cellCount, repulsion * cellCount, point, forceX, forceY);
+            }
+            return;
+        }
+
+        if (!contains(cell, px, py)) {
+            double massCenterX = sumX[cell] / cellCount;
+            double massCenterY = sumY[cell] / cellCount;
+            double dx = px - massCenterX;
+            double dy = py - massCenterY;
+            double width = 2 * halfSize[cell];
+            if (width * width < theta * theta * (dx * dx + dy * dy)) {
+                addCoulombsForce(px, py, massCenterX, massCenterY, repulsion * cellCount, point, forceX, forceY);
+                return;
+            }
+        }
+
+        int first = firstChild[cell];
+        for (int child = first; child < first + 4; child++) {
+            addRepulsion(child, point, px, py, repulsion, theta, forceX, forceY);
+        }
+    }
+
+    private boolean contains(int cell, double px, double py) {
+        double hs = halfSize[cell];
+        return Math.abs(px - centerX[cell]) <= hs && Math.abs(py - centerY[cell]) <= hs;
+    }
+
+    private static void addCoulombsForce(double px, double py, double qx, double qy, double repulsion,
+                                         int point, double[] forceX, double[] forceY) {
+        double dx = px - qx;
+        double dy = py - qy;
+        double magnitudeSquare = dx * dx + dy * dy;
+        double magnitude = Math.sqrt(magnitudeSquare);
+        double factor = repulsion / (magnitude * (magnitudeSquare * 0.5 + 0.1));
+        forceX[point] += dx * factor;
+        forceY[point] += dy * factor;
+    }
+}
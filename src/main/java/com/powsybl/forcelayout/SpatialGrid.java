@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.forcelayout;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid (cell list) used to find the items located near a given position.
+ * The side of the cells is at least the search radius, hence all the items within that radius of a position are in
+ * the 3x3 block of cells around the cell of that position.
+ * The items are sorted by cell in flat arrays which are reused each time the grid is rebuilt.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+final class SpatialGrid {
+
+    /** Maximum number of cells per item, to bound memory when items are sparse compared to the search radius */
+    private static final int MAX_CELLS_PER_ITEM = 4;
+
+    private double minX;
+    private double minY;
+    private double cellSize;
+    private int nbColumns;
+    private int nbRows;
+    /** Index in items array of the first item of each cell, the items of cell c being in [cellStart[c], cellStart[c + 1]) */
+    private int[] cellStart = new int[0];
+    private int[] items = new int[0];
+    private int[] itemCell = new int[0];
+
+    /**
+     * Rebuilds the grid with the given items coordinates, for searches within the given radius.
+     */
+    void build(double[] x, double[] y, int nbItems, double radius) {
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < nbItems; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        if (nbItems == 0) {
+            minX = 0;
+            minY = 0;
+            maxX = 0;
+            maxY = 0;
+        }
+
+        double width = maxX - minX;
+        double height = maxY - minY;
+        cellSize = radius;
+        long maxCells = (long) MAX_CELLS_PER_ITEM * Math.max(nbItems, 1);
+        if ((width / cellSize + 1) * (height / cellSize + 1) > maxCells) {
+            cellSize = Math.max(radius, Math.sqrt(width * height / maxCells));
+            while ((width / cellSize + 1) * (height / cellSize + 1) > maxCells) {
+                cellSize *= 2;
+            }
+        }
+        nbColumns = (int) (width / cellSize) + 1;
+        nbRows = (int) (height / cellSize) + 1;
+
+        int nbCells = nbColumns * nbRows;
+        if (cellStart.length < nbCells + 1) {
+            cellStart = new int[nbCells + 1];
+        } else {
+            Arrays.fill(cellStart, 0, nbCells + 1, 0);
+        }
+        if (items.length < nbItems) {
+            items = new int[nbItems];
+            itemCell = new int[nbItems];
+        }
+
+        // Counting sort of the items by cell
+        for (int i = 0; i < nbItems; i++) {
+            int cell = getRow(y[i]) * nbColumns + getColumn(x[i]);
+            itemCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < nbCells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        for (int i = 0; i < nbItems; i++) {
+            items[cellStart[itemCell[i]]++] = i;
+        }
+        // The loop above shifted each cell start to the next one
+        for (int c = nbCells; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    /**
+     * Returns the column of the given abscissa, which lies outside [0, nbColumns) if the abscissa is outside the grid.
+     */
+    int getColumn(double px) {
+        return (int) Math.max(-2, Math.min(nbColumns + 1, Math.floor((px - minX) / cellSize)));
+    }
+
+    /**
+     * Returns the row of the given ordinate, which lies outside [0, nbRows) if the ordinate is outside the grid.
+     */
+    int getRow(double py) {
+        return (int) Math.max(-2, Math.min(nbRows + 1, Math.floor((py - minY) / cellSize)));
+    }
+
+    int getNbColumns() {
+        return nbColumns;
+    }
+
+    int getNbRows() {
+        return nbRows;
+    }
+
+    int getCellStart(int column, int row) {
+        return cellStart[row * nbColumns + column];
+    }
+
+    int getCellEnd(int column, int row) {
+        return cellStart[row * nbColumns + column + 1];
+    }
+
+    int getItem(int index) {
+        return items[index];
+    }
+}
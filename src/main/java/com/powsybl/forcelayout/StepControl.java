@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.forcelayout;
+
+/**
+ * Control of the length of the steps of the force layout, obtained by scaling the velocities of the points.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public enum StepControl {
+    /** Steps are not scaled */
+    CONSTANT,
+    /** Steps are scaled by a temperature which decreases geometrically at each step */
+    COOLING,
+    /**
+     * Steps are scaled by a factor which increases after several steps in a row decreasing the energy, and decreases
+     * as soon as the energy increases (Y. Hu, Efficient and high quality force-directed graph drawing, 2005)
+     */
+    ADAPTIVE
+}
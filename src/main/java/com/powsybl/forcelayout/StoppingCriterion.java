@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.forcelayout;
+
+/**
+ * Criterion which stopped the force layout.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public enum StoppingCriterion {
+    /** The maximum number of steps has been reached */
+    MAX_STEPS,
+    /** The energy of each point is below the minimum energy threshold */
+    POINTS_ENERGY,
+    /** The total energy of the points is below the total energy threshold */
+    TOTAL_ENERGY,
+    /** The total energy did not decrease enough over the last steps */
+    ENERGY_DECREASE,
+    /** The time budget has been exhausted */
+    TIME_BUDGET
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.nad.layout.AbstractLayout;
+import com.powsybl.nad.layout.Layout;
+import com.powsybl.nad.layout.LayoutFactory;
+import com.powsybl.nad.layout.LayoutParameters;
+import com.powsybl.nad.model.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the node positions computed by the layouts of {@link NetworkAreaDiagram}, to avoid running again a costly
+ * force layout when drawing several times the same area of a network.
+ * <p>
+ * Entries are keyed by network id, variant id, ids of the voltage levels displayed, layout parameters and class of
+ * the layout factory: layout factories of the same class are hence expected to create equivalent layouts. Entries are
+ * evicted when the maximum size is reached, least recently used first, and once not accessed for the given duration.
+ * <p>
+ * Only the positions are cached, not the graph, as the graph is modified when writing the SVG and as the topology of
+ * the voltage levels may have changed: on a cache hit, the positions are applied to the newly built graph instead of
+ * running the layout. Modifying the network does not invalidate the entries, which is left to the caller.
+ * This class is thread-safe.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public class DiagramCache {
+
+    private final Cache<Key, Positions> cache;
+
+    /**
+     * @param maximumSize maximum number of cached layouts
+     * @param expireAfterAccess duration after which a cached layout which has not been used is evicted
+     */
+    public DiagramCache(long maximumSize, Duration expireAfterAccess) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Objects.requireNonNull(expireAfterAccess))
+                .build();
+    }
+
+    /**
+     * Lays out the given graph, built from the given network, by reusing the cached positions if any, or by running
+     * a layout created by the given factory and caching the resulting positions otherwise.
+     * @return the layout which has been run on the graph
+     */
+    public Layout layout(Network network, Graph graph, LayoutParameters layoutParameters, LayoutFactory layoutFactory) {
+        Objects.requireNonNull(network);
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(layoutParameters);
+        Objects.requireNonNull(layoutFactory);
+
+        Set<String> voltageLevelIds = graph.getVoltageLevelNodesStream()
+                .filter(VoltageLevelNode::isVisible)
+                .map(VoltageLevelNode::getEquipmentId)
+                .collect(Collectors.toSet());
+        Key key = new Key(network.getId(), network.getVariantManager().getWorkingVariantId(), voltageLevelIds,
+                new LayoutParameters(layoutParameters), layoutFactory.getClass());
+
+        Layout[] layoutRun = new Layout[1];
+        Positions positions;
+        try {
+            positions = cache.get(key, () -> {
+                Layout layout = layoutFactory.create();
+                layout.run(graph, layoutParameters);
+                layoutRun[0] = layout;
+                return new Positions(graph);
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            // Rethrowing the exception of the layout as is
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new UncheckedExecutionException(e.getCause());
+        }
+        if (layoutRun[0] != null) {
+            return layoutRun[0];
+        }
+        Layout layout = new CachedPositionsLayout(positions);
+        layout.run(graph, layoutParameters);
+        return layout;
+    }
+
+    /**
+     * Returns the approximate number of cached layouts.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Discards all the cached layouts of the given network, for instance after its topology changed.
+     */
+    public void invalidate(Network network) {
+        String networkId = network.getId();
+        cache.asMap().keySet().removeIf(key -> key.networkId.equals(networkId));
+    }
+
+    /**
+     * Discards all the cached layouts.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static final class Key {
+
+        private final String networkId;
+        private final String variantId;
+        private final Set<String> voltageLevelIds;
+        private final LayoutParameters layoutParameters;
+        private final Class<?> layoutFactoryClass;
+
+        private Key(String networkId, String variantId, Set<String> voltageLevelIds, LayoutParameters layoutParameters,
+                    Class<?> layoutFactoryClass) {
+            this.networkId = networkId;
+            this.variantId = variantId;
+            this.voltageLevelIds = voltageLevelIds;
+            this.layoutParameters = layoutParameters;
+            this.layoutFactoryClass = layoutFactoryClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return networkId.equals(other.networkId)
+                    && variantId.equals(other.variantId)
+                    && voltageLevelIds.equals(other.voltageLevelIds)
+                    && layoutParameters.equals(other.layoutParameters)
+                    && layoutFactoryClass.equals(other.layoutFactoryClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(networkId, variantId, voltageLevelIds, layoutParameters, layoutFactoryClass);
+        }
+    }
+
+    /**
+     * Positions of the nodes of a laid out graph, by equipment id, text nodes being identified by the equipment id of
+     * their voltage level.
+     */
+    private static final class Positions {
+
+        private final Map<String, Point> nodePositions = new HashMap<>();
+        private final Map<String, Point> textNodePositions = new HashMap<>();
+
+        private Positions(Graph graph) {
+            graph.getNodesStream().forEach(node -> nodePositions.put(node.getEquipmentId(), node.getPosition()));
+            graph.getVoltageLevelTextPairs().forEach(nodePair ->
+                    textNodePositions.put(nodePair.getFirst().getEquipmentId(), nodePair.getSecond().getPosition()));
+        }
+    }
+
+    /**
+     * Layout setting the cached positions, the bus nodes and the edges being laid out as usual.
+     */
+    private static final class CachedPositionsLayout extends AbstractLayout {
+
+        private final Positions positions;
+
+        private CachedPositionsLayout(Positions positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        protected void nodesLayout(Graph graph, LayoutParameters layoutParameters) {
+            graph.getNodesStream().forEach(node -> setPosition(node, positions.nodePositions.get(node.getEquipmentId())));
+            graph.getVoltageLevelTextPairs().forEach(nodePair ->
+                    setPosition(nodePair.getSecond(), positions.textNodePositions.get(nodePair.getFirst().getEquipmentId())));
+        }
+
+        private static void setPosition(Node node, Point position) {
+            if (position != null) {
+                node.setPosition(position.getX(), position.getY());
+            }
+        }
+    }
+}
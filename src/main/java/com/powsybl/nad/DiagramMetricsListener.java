@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad;
+
+/**
+ * Listener notified at the end of each stage of the diagram generation, with metrics about that stage.
+ * All methods do nothing by default, so that an implementation only needs to override the ones it is interested in.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public interface DiagramMetricsListener {
+
+    DiagramMetricsListener NO_OP = new DiagramMetricsListener() {
+    };
+
+    /**
+     * Called once the graph has been built from the network.
+     * @param nbNodes number of nodes of the graph, that is, voltage level nodes and three-winding transformer nodes
+     * @param nbEdges number of edges between those nodes
+     * @param durationNanos duration of the graph building, in nanoseconds
+     */
+    default void onGraphBuilt(int nbNodes, int nbEdges, long durationNanos) {
+    }
+
+    /**
+     * Called once the graph has been laid out.
+     * @param nbSteps number of steps of the layout, zero for non-iterative layouts
+     * @param energy energy of the nodes at the end of a force layout, zero for other layouts
+     * @param durationNanos duration of the layout, in nanoseconds
+     */
+    default void onLayoutDone(int nbSteps, double energy, long durationNanos) {
+    }
+
+    /**
+     * Called once the SVG has been written.
+     * @param nbBytes number of bytes written: size of the file written, compressed for svgz output, or size of the SVG
+     *                encoded in UTF-8 when written in a {@link java.io.Writer}
+     * @param durationNanos duration of the SVG writing, edge rendering included, in nanoseconds
+     */
+    default void onSvgWritten(long nbBytes, long durationNanos) {
+    }
+}
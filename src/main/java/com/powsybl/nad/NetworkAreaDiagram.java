@@ -13,6 +13,7 @@ import com.powsybl.nad.build.iidm.IntIdProvider;
 import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
 import com.powsybl.nad.build.iidm.VoltageLevelFilter;
 import com.powsybl.nad.layout.BasicForceLayoutFactory;
+import com.powsybl.nad.layout.Layout;
 import com.powsybl.nad.layout.LayoutFactory;
 import com.powsybl.nad.layout.LayoutParameters;
 import com.powsybl.nad.model.Graph;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
@@ -39,6 +41,7 @@ public class NetworkAreaDiagram {
 
     private final Network network;
     private final Predicate<VoltageLevel> voltageLevelFilter;
+    private DiagramCache diagramCache;
 
     public NetworkAreaDiagram(Network network) {
         this(network, VoltageLevelFilter.NO_FILTER);
@@ -65,6 +68,18 @@ public class NetworkAreaDiagram {
         return network;
     }
 
+    public DiagramCache getDiagramCache() {
+        return diagramCache;
+    }
+
+    /**
+     * Sets the cache in which the layouts are looked up before being run, null to disable caching, which is the default.
+     */
+    public NetworkAreaDiagram setDiagramCache(DiagramCache diagramCache) {
+        this.diagramCache = diagramCache;
+        return this;
+    }
+
     public void draw(Path svgFile) {
         draw(svgFile, new SvgParameters());
     }
@@ -95,16 +110,31 @@ public class NetworkAreaDiagram {
     public void draw(Path svgFile, SvgParameters svgParameters, LayoutParameters layoutParameters,
                                    StyleProvider styleProvider, LabelProvider labelProvider, LayoutFactory layoutFactory,
                                    IdProvider idProvider) {
+        draw(svgFile, svgParameters, layoutParameters, styleProvider, labelProvider, layoutFactory, idProvider, DiagramMetricsListener.NO_OP);
+    }
+
+    public void draw(Path svgFile, SvgParameters svgParameters, LayoutParameters layoutParameters,
+                                   StyleProvider styleProvider, LabelProvider labelProvider, LayoutFactory layoutFactory,
+                                   IdProvider idProvider, DiagramMetricsListener metricsListener) {
         Objects.requireNonNull(svgFile);
         Objects.requireNonNull(layoutParameters);
         Objects.requireNonNull(svgParameters);
         Objects.requireNonNull(styleProvider);
         Objects.requireNonNull(layoutFactory);
         Objects.requireNonNull(idProvider);
-
-        Graph graph = new NetworkGraphBuilder(network, voltageLevelFilter, idProvider).buildGraph();
-        layoutFactory.create().run(graph, layoutParameters);
-        new SvgWriter(svgParameters, styleProvider, labelProvider).writeSvg(graph, svgFile);
+        Objects.requireNonNull(metricsListener);
+
+        Graph graph = buildGraph(layoutParameters, layoutFactory, idProvider, metricsListener);
+        long start = System.nanoTime();
+        SvgWriter svgWriter = new SvgWriter(svgParameters, styleProvider, labelProvider);
+        svgWriter.writeSvg(graph, svgFile);
+        long nbBytes;
+        try {
+            nbBytes = Files.size(svgWriter.getSvgFile(svgFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        metricsListener.onSvgWritten(nbBytes, System.nanoTime() - start);
     }
 
     public void draw(Writer writer) {
@@ -137,9 +167,36 @@ public class NetworkAreaDiagram {
     public void draw(Writer writer, SvgParameters svgParameters, LayoutParameters layoutParameters,
                      StyleProvider styleProvider, LabelProvider labelProvider, LayoutFactory layoutFactory,
                      IdProvider idProvider) {
+        draw(writer, svgParameters, layoutParameters, styleProvider, labelProvider, layoutFactory, idProvider, DiagramMetricsListener.NO_OP);
+    }
+
+    public void draw(Writer writer, SvgParameters svgParameters, LayoutParameters layoutParameters,
+                     StyleProvider styleProvider, LabelProvider labelProvider, LayoutFactory layoutFactory,
+                     IdProvider idProvider, DiagramMetricsListener metricsListener) {
+        Objects.requireNonNull(metricsListener);
+        Graph graph = buildGraph(layoutParameters, layoutFactory, idProvider, metricsListener);
+        long start = System.nanoTime();
+        Utf8CountingWriter countingWriter = new Utf8CountingWriter(writer);
+        new SvgWriter(svgParameters, styleProvider, labelProvider).writeSvg(graph, countingWriter);
+        metricsListener.onSvgWritten(countingWriter.getByteCount(), System.nanoTime() - start);
+    }
+
+    private Graph buildGraph(LayoutParameters layoutParameters, LayoutFactory layoutFactory, IdProvider idProvider,
+                             DiagramMetricsListener metricsListener) {
+        long start = System.nanoTime();
         Graph graph = new NetworkGraphBuilder(network, voltageLevelFilter, idProvider).buildGraph();
-        layoutFactory.create().run(graph, layoutParameters);
-        new SvgWriter(svgParameters, styleProvider, labelProvider).writeSvg(graph, writer);
+        metricsListener.onGraphBuilt((int) graph.getNodesStream().count(), graph.getEdges().size(), System.nanoTime() - start);
+
+        start = System.nanoTime();
+        Layout layout;
+        if (diagramCache != null) {
+            layout = diagramCache.layout(network, graph, layoutParameters, layoutFactory);
+        } else {
+            layout = layoutFactory.create();
+            layout.run(graph, layoutParameters);
+        }
+        metricsListener.onLayoutDone(layout.getNbSteps(), layout.getEnergy(), System.nanoTime() - start);
+        return graph;
     }
 
     public String drawToString(SvgParameters svgParameters) {
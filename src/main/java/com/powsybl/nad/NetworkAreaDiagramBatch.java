@@ -0,0 +1,365 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManager;
+import com.powsybl.nad.build.iidm.IntIdProvider;
+import com.powsybl.nad.build.iidm.VoltageLevelAdjacency;
+import com.powsybl.nad.build.iidm.VoltageLevelFilter;
+import com.powsybl.nad.layout.BasicForceLayoutFactory;
+import com.powsybl.nad.layout.LayoutFactory;
+import com.powsybl.nad.layout.LayoutParameters;
+import com.powsybl.nad.model.*;
+import com.powsybl.nad.svg.EdgeInfo;
+import com.powsybl.nad.svg.LabelProvider;
+import com.powsybl.nad.svg.StyleProvider;
+import com.powsybl.nad.svg.SvgParameters;
+import com.powsybl.nad.svg.iidm.DefaultLabelProvider;
+import com.powsybl.nad.svg.iidm.NominalVoltageStyleProvider;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the diagrams of many areas of a network, each area being drawn in its own SVG file of an output directory.
+ * <p>
+ * What does not depend on the area is computed once and shared by all the diagrams: the adjacency of the voltage
+ * levels used by the depth filters, the style provider, with its base voltages configuration and its style sheets,
+ * and the label provider. The areas are drawn concurrently on a bounded number of threads, an error when drawing an
+ * area being reported in the result without preventing the other areas from being drawn.
+ * <p>
+ * The bus views of the network, which are computed lazily in caches which are not thread-safe, are computed beforehand
+ * on the calling thread, for its working variant. This working variant is also set on the threads drawing the areas
+ * if the multi-thread access to the variants is allowed. The network should not be modified, nor its working variant
+ * changed, while the diagrams are generated.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public class NetworkAreaDiagramBatch {
+
+    private final Network network;
+    private final VoltageLevelAdjacency adjacency;
+    private SvgParameters svgParameters = new SvgParameters();
+    private LayoutParameters layoutParameters = new LayoutParameters();
+    private StyleProvider styleProvider;
+    private LabelProvider labelProvider;
+    private LayoutFactory layoutFactory = new BasicForceLayoutFactory();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ExecutorService executor;
+    private ProgressListener progressListener = ProgressListener.NO_OP;
+
+    public NetworkAreaDiagramBatch(Network network) {
+        this.network = Objects.requireNonNull(network);
+        this.adjacency = new VoltageLevelAdjacency(network);
+    }
+
+    /**
+     * Area of the network to draw, made of the voltage levels within the given depth of the given voltage levels.
+     */
+    public static class Area {
+
+        private final String name;
+        private final List<String> voltageLevelIds;
+        private final int depth;
+
+        /**
+         * @param name name of the area, used as SVG file name: it cannot be empty, nor be "." or "..", nor contain
+         *             path separators
+         * @throws IllegalArgumentException if the name is not a valid file name
+         */
+        public Area(String name, List<String> voltageLevelIds, int depth) {
+            this.name = checkName(Objects.requireNonNull(name));
+            this.voltageLevelIds = List.copyOf(voltageLevelIds);
+            this.depth = depth;
+        }
+
+        public Area(String name, String voltageLevelId, int depth) {
+            this(name, List.of(voltageLevelId), depth);
+        }
+
+        private static String checkName(String name) {
+            if (name.isEmpty() || name.equals(".") || name.equals("..")
+                    || name.chars().anyMatch(c -> c == '/' || c == '\\' || c == ':' || c == 0)) {
+                throw new IllegalArgumentException("Invalid area name '" + name + "', which should be a file name");
+            }
+            return name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getVoltageLevelIds() {
+            return voltageLevelIds;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    /**
+     * Listener notified each time an area has been drawn or has failed, from the thread which drew the area.
+     * Implementations hence need to be thread-safe.
+     */
+    public interface ProgressListener {
+
+        ProgressListener NO_OP = new ProgressListener() {
+        };
+
+        /**
+         * @param nbDone number of areas drawn or failed so far, this one included
+         * @param nbAreas total number of areas
+         */
+        default void onAreaDrawn(Area area, Path svgFile, int nbDone, int nbAreas) {
+        }
+
+        /**
+         * @param nbDone number of areas drawn or failed so far, this one included
+         * @param nbAreas total number of areas
+         */
+        default void onAreaFailed(Area area, Exception exception, int nbDone, int nbAreas) {
+        }
+    }
+
+    /**
+     * Result of a batch: the SVG files of the areas drawn and the exceptions of the areas which failed, by area name,
+     * in the order of the given areas.
+     */
+    public static class Result {
+
+        private final Map<String, Path> svgFiles = new LinkedHashMap<>();
+        private final Map<String, Exception> failures = new LinkedHashMap<>();
+
+        public Map<String, Path> getSvgFiles() {
+            return Collections.unmodifiableMap(svgFiles);
+        }
+
+        public Map<String, Exception> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        public boolean isOk() {
+            return failures.isEmpty();
+        }
+    }
+
+    public Network getNetwork() {
+        return network;
+    }
+
+    public NetworkAreaDiagramBatch setSvgParameters(SvgParameters svgParameters) {
+        this.svgParameters = Objects.requireNonNull(svgParameters);
+        return this;
+    }
+
+    public NetworkAreaDiagramBatch setLayoutParameters(LayoutParameters layoutParameters) {
+        this.layoutParameters = Objects.requireNonNull(layoutParameters);
+        return this;
+    }
+
+    /**
+     * Sets the style provider shared by all the diagrams, which therefore needs to be thread-safe.
+     * Defaults to a {@link NominalVoltageStyleProvider}.
+     */
+    public NetworkAreaDiagramBatch setStyleProvider(StyleProvider styleProvider) {
+        this.styleProvider = Objects.requireNonNull(styleProvider);
+        return this;
+    }
+
+    /**
+     * Sets the label provider shared by all the diagrams, which therefore needs to be thread-safe.
+     * Defaults to a {@link DefaultLabelProvider}.
+     */
+    public NetworkAreaDiagramBatch setLabelProvider(LabelProvider labelProvider) {
+        this.labelProvider = Objects.requireNonNull(labelProvider);
+        return this;
+    }
+
+    public NetworkAreaDiagramBatch setLayoutFactory(LayoutFactory layoutFactory) {
+        this.layoutFactory = Objects.requireNonNull(layoutFactory);
+        return this;
+    }
+
+    /**
+     * Sets the number of threads drawing the areas, if no executor is given. Defaults to the number of processors.
+     */
+    public NetworkAreaDiagramBatch setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be strictly positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets the executor drawing the areas, which is not shut down at the end of the batch, null to use a fixed thread
+     * pool created for each batch, which is the default.
+     */
+    public NetworkAreaDiagramBatch setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public NetworkAreaDiagramBatch setProgressListener(ProgressListener progressListener) {
+        this.progressListener = Objects.requireNonNull(progressListener);
+        return this;
+    }
+
+    /**
+     * Draws the given areas, each one in the SVG file named after the area in the given output directory, with the svgz
+     * extension if the svgz output is set in the svg parameters.
+     * @throws IllegalArgumentException if several areas have the same name, ignoring case, or if an area file is not
+     * in the output directory
+     */
+    public Result draw(List<Area> areas, Path outputDirectory) {
+        Objects.requireNonNull(areas);
+        Objects.requireNonNull(outputDirectory);
+        checkAreaFiles(areas, outputDirectory);
+
+        // Bus views computed on the calling thread, as their lazy computation is not thread-safe
+        String variantId = network.getVariantManager().getWorkingVariantId();
+        network.getVoltageLevelStream().forEach(vl -> vl.getBusView().getBuses());
+
+        StyleProvider sharedStyleProvider = new SharedStyleProvider(styleProvider != null ? styleProvider : new NominalVoltageStyleProvider(network));
+        LabelProvider sharedLabelProvider = labelProvider != null ? labelProvider : new DefaultLabelProvider(network, svgParameters);
+
+        ExecutorService batchExecutor = executor != null ? executor : Executors.newFixedThreadPool(parallelism);
+        try {
+            AtomicInteger nbDone = new AtomicInteger();
+            List<Future<Path>> futures = new ArrayList<>(areas.size());
+            for (Area area : areas) {
+                futures.add(batchExecutor.submit(() -> {
+                    try {
+                        setWorkingVariant(variantId);
+                        Path svgFile = draw(area, outputDirectory, sharedStyleProvider, sharedLabelProvider);
+                        progressListener.onAreaDrawn(area, svgFile, nbDone.incrementAndGet(), areas.size());
+                        return svgFile;
+                    } catch (Exception e) {
+                        progressListener.onAreaFailed(area, e, nbDone.incrementAndGet(), areas.size());
+                        throw e;
+                    }
+                }));
+            }
+            return collectResult(areas, futures);
+        } finally {
+            if (executor == null) {
+                batchExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private void checkAreaFiles(List<Area> areas, Path outputDirectory) {
+        // Names compared ignoring case, as the files would be the same on case-insensitive file systems
+        Set<String> names = new HashSet<>();
+        Path normalizedOutputDirectory = outputDirectory.toAbsolutePath().normalize();
+        for (Area area : areas) {
+            if (!names.add(area.getName().toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Several areas named '" + area.getName() + "', ignoring case");
+            }
+            if (!normalizedOutputDirectory.equals(getSvgFile(area, outputDirectory).toAbsolutePath().normalize().getParent())) {
+                throw new IllegalArgumentException("File of area '" + area.getName() + "' outside the output directory");
+            }
+        }
+    }
+
+    private Path getSvgFile(Area area, Path outputDirectory) {
+        return outputDirectory.resolve(area.getName() + (svgParameters.isSvgzOutput() ? ".svgz" : ".svg"));
+    }
+
+    private void setWorkingVariant(String variantId) {
+        VariantManager variantManager = network.getVariantManager();
+        if (variantManager.isVariantMultiThreadAccessAllowed()) {
+            variantManager.setWorkingVariant(variantId);
+        }
+    }
+
+    private Path draw(Area area, Path outputDirectory, StyleProvider sharedStyleProvider, LabelProvider sharedLabelProvider) {
+        Path svgFile = getSvgFile(area, outputDirectory);
+        VoltageLevelFilter filter = VoltageLevelFilter.createVoltageLevelsDepthFilter(adjacency, area.getVoltageLevelIds(), area.getDepth());
+        new NetworkAreaDiagram(network, filter).draw(svgFile, svgParameters, layoutParameters,
+                sharedStyleProvider, sharedLabelProvider, layoutFactory, new IntIdProvider());
+        return svgFile;
+    }
+
+    private static Result collectResult(List<Area> areas, List<Future<Path>> futures) {
+        Result result = new Result();
+        for (int i = 0; i < areas.size(); i++) {
+            String name = areas.get(i).getName();
+            try {
+                result.svgFiles.put(name, futures.get(i).get());
+            } catch (ExecutionException e) {
+                result.failures.put(name, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new PowsyblException("Interrupted while drawing the areas", e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Style provider reading the style sheets only once, delegating everything else to the given style provider.
+     */
+    private static final class SharedStyleProvider implements StyleProvider {
+
+        private final StyleProvider styleProvider;
+        private final List<String> cssFilenames;
+        private final String styleDefs;
+
+        private SharedStyleProvider(StyleProvider styleProvider) {
+            this.styleProvider = styleProvider;
+            this.cssFilenames = List.copyOf(styleProvider.getCssFilenames());
+            this.styleDefs = styleProvider.getStyleDefs();
+        }
+
+        @Override
+        public List<String> getCssFilenames() {
+            return cssFilenames;
+        }
+
+        @Override
+        public String getStyleDefs() {
+            return styleDefs;
+        }
+
+        @Override
+        public List<String> getNodeStyleClasses(Node node) {
+            return styleProvider.getNodeStyleClasses(node);
+        }
+
+        @Override
+        public List<String> getNodeStyleClasses(BusNode busNode) {
+            return styleProvider.getNodeStyleClasses(busNode);
+        }
+
+        @Override
+        public List<String> getEdgeStyleClasses(Edge edge) {
+            return styleProvider.getEdgeStyleClasses(edge);
+        }
+
+        @Override
+        public List<String> getSideEdgeStyleClasses(BranchEdge edge, BranchEdge.Side side) {
+            return styleProvider.getSideEdgeStyleClasses(edge, side);
+        }
+
+        @Override
+        public List<String> getEdgeInfoStyles(EdgeInfo info) {
+            return styleProvider.getEdgeInfoStyles(info);
+        }
+
+        @Override
+        public List<String> getThreeWtNodeStyle(ThreeWtNode threeWtNode, ThreeWtEdge.Side side) {
+            return styleProvider.getThreeWtNodeStyle(threeWtNode, side);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer counting the number of bytes of the characters written, encoded in UTF-8. Closing this writer does not
+ * close the underlying writer.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+final class Utf8CountingWriter extends FilterWriter {
+
+    private long byteCount;
+
+    Utf8CountingWriter(Writer writer) {
+        super(writer);
+    }
+
+    long getByteCount() {
+        return byteCount;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        count((char) c);
+        out.write(c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            count(cbuf[i]);
+        }
+        out.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            count(str.charAt(i));
+        }
+        out.write(str, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void count(char c) {
+        if (c < 0x80) {
+            byteCount++;
+        } else if (c < 0x800 || Character.isSurrogate(c)) {
+            // A surrogate pair is encoded with 4 bytes
+            byteCount += 2;
+        } else {
+            byteCount += 3;
+        }
+    }
+}
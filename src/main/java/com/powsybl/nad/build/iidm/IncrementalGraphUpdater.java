@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.build.iidm;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.Identifiable;
+import com.powsybl.iidm.network.*;
+import com.powsybl.nad.model.*;
+import com.powsybl.nad.utils.iidm.IidmUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a graph built by {@link NetworkGraphBuilder} up to date with the topology changes of its network.
+ * A listener registered on the network records the voltage levels whose topology changed: switches opened or closed,
+ * terminals connected, disconnected or moved, equipments added or removed. Calling {@link #update()} then patches the
+ * graph in place for those voltage levels, adding or removing bus nodes and connecting the edges to their new bus
+ * nodes. Changes of values only, as flows, need no update: they are read from the network when writing the SVG.
+ * <p>
+ * Adding or removing voltage levels, branches or transformers requires the graph to be rebuilt, which is reported by
+ * {@link #isRebuildNeeded()}. Changing the working variant of the network is not notified, hence not handled.
+ * <p>
+ * Once updated, the graph needs to be laid out again, for instance with the previous node positions fixed, to lay out
+ * the bus nodes and the edges.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public class IncrementalGraphUpdater implements AutoCloseable {
+
+    private static final Set<String> TOPOLOGY_ATTRIBUTES = Set.of("open", "retained", "connected", "connectableBusId");
+
+    private final Network network;
+    private final Graph graph;
+    private final IdProvider idProvider;
+    private final NetworkListener listener = new TopologyListener();
+    private final Set<String> changedVoltageLevels = new LinkedHashSet<>();
+    private boolean rebuildNeeded = false;
+
+    /**
+     * @param idProvider the id provider used to build the graph, used to create the ids of the new bus nodes
+     */
+    public IncrementalGraphUpdater(Network network, Graph graph, IdProvider idProvider) {
+        this.network = Objects.requireNonNull(network);
+        this.graph = Objects.requireNonNull(graph);
+        this.idProvider = Objects.requireNonNull(idProvider);
+        network.addListener(listener);
+    }
+
+    /**
+     * Returns the ids of the voltage levels whose topology changed since the last update.
+     */
+    public Set<String> getChangedVoltageLevels() {
+        return Collections.unmodifiableSet(changedVoltageLevels);
+    }
+
+    /**
+     * Returns true if the graph cannot be updated and needs to be rebuilt.
+     */
+    public boolean isRebuildNeeded() {
+        return rebuildNeeded;
+    }
+
+    /**
+     * Patches the graph for the voltage levels whose topology changed since the last update.
+     * @return true if the graph has been modified
+     */
+    public boolean update() {
+        if (rebuildNeeded) {
+            throw new PowsyblException("Network structure changed, the graph needs to be rebuilt");
+        }
+        boolean modified = false;
+        for (String voltageLevelId : changedVoltageLevels) {
+            Optional<VoltageLevelNode> vlNode = graph.getVoltageLevelNode(voltageLevelId);
+            if (vlNode.isPresent()) {
+                modified |= updateVoltageLevel(vlNode.get());
+            }
+        }
+        changedVoltageLevels.clear();
+        return modified;
+    }
+
+    @Override
+    public void close() {
+        network.removeListener(listener);
+    }
+
+    private boolean updateVoltageLevel(VoltageLevelNode vlNode) {
+        VoltageLevel vl = network.getVoltageLevel(vlNode.getEquipmentId());
+        boolean modified = false;
+
+        // Adding the new buses first, so that edges can be connected to them
+        List<Bus> buses = vl.getBusView().getBusStream().collect(Collectors.toList());
+        Set<String> busIds = buses.stream().map(Identifiable::getId).collect(Collectors.toSet());
+        Set<String> existingBusIds = vlNode.getBusNodeStream().map(BusNode::getEquipmentId).collect(Collectors.toSet());
+        for (Bus bus : buses) {
+            if (!existingBusIds.contains(bus.getId())) {
+                graph.addBusNode(vlNode, new BusNode(idProvider.createId(bus), bus.getId()));
+                modified = true;
+            }
+        }
+
+        boolean hasUnknownBusNode = false;
+        for (Edge edge : graph.getEdgeStream(vlNode).collect(Collectors.toList())) {
+            if (edge instanceof BranchEdge) {
+                modified |= updateBranchEdge((BranchEdge) edge);
+                hasUnknownBusNode |= graph.getNode1(edge) == vlNode && graph.getBusGraphNode1(edge) == BusNode.UNKNOWN;
+                hasUnknownBusNode |= graph.getNode2(edge) == vlNode && graph.getBusGraphNode2(edge) == BusNode.UNKNOWN;
+            } else if (edge instanceof ThreeWtEdge) {
+                modified |= updateThreeWtEdge((ThreeWtEdge) edge);
+                hasUnknownBusNode |= graph.getBusGraphNode1(edge) == BusNode.UNKNOWN;
+            }
+        }
+        vlNode.setHasUnknownBusNode(hasUnknownBusNode);
+
+        // Removing the buses which disappeared, now that no edge is connected to them
+        for (BusNode busNode : vlNode.getBusNodes().toArray(new BusNode[0])) {
+            if (!busIds.contains(busNode.getEquipmentId())) {
+                graph.removeBusNode(vlNode, busNode);
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    private boolean updateBranchEdge(BranchEdge edge) {
+        Identifiable<?> identifiable = network.getIdentifiable(edge.getEquipmentId());
+        Terminal terminal1;
+        Terminal terminal2;
+        if (identifiable instanceof HvdcLine) {
+            terminal1 = ((HvdcLine) identifiable).getConverterStation1().getTerminal();
+            terminal2 = ((HvdcLine) identifiable).getConverterStation2().getTerminal();
+        } else {
+            terminal1 = ((Branch<?>) identifiable).getTerminal(Branch.Side.ONE);
+            terminal2 = ((Branch<?>) identifiable).getTerminal(Branch.Side.TWO);
+        }
+        BusNode busNode1 = getBusNode(terminal1);
+        BusNode busNode2 = getBusNode(terminal2);
+        if (busNode1 == graph.getBusGraphNode1(edge) && busNode2 == graph.getBusGraphNode2(edge)) {
+            return false;
+        }
+        graph.setBusNodes(edge, busNode1, busNode2);
+        return true;
+    }
+
+    private boolean updateThreeWtEdge(ThreeWtEdge edge) {
+        ThreeWindingsTransformer twt = network.getThreeWindingsTransformer(edge.getEquipmentId());
+        BusNode busNode = getBusNode(twt.getTerminal(IidmUtils.getIidmSideFromThreeWtEdgeSide(edge.getSide())));
+        if (busNode == graph.getBusGraphNode1(edge)) {
+            return false;
+        }
+        graph.setBusNode(edge, busNode);
+        return true;
+    }
+
+    private BusNode getBusNode(Terminal terminal) {
+        Bus connectableBus = terminal.getBusView().getConnectableBus();
+        if (connectableBus == null) {
+            return BusNode.UNKNOWN;
+        }
+        BusNode busNode = graph.getBusNode(connectableBus.getId());
+        // The bus might belong to a voltage level whose change has not been processed yet
+        return busNode != null ? busNode : BusNode.UNKNOWN;
+    }
+
+    private void addChangedVoltageLevels(Identifiable<?> identifiable) {
+        if (identifiable instanceof Switch) {
+            changedVoltageLevels.add(((Switch) identifiable).getVoltageLevel().getId());
+        } else if (identifiable instanceof Bus) {
+            changedVoltageLevels.add(((Bus) identifiable).getVoltageLevel().getId());
+        } else if (identifiable instanceof Connectable) {
+            for (Terminal terminal : ((Connectable<?>) identifiable).getTerminals()) {
+                changedVoltageLevels.add(terminal.getVoltageLevel().getId());
+            }
+        }
+    }
+
+    private void onStructuralChange(Identifiable<?> identifiable) {
+        if (identifiable instanceof Branch || identifiable instanceof ThreeWindingsTransformer
+                || identifiable instanceof HvdcConverterStation || identifiable instanceof HvdcLine
+                || identifiable instanceof VoltageLevel || identifiable instanceof Substation) {
+            rebuildNeeded = true;
+        } else {
+            // Adding or removing an equipment or a switch may change the buses
+            addChangedVoltageLevels(identifiable);
+        }
+    }
+
+    private final class TopologyListener extends DefaultNetworkListener {
+
+        @Override
+        public void onCreation(Identifiable identifiable) {
+            onStructuralChange(identifiable);
+        }
+
+        @Override
+        public void beforeRemoval(Identifiable identifiable) {
+            onStructuralChange(identifiable);
+        }
+
+        @Override
+        public void onUpdate(Identifiable identifiable, String attribute, Object oldValue, Object newValue) {
+            if (TOPOLOGY_ATTRIBUTES.contains(attribute)) {
+                addChangedVoltageLevels(identifiable);
+            }
+        }
+
+        @Override
+        public void onUpdate(Identifiable identifiable, String attribute, String variantId, Object oldValue, Object newValue) {
+            if (TOPOLOGY_ATTRIBUTES.contains(attribute)) {
+                addChangedVoltageLevels(identifiable);
+            }
+        }
+    }
+}
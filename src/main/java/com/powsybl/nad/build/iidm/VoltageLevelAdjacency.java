@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.build.iidm;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.*;
+
+import java.util.*;
+
+/**
+ * Index of the voltage levels of a network which are linked by a line, a two- or three-winding transformer or an HVDC
+ * line, used to find the voltage levels within a given depth of some voltage levels without visiting all equipments.
+ * The index is a snapshot of the network structure: it can be reused for many filters as long as no voltage level or
+ * branch is added or removed. Voltage levels are given dense ids, neighbours being stored in compressed sparse row arrays.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public final class VoltageLevelAdjacency {
+
+    private final VoltageLevel[] voltageLevels;
+    private final Map<String, Integer> voltageLevelIndexes;
+    private final int[] neighbourStart;
+    private final int[] neighbours;
+
+    public VoltageLevelAdjacency(Network network) {
+        Objects.requireNonNull(network);
+        voltageLevels = network.getVoltageLevelStream().toArray(VoltageLevel[]::new);
+        voltageLevelIndexes = new HashMap<>(voltageLevels.length * 2);
+        for (int i = 0; i < voltageLevels.length; i++) {
+            voltageLevelIndexes.put(voltageLevels[i].getId(), i);
+        }
+
+        Links links = new Links();
+        network.getLineStream().forEach(line -> links.add(line.getTerminal1(), line.getTerminal2()));
+        network.getTwoWindingsTransformerStream().forEach(twt -> links.add(twt.getTerminal1(), twt.getTerminal2()));
+        network.getThreeWindingsTransformerStream().forEach(twt -> {
+            links.add(twt.getLeg1().getTerminal(), twt.getLeg2().getTerminal());
+            links.add(twt.getLeg1().getTerminal(), twt.getLeg3().getTerminal());
+            links.add(twt.getLeg2().getTerminal(), twt.getLeg3().getTerminal());
+        });
+        network.getHvdcLineStream().forEach(hvdcLine -> links.add(
+                hvdcLine.getConverterStation1().getTerminal(), hvdcLine.getConverterStation2().getTerminal()));
+
+        neighbourStart = new int[voltageLevels.length + 1];
+        neighbours = links.buildNeighbours(neighbourStart);
+    }
+
+    /**
+     * Returns the ids of the voltage levels linked to the given voltage level.
+     */
+    public List<String> getNeighbours(String voltageLevelId) {
+        int vl = getIndex(voltageLevelId);
+        List<String> neighbourIds = new ArrayList<>(neighbourStart[vl + 1] - neighbourStart[vl]);
+        for (int k = neighbourStart[vl]; k < neighbourStart[vl + 1]; k++) {
+            neighbourIds.add(voltageLevels[neighbours[k]].getId());
+        }
+        return neighbourIds;
+    }
+
+    /**
+     * Returns the voltage levels at a distance lower than or equal to the given depth from the given voltage levels,
+     * which are included, found by a breadth-first search.
+     */
+    public Set<VoltageLevel> getVoltageLevels(Collection<String> voltageLevelIds, int depth) {
+        Objects.requireNonNull(voltageLevelIds);
+        Set<VoltageLevel> result = new HashSet<>();
+        if (depth < 0) {
+            return result;
+        }
+        boolean[] visited = new boolean[voltageLevels.length];
+        int[] queue = new int[voltageLevels.length];
+        int queueEnd = 0;
+        for (String voltageLevelId : voltageLevelIds) {
+            int vl = getIndex(voltageLevelId);
+            if (!visited[vl]) {
+                visited[vl] = true;
+                queue[queueEnd++] = vl;
+            }
+        }
+
+        // Voltage levels of the current depth are between the current index and the depth end
+        int queueIndex = 0;
+        for (int d = 0; d < depth && queueIndex < queueEnd; d++) {
+            int depthEnd = queueEnd;
+            for (; queueIndex < depthEnd; queueIndex++) {
+                int vl = queue[queueIndex];
+                for (int k = neighbourStart[vl]; k < neighbourStart[vl + 1]; k++) {
+                    int neighbour = neighbours[k];
+                    if (!visited[neighbour]) {
+                        visited[neighbour] = true;
+                        queue[queueEnd++] = neighbour;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < queueEnd; i++) {
+            result.add(voltageLevels[queue[i]]);
+        }
+        return result;
+    }
+
+    private int getIndex(String voltageLevelId) {
+        Integer index = voltageLevelIndexes.get(voltageLevelId);
+        if (index == null) {
+            throw new PowsyblException("Unknown voltage level id '" + voltageLevelId + "'");
+        }
+        return index;
+    }
+
+    /**
+     * Growable arrays of the links between voltage levels, both directions of a link being stored.
+     */
+    private final class Links {
+
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int size = 0;
+
+        private void add(Terminal terminal1, Terminal terminal2) {
+            int vl1 = voltageLevelIndexes.get(terminal1.getVoltageLevel().getId());
+            int vl2 = voltageLevelIndexes.get(terminal2.getVoltageLevel().getId());
+            if (vl1 != vl2) {
+                add(vl1, vl2);
+                add(vl2, vl1);
+            }
+        }
+
+        private void add(int vl1, int vl2) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, 2 * size);
+                to = Arrays.copyOf(to, 2 * size);
+            }
+            from[size] = vl1;
+            to[size] = vl2;
+            size++;
+        }
+
+        /**
+         * Fills the given start array and returns the neighbours array, each neighbour appearing once, in increasing order.
+         */
+        private int[] buildNeighbours(int[] start) {
+            int nbVoltageLevels = start.length - 1;
+            for (int i = 0; i < size; i++) {
+                start[from[i] + 1]++;
+            }
+            for (int vl = 0; vl < nbVoltageLevels; vl++) {
+                start[vl + 1] += start[vl];
+            }
+            int[] next = Arrays.copyOf(start, nbVoltageLevels);
+            int[] adjacent = new int[size];
+            for (int i = 0; i < size; i++) {
+                adjacent[next[from[i]]++] = to[i];
+            }
+
+            // Removing the duplicates due to parallel branches, compacting the array in place
+            int nbNeighbours = 0;
+            for (int vl = 0; vl < nbVoltageLevels; vl++) {
+                int rowStart = start[vl];
+                int rowEnd = start[vl + 1];
+                Arrays.sort(adjacent, rowStart, rowEnd);
+                start[vl] = nbNeighbours;
+                int previous = -1;
+                for (int k = rowStart; k < rowEnd; k++) {
+                    if (adjacent[k] != previous) {
+                        previous = adjacent[k];
+                        adjacent[nbNeighbours++] = previous;
+                    }
+                }
+            }
+            start[nbVoltageLevels] = nbNeighbours;
+            return Arrays.copyOf(adjacent, nbNeighbours);
+        }
+    }
+}
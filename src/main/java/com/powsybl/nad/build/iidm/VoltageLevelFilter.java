@@ -34,22 +34,32 @@ public class VoltageLevelFilter implements Predicate<VoltageLevel> {
         return voltageLevels.contains(voltageLevel);
     }
 
+    /**
+     * Creates a filter of the voltage levels within the given depth of the given voltage level, only visiting the
+     * neighbourhood of the voltage level: to create many filters on the same network, use a shared
+     * {@link VoltageLevelAdjacency} instead.
+     */
     public static VoltageLevelFilter createVoltageLevelDepthFilter(Network network, String voltageLevelId, int depth) {
         Objects.requireNonNull(network);
         Objects.requireNonNull(voltageLevelId);
+        return createVoltageLevelsDepthFilter(network, List.of(voltageLevelId), depth);
+    }
 
-        Set<VoltageLevel> voltageLevels = new HashSet<>();
-        VoltageLevel vl = network.getVoltageLevel(voltageLevelId);
-        if (vl == null) {
-            throw new PowsyblException("Unknown voltage level id '" + voltageLevelId + "'");
-        }
-
-        Set<VoltageLevel> startingSet = new HashSet<>();
-        startingSet.add(vl);
-        traverseVoltageLevels(startingSet, depth, voltageLevels);
-        return new VoltageLevelFilter(voltageLevels);
+    /**
+     * Creates a filter of the voltage levels within the given depth of the given voltage level, using the given
+     * adjacency index, which can be shared by many filters on the same network.
+     */
+    public static VoltageLevelFilter createVoltageLevelDepthFilter(VoltageLevelAdjacency adjacency, String voltageLevelId, int depth) {
+        Objects.requireNonNull(adjacency);
+        Objects.requireNonNull(voltageLevelId);
+        return new VoltageLevelFilter(adjacency.getVoltageLevels(List.of(voltageLevelId), depth));
     }
 
+    /**
+     * Creates a filter of the voltage levels within the given depth of the given voltage levels, only visiting the
+     * neighbourhood of the voltage levels: to create many filters on the same network, use a shared
+     * {@link VoltageLevelAdjacency} instead.
+     */
     public static VoltageLevelFilter createVoltageLevelsDepthFilter(Network network, List<String> voltageLevelIds, int depth) {
         Objects.requireNonNull(network);
         Objects.requireNonNull(voltageLevelIds);
@@ -67,8 +77,29 @@ public class VoltageLevelFilter implements Predicate<VoltageLevel> {
         return new VoltageLevelFilter(voltageLevels);
     }
 
+    /**
+     * Creates a filter of the voltage levels within the given depth of the given voltage levels, using the given
+     * adjacency index, which can be shared by many filters on the same network.
+     */
+    public static VoltageLevelFilter createVoltageLevelsDepthFilter(VoltageLevelAdjacency adjacency, List<String> voltageLevelIds, int depth) {
+        Objects.requireNonNull(adjacency);
+        Objects.requireNonNull(voltageLevelIds);
+        return new VoltageLevelFilter(adjacency.getVoltageLevels(voltageLevelIds, depth));
+    }
+
     public static VoltageLevelFilter createVoltageLevelsFilter(Network network, List<String> voltageLevelIds) {
-        return createVoltageLevelsDepthFilter(network, voltageLevelIds, 0);
+        Objects.requireNonNull(network);
+        Objects.requireNonNull(voltageLevelIds);
+        // No need of the adjacency index without traversal
+        Set<VoltageLevel> voltageLevels = new HashSet<>();
+        for (String voltageLevelId : voltageLevelIds) {
+            VoltageLevel vl = network.getVoltageLevel(voltageLevelId);
+            if (vl == null) {
+                throw new PowsyblException("Unknown voltage level id '" + voltageLevelId + "'");
+            }
+            voltageLevels.add(vl);
+        }
+        return new VoltageLevelFilter(voltageLevels);
     }
 
     private static void traverseVoltageLevels(Set<VoltageLevel> voltageLevelsDepth, int depth, Set<VoltageLevel> visitedVoltageLevels) {
@@ -4,7 +4,6 @@ import com.powsybl.nad.model.*;
 import org.jgrapht.alg.util.Pair;
 
 import java.util.*;
-import java.util.stream.Stream;
 
 public abstract class AbstractLayout implements Layout {
 
@@ -74,10 +73,14 @@ public abstract class AbstractLayout implements Layout {
     protected void edgesLayout(Graph graph, LayoutParameters layoutParameters) {
         Objects.requireNonNull(graph);
         Objects.requireNonNull(layoutParameters);
-        graph.getBranchEdgeStream().forEach(edge -> {
-            setEdgeVisibility(graph.getNode1(edge), edge, BranchEdge.Side.ONE);
-            setEdgeVisibility(graph.getNode2(edge), edge, BranchEdge.Side.TWO);
-        });
+        CompactGraph compactGraph = graph.getCompactGraph();
+        for (int e = 0; e < compactGraph.getEdgeCount(); e++) {
+            Edge edge = compactGraph.getEdge(e);
+            if (edge instanceof BranchEdge) {
+                setEdgeVisibility(compactGraph.getNode(compactGraph.getEdgeNode1(e)), (BranchEdge) edge, BranchEdge.Side.ONE);
+                setEdgeVisibility(compactGraph.getNode(compactGraph.getEdgeNode2(e)), (BranchEdge) edge, BranchEdge.Side.TWO);
+            }
+        }
     }
 
     private void setEdgeVisibility(Node node, BranchEdge branchEdge, BranchEdge.Side side) {
@@ -88,12 +91,19 @@ public abstract class AbstractLayout implements Layout {
 
     private void computeSize(Graph graph) {
         double[] dims = new double[4];
-        Stream.concat(graph.getTextNodesStream(), graph.getNodesStream()).forEach(node -> {
+        graph.getTextNodesStream().forEach(node -> {
             dims[0] = Math.min(dims[0], node.getX());
             dims[1] = Math.max(dims[1], node.getX());
             dims[2] = Math.min(dims[2], node.getY());
             dims[3] = Math.max(dims[3], node.getY());
         });
+        CompactGraph compactGraph = graph.getCompactGraph();
+        for (int i = 0; i < compactGraph.getNodeCount(); i++) {
+            dims[0] = Math.min(dims[0], compactGraph.getX(i));
+            dims[1] = Math.max(dims[1], compactGraph.getX(i));
+            dims[2] = Math.min(dims[2], compactGraph.getY(i));
+            dims[3] = Math.max(dims[3], compactGraph.getY(i));
+        }
         graph.setDimensions(dims[0], dims[1], dims[2], dims[3]);
     }
 }
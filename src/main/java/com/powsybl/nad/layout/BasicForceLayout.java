@@ -7,14 +7,18 @@
 package com.powsybl.nad.layout;
 
 import com.powsybl.forcelayout.ForceLayout;
+import com.powsybl.forcelayout.StoppingCriterion;
 import com.powsybl.forcelayout.Vector;
+import com.powsybl.nad.model.CompactGraph;
 import com.powsybl.nad.model.Edge;
 import com.powsybl.nad.model.Graph;
 import com.powsybl.nad.model.Node;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -22,35 +26,102 @@ import java.util.stream.Collectors;
  */
 public class BasicForceLayout extends AbstractLayout {
 
-    private static final int SCALE = 100;
+    protected static final int SCALE = 100;
+
+    private final ForkJoinPool forkJoinPool;
+    private int nbSteps;
+    private double energy;
+    private StoppingCriterion stoppingCriterion;
+
+    public BasicForceLayout() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param forkJoinPool pool used to compute the forces if the parallel force layout is enabled in the layout parameters
+     */
+    public BasicForceLayout(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = Objects.requireNonNull(forkJoinPool);
+    }
 
     @Override
     protected void nodesLayout(Graph graph, LayoutParameters layoutParameters) {
+        nbSteps = 0;
         org.jgrapht.Graph<Node, Edge> jgraphtGraph = graph.getJgraphtGraph(layoutParameters.isTextNodesForceLayout());
-        ForceLayout<Node, Edge> forceLayout = new ForceLayout<>(jgraphtGraph);
-        forceLayout.setSpringRepulsionFactor(layoutParameters.getSpringRepulsionFactorForceLayout());
-
-        setInitialPositions(forceLayout, graph);
-        Set<Node> fixedNodes = getNodesWithFixedPosition().stream()
-                .map(graph::getNode)
-                .flatMap(Optional::stream)
-                .collect(Collectors.toSet());
-        forceLayout.setFixedNodes(fixedNodes);
+        ForceLayout<Node, Edge> forceLayout = createForceLayout(jgraphtGraph, layoutParameters);
+        forceLayout.setInitialPoints(getInitialPoints(graph, jgraphtGraph, layoutParameters));
+        forceLayout.setFixedNodes(getFixedNodes(graph));
 
         forceLayout.execute();
+        addSteps(forceLayout);
+        energy = forceLayout.getEnergy();
+        stoppingCriterion = forceLayout.getStoppingCriterion();
 
-        jgraphtGraph.vertexSet().forEach(node -> {
-            Vector p = forceLayout.getStablePosition(node);
-            node.setPosition(SCALE * p.getX(), SCALE * p.getY());
-        });
+        CompactGraph compactGraph = graph.getCompactGraph();
+        for (int i = 0; i < compactGraph.getNodeCount(); i++) {
+            Vector p = forceLayout.getStablePosition(compactGraph.getNode(i));
+            compactGraph.setPosition(i, SCALE * p.getX(), SCALE * p.getY());
+        }
 
-        if (!layoutParameters.isTextNodesForceLayout()) {
+        if (layoutParameters.isTextNodesForceLayout()) {
+            graph.getTextNodesStream().forEach(node -> {
+                Vector p = forceLayout.getStablePosition(node);
+                node.setPosition(SCALE * p.getX(), SCALE * p.getY());
+            });
+        } else {
             graph.getTextEdgesMap().values().forEach(nodePair -> fixedTextNodeLayout(nodePair, layoutParameters));
         }
     }
 
-    private void setInitialPositions(ForceLayout<Node, Edge> forceLayout, Graph graph) {
-        Map<Node, com.powsybl.forcelayout.Point> initialPoints = getInitialNodePositions().entrySet().stream()
+    /**
+     * Creates a force layout on the given graph, configured with the given layout parameters.
+     */
+    protected <V, E> ForceLayout<V, E> createForceLayout(org.jgrapht.Graph<V, E> jgraphtGraph, LayoutParameters layoutParameters) {
+        ForceLayout<V, E> forceLayout = new ForceLayout<>(jgraphtGraph);
+        forceLayout.setSpringRepulsionFactor(layoutParameters.getSpringRepulsionFactorForceLayout());
+        forceLayout.setBarnesHutTheta(layoutParameters.getBarnesHutThetaForceLayout());
+        forceLayout.setSpringRepulsionCutoff(layoutParameters.getSpringRepulsionCutoffForceLayout() / SCALE);
+        forceLayout.setTotalEnergyThreshold(layoutParameters.getTotalEnergyThresholdForceLayout());
+        forceLayout.setEnergyDecreaseCriterion(layoutParameters.getEnergyDecreaseWindowForceLayout(), layoutParameters.getMinEnergyDecreaseForceLayout());
+        forceLayout.setTimeBudget(layoutParameters.getTimeBudgetForceLayout());
+        forceLayout.setStepControl(layoutParameters.getStepControlForceLayout());
+        forceLayout.setCoolingFactor(layoutParameters.getCoolingFactorForceLayout());
+        if (layoutParameters.isParallelForceLayout()) {
+            forceLayout.setForkJoinPool(forkJoinPool);
+        }
+        return forceLayout;
+    }
+
+    /**
+     * Adds the steps of the given executed force layout to the steps of the current run.
+     */
+    protected void addSteps(ForceLayout<?, ?> forceLayout) {
+        nbSteps += forceLayout.getNbSteps();
+    }
+
+    @Override
+    public int getNbSteps() {
+        return nbSteps;
+    }
+
+    @Override
+    public double getEnergy() {
+        return energy;
+    }
+
+    /**
+     * Returns the criterion which stopped the force layout of the last run.
+     */
+    public StoppingCriterion getStoppingCriterion() {
+        return stoppingCriterion;
+    }
+
+    /**
+     * Returns the positions, in force layout coordinates, from which the force layout starts.
+     */
+    protected Map<Node, com.powsybl.forcelayout.Point> getInitialPoints(Graph graph, org.jgrapht.Graph<Node, Edge> jgraphtGraph,
+                                                                       LayoutParameters layoutParameters) {
+        return getInitialNodePositions().entrySet().stream()
                 // Only accept positions for nodes in the graph
                 .filter(nodePosition -> graph.getNode(nodePosition.getKey()).isPresent())
                 .collect(Collectors.toMap(
@@ -59,6 +130,12 @@ public class BasicForceLayout extends AbstractLayout {
                             nodePosition.getValue().getX() / SCALE,
                             nodePosition.getValue().getY() / SCALE)
                 ));
-        forceLayout.setInitialPoints(initialPoints);
+    }
+
+    protected Set<Node> getFixedNodes(Graph graph) {
+        return getNodesWithFixedPosition().stream()
+                .map(graph::getNode)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toSet());
     }
 }
@@ -6,12 +6,26 @@
  */
 package com.powsybl.nad.layout;
 
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * @author Florian Dupuy <florian.dupuy at rte-france.com>
  */
 public class BasicForceLayoutFactory implements LayoutFactory {
+
+    private final ForkJoinPool forkJoinPool;
+
+    public BasicForceLayoutFactory() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BasicForceLayoutFactory(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = Objects.requireNonNull(forkJoinPool);
+    }
+
     @Override
     public Layout create() {
-        return new BasicForceLayout();
+        return new BasicForceLayout(forkJoinPool);
     }
 }
@@ -25,4 +25,18 @@ public interface Layout {
     Map<String, Point> getInitialNodePositions();
 
     Set<String> getNodesWithFixedPosition();
+
+    /**
+     * Returns the number of steps of the last run, for iterative layouts.
+     */
+    default int getNbSteps() {
+        return 0;
+    }
+
+    /**
+     * Returns the energy of the nodes at the end of the last run, for force layouts.
+     */
+    default double getEnergy() {
+        return 0;
+    }
 }
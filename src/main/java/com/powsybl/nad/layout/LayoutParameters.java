@@ -6,14 +6,26 @@
  */
 package com.powsybl.nad.layout;
 
+import com.powsybl.forcelayout.StepControl;
 import com.powsybl.nad.model.Point;
 
+import java.util.Objects;
+
 /**
  * @author Florian Dupuy <florian.dupuy at rte-france.com>
  */
 public class LayoutParameters {
     private boolean textNodesForceLayout = false;
     private double springRepulsionFactorForceLayout = 0.0;
+    private double barnesHutThetaForceLayout = 0.0;
+    private double springRepulsionCutoffForceLayout = 0.0;
+    private boolean parallelForceLayout = false;
+    private double totalEnergyThresholdForceLayout = 0.0;
+    private int energyDecreaseWindowForceLayout = 0;
+    private double minEnergyDecreaseForceLayout = 0.0;
+    private long timeBudgetForceLayout = 0;
+    private StepControl stepControlForceLayout = StepControl.CONSTANT;
+    private double coolingFactorForceLayout = 0.99;
     private Point textNodeFixedShift = new Point(100, -15);
 
     public LayoutParameters() {
@@ -22,6 +34,15 @@ public class LayoutParameters {
     public LayoutParameters(LayoutParameters other) {
         this.textNodesForceLayout = other.textNodesForceLayout;
         this.springRepulsionFactorForceLayout = other.springRepulsionFactorForceLayout;
+        this.barnesHutThetaForceLayout = other.barnesHutThetaForceLayout;
+        this.springRepulsionCutoffForceLayout = other.springRepulsionCutoffForceLayout;
+        this.parallelForceLayout = other.parallelForceLayout;
+        this.totalEnergyThresholdForceLayout = other.totalEnergyThresholdForceLayout;
+        this.energyDecreaseWindowForceLayout = other.energyDecreaseWindowForceLayout;
+        this.minEnergyDecreaseForceLayout = other.minEnergyDecreaseForceLayout;
+        this.timeBudgetForceLayout = other.timeBudgetForceLayout;
+        this.stepControlForceLayout = other.stepControlForceLayout;
+        this.coolingFactorForceLayout = other.coolingFactorForceLayout;
         this.textNodeFixedShift = new Point(other.textNodeFixedShift.getX(), other.textNodeFixedShift.getY());
     }
 
@@ -43,6 +64,100 @@ public class LayoutParameters {
         return springRepulsionFactorForceLayout;
     }
 
+    public double getBarnesHutThetaForceLayout() {
+        return barnesHutThetaForceLayout;
+    }
+
+    public LayoutParameters setBarnesHutThetaForceLayout(double barnesHutThetaForceLayout) {
+        this.barnesHutThetaForceLayout = barnesHutThetaForceLayout;
+        return this;
+    }
+
+    public double getSpringRepulsionCutoffForceLayout() {
+        return springRepulsionCutoffForceLayout;
+    }
+
+    /**
+     * Sets the distance, in diagram coordinates, beyond which the spring repulsion is ignored.
+     * Zero, the default value, computes the spring repulsion between all nodes and edges.
+     */
+    public LayoutParameters setSpringRepulsionCutoffForceLayout(double springRepulsionCutoffForceLayout) {
+        this.springRepulsionCutoffForceLayout = springRepulsionCutoffForceLayout;
+        return this;
+    }
+
+    public boolean isParallelForceLayout() {
+        return parallelForceLayout;
+    }
+
+    public LayoutParameters setParallelForceLayout(boolean parallelForceLayout) {
+        this.parallelForceLayout = parallelForceLayout;
+        return this;
+    }
+
+    public double getTotalEnergyThresholdForceLayout() {
+        return totalEnergyThresholdForceLayout;
+    }
+
+    /**
+     * Sets the total energy of the nodes below which the force layout stops. Zero, the default value, disables this criterion.
+     */
+    public LayoutParameters setTotalEnergyThresholdForceLayout(double totalEnergyThresholdForceLayout) {
+        this.totalEnergyThresholdForceLayout = totalEnergyThresholdForceLayout;
+        return this;
+    }
+
+    public int getEnergyDecreaseWindowForceLayout() {
+        return energyDecreaseWindowForceLayout;
+    }
+
+    public double getMinEnergyDecreaseForceLayout() {
+        return minEnergyDecreaseForceLayout;
+    }
+
+    /**
+     * Stops the force layout when the total energy decreased by less than the given ratio over the given number of steps.
+     * A window of zero steps, the default value, disables this criterion.
+     */
+    public LayoutParameters setEnergyDecreaseForceLayout(int energyDecreaseWindowForceLayout, double minEnergyDecreaseForceLayout) {
+        this.energyDecreaseWindowForceLayout = energyDecreaseWindowForceLayout;
+        this.minEnergyDecreaseForceLayout = minEnergyDecreaseForceLayout;
+        return this;
+    }
+
+    public long getTimeBudgetForceLayout() {
+        return timeBudgetForceLayout;
+    }
+
+    /**
+     * Sets the maximum duration of the force layout, in milliseconds. Zero, the default value, disables this criterion.
+     */
+    public LayoutParameters setTimeBudgetForceLayout(long timeBudgetForceLayout) {
+        this.timeBudgetForceLayout = timeBudgetForceLayout;
+        return this;
+    }
+
+    public StepControl getStepControlForceLayout() {
+        return stepControlForceLayout;
+    }
+
+    public LayoutParameters setStepControlForceLayout(StepControl stepControlForceLayout) {
+        this.stepControlForceLayout = Objects.requireNonNull(stepControlForceLayout);
+        return this;
+    }
+
+    public double getCoolingFactorForceLayout() {
+        return coolingFactorForceLayout;
+    }
+
+    /**
+     * Sets the factor by which the temperature is multiplied at each step, with the cooling step control.
+     */
+    public LayoutParameters setCoolingFactorForceLayout(double coolingFactorForceLayout) {
+        this.coolingFactorForceLayout = coolingFactorForceLayout;
+        return this;
+    }
+
     public Point getTextNodeFixedShift() {
         return textNodeFixedShift;
     }
@@ -51,4 +166,36 @@ public class LayoutParameters {
         this.textNodeFixedShift = new Point(textNodeFixedShiftX, textNodeFixedShiftY);
         return this;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        LayoutParameters other = (LayoutParameters) o;
+        return textNodesForceLayout == other.textNodesForceLayout
+                && Double.compare(springRepulsionFactorForceLayout, other.springRepulsionFactorForceLayout) == 0
+                && Double.compare(barnesHutThetaForceLayout, other.barnesHutThetaForceLayout) == 0
+                && Double.compare(springRepulsionCutoffForceLayout, other.springRepulsionCutoffForceLayout) == 0
+                && parallelForceLayout == other.parallelForceLayout
+                && Double.compare(totalEnergyThresholdForceLayout, other.totalEnergyThresholdForceLayout) == 0
+                && energyDecreaseWindowForceLayout == other.energyDecreaseWindowForceLayout
+                && Double.compare(minEnergyDecreaseForceLayout, other.minEnergyDecreaseForceLayout) == 0
+                && timeBudgetForceLayout == other.timeBudgetForceLayout
+                && stepControlForceLayout == other.stepControlForceLayout
+                && Double.compare(coolingFactorForceLayout, other.coolingFactorForceLayout) == 0
+                && Double.compare(textNodeFixedShift.getX(), other.textNodeFixedShift.getX()) == 0
+                && Double.compare(textNodeFixedShift.getY(), other.textNodeFixedShift.getY()) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(textNodesForceLayout, springRepulsionFactorForceLayout, barnesHutThetaForceLayout,
+                springRepulsionCutoffForceLayout, parallelForceLayout, totalEnergyThresholdForceLayout,
+                energyDecreaseWindowForceLayout, minEnergyDecreaseForceLayout, timeBudgetForceLayout,
+                stepControlForceLayout, coolingFactorForceLayout, textNodeFixedShift.getX(), textNodeFixedShift.getY());
+    }
 }
@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.layout;
+
+import com.powsybl.forcelayout.ForceLayout;
+import com.powsybl.forcelayout.Point;
+import com.powsybl.forcelayout.Vector;
+import com.powsybl.nad.model.Edge;
+import com.powsybl.nad.model.Graph;
+import com.powsybl.nad.model.Node;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Force layout starting from the positions obtained by a multilevel scheme: the graph is repeatedly coarsened by
+ * merging pairs of adjacent nodes, the coarsest graph is laid out, and the positions are then projected down and
+ * refined with a force layout at each level.
+ * <p>
+ * This layout is not used by default: it roughly halves the total number of steps on meshed graphs, such as grids,
+ * but brings no clear gain on the IEEE networks.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public class MultilevelForceLayout extends BasicForceLayout {
+
+    /** Coarsening stops when the graph has no more nodes than this */
+    private static final int COARSEST_LEVEL_SIZE = 20;
+    /** Coarsening stops when a level does not reduce enough the number of nodes, which happens for star-like graphs */
+    private static final double MAX_COARSENING_RATIO = 0.8;
+    /** Maximum distance, in force layout coordinates, between the position of a merged node and the one of its children */
+    private static final double PROJECTION_JITTER = 0.1;
+
+    public MultilevelForceLayout() {
+        super();
+    }
+
+    public MultilevelForceLayout(ForkJoinPool forkJoinPool) {
+        super(forkJoinPool);
+    }
+
+    @Override
+    protected Map<Node, Point> getInitialPoints(Graph graph, org.jgrapht.Graph<Node, Edge> jgraphtGraph, LayoutParameters layoutParameters) {
+        Map<Node, Point> initialPoints = super.getInitialPoints(graph, jgraphtGraph, layoutParameters);
+        Set<Node> fixedNodes = getFixedNodes(graph);
+
+        List<Node> nodes = new ArrayList<>(jgraphtGraph.vertexSet());
+        List<Level> levels = new ArrayList<>();
+        levels.add(createFinestLevel(jgraphtGraph, nodes, initialPoints, fixedNodes));
+        while (levels.get(levels.size() - 1).nbNodes > COARSEST_LEVEL_SIZE) {
+            Level coarserLevel = levels.get(levels.size() - 1).coarsen();
+            if (coarserLevel.nbNodes > MAX_COARSENING_RATIO * levels.get(levels.size() - 1).nbNodes) {
+                break;
+            }
+            levels.add(coarserLevel);
+        }
+        if (levels.size() == 1) {
+            return initialPoints;
+        }
+
+        Level coarsestLevel = levels.get(levels.size() - 1);
+        Map<Integer, Point> coarsestPoints = new HashMap<>();
+        for (int v = 0; v < coarsestLevel.nbNodes; v++) {
+            if (coarsestLevel.hasKnownPosition[v]) {
+                coarsestPoints.put(v, new Point(coarsestLevel.knownX[v], coarsestLevel.knownY[v]));
+            }
+        }
+        // Deterministic randomness
+        Random random = new Random(3L);
+        double[][] positions = layout(coarsestLevel, coarsestPoints, layoutParameters);
+        for (int l = levels.size() - 2; l >= 1; l--) {
+            positions = layout(levels.get(l), project(levels.get(l), positions, random), layoutParameters);
+        }
+
+        // The finest level is laid out by the force layout of the parent class
+        Map<Integer, Point> finestPoints = project(levels.get(0), positions, random);
+        Map<Node, Point> points = new HashMap<>();
+        finestPoints.forEach((v, point) -> points.put(nodes.get(v), point));
+        return points;
+    }
+
+    private static Level createFinestLevel(org.jgrapht.Graph<Node, Edge> jgraphtGraph, List<Node> nodes,
+                                           Map<Node, Point> initialPoints, Set<Node> fixedNodes) {
+        Map<Node, Integer> indexes = new HashMap<>();
+        for (int v = 0; v < nodes.size(); v++) {
+            indexes.put(nodes.get(v), v);
+        }
+        Level level = new Level(nodes.size());
+        for (int v = 0; v < nodes.size(); v++) {
+            Node node = nodes.get(v);
+            int index = v;
+            level.adjacency[v] = jgraphtGraph.edgesOf(node).stream()
+                    .map(e -> indexes.get(jgraphtGraph.getEdgeSource(e) == node ? jgraphtGraph.getEdgeTarget(e) : jgraphtGraph.getEdgeSource(e)))
+                    .filter(neighbour -> neighbour != index) // loops are not relevant for coarsening
+                    .mapToInt(Integer::intValue)
+                    .distinct()
+                    .toArray();
+            level.fixed[v] = fixedNodes.contains(node);
+            Point initialPoint = initialPoints.get(node);
+            if (initialPoint != null) {
+                level.hasKnownPosition[v] = true;
+                level.knownX[v] = initialPoint.getPosition().getX();
+                level.knownY[v] = initialPoint.getPosition().getY();
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Lays out the given level from the given initial points and returns the positions obtained.
+     */
+    private double[][] layout(Level level, Map<Integer, Point> initialPoints, LayoutParameters layoutParameters) {
+        org.jgrapht.Graph<Integer, DefaultEdge> levelGraph = new SimpleGraph<>(DefaultEdge.class);
+        IntStream.range(0, level.nbNodes).forEach(levelGraph::addVertex);
+        for (int v = 0; v < level.nbNodes; v++) {
+            for (int neighbour : level.adjacency[v]) {
+                if (v < neighbour) {
+                    levelGraph.addEdge(v, neighbour);
+                }
+            }
+        }
+
+        ForceLayout<Integer, DefaultEdge> forceLayout = createForceLayout(levelGraph, layoutParameters);
+        forceLayout.setInitialPoints(initialPoints);
+        Set<Integer> fixedNodes = new HashSet<>();
+        for (int v = 0; v < level.nbNodes; v++) {
+            if (level.fixed[v] && level.hasKnownPosition[v]) {
+                fixedNodes.add(v);
+            }
+        }
+        forceLayout.setFixedNodes(fixedNodes);
+        forceLayout.execute();
+        addSteps(forceLayout);
+
+        double[][] positions = new double[2][level.nbNodes];
+        for (int v = 0; v < level.nbNodes; v++) {
+            Vector position = forceLayout.getStablePosition(v);
+            positions[0][v] = position.getX();
+            positions[1][v] = position.getY();
+        }
+        return positions;
+    }
+
+    /**
+     * Computes the initial points of the given level from the positions of its coarser level: each node starts from
+     * the position of the merged node it belongs to, shifted by its known relative position if any, or else by a small
+     * random shift to separate it from the other node merged with it.
+     */
+    private static Map<Integer, Point> project(Level level, double[][] coarserPositions, Random random) {
+        double scale = getProjectionScale(level);
+        Map<Integer, Point> points = new HashMap<>();
+        for (int v = 0; v < level.nbNodes; v++) {
+            int parent = level.parent[v];
+            double parentX = coarserPositions[0][parent] * scale;
+            double parentY = coarserPositions[1][parent] * scale;
+            double x;
+            double y;
+            if (level.fixed[v] && level.hasKnownPosition[v]) {
+                x = level.knownX[v];
+                y = level.knownY[v];
+            } else if (level.nbChildren[parent] == 1) {
+                x = parentX;
+                y = parentY;
+            } else if (level.hasKnownPosition[v] && level.coarser.hasKnownPosition[parent]) {
+                x = parentX + level.knownX[v] - level.coarser.knownX[parent];
+                y = parentY + level.knownY[v] - level.coarser.knownY[parent];
+            } else {
+                x = parentX + (random.nextDouble() - 0.5) * 2 * PROJECTION_JITTER;
+                y = parentY + (random.nextDouble() - 0.5) * 2 * PROJECTION_JITTER;
+            }
+            points.put(v, new Point(x, y));
+        }
+        return points;
+    }
+
+    /**
+     * Returns the factor to apply to the coarser positions so that the area of the layout grows with the number of nodes,
+     * springs having the same length at all levels. No scaling is done if some nodes are fixed, to keep the coarser
+     * positions consistent with the fixed ones.
+     */
+    private static double getProjectionScale(Level level) {
+        for (int v = 0; v < level.nbNodes; v++) {
+            if (level.fixed[v] && level.hasKnownPosition[v]) {
+                return 1;
+            }
+        }
+        return Math.sqrt((double) level.nbNodes / level.coarser.nbNodes);
+    }
+
+    /**
+     * Graph of a level of the multilevel scheme, its nodes being indexed from 0 to nbNodes - 1.
+     */
+    private static final class Level {
+        private final int nbNodes;
+        private final int[][] adjacency;
+        private final boolean[] fixed;
+        private final boolean[] hasKnownPosition;
+        private final double[] knownX;
+        private final double[] knownY;
+
+        /** Coarser level and index of the node of the coarser level each node is merged into */
+        private Level coarser;
+        private int[] parent;
+        private int[] nbChildren;
+
+        private Level(int nbNodes) {
+            this.nbNodes = nbNodes;
+            this.adjacency = new int[nbNodes][];
+            this.fixed = new boolean[nbNodes];
+            this.hasKnownPosition = new boolean[nbNodes];
+            this.knownX = new double[nbNodes];
+            this.knownY = new double[nbNodes];
+        }
+
+        /**
+         * Builds the coarser level by merging the nodes matched together. Nodes are visited by increasing degree and
+         * each one is matched with its unmatched neighbour of lowest degree, in order to absorb the leaves first.
+         * Fixed nodes are never merged, so that they keep their position at all levels.
+         */
+        private Level coarsen() {
+            int[] mate = new int[nbNodes];
+            Arrays.fill(mate, -1);
+            Integer[] order = new Integer[nbNodes];
+            Arrays.setAll(order, v -> v);
+            Arrays.sort(order, Comparator.comparingInt(v -> adjacency[v].length));
+            for (int v : order) {
+                if (mate[v] != -1 || fixed[v]) {
+                    continue;
+                }
+                int bestNeighbour = -1;
+                for (int neighbour : adjacency[v]) {
+                    if (mate[neighbour] == -1 && !fixed[neighbour]
+                            && (bestNeighbour == -1 || adjacency[neighbour].length < adjacency[bestNeighbour].length)) {
+                        bestNeighbour = neighbour;
+                    }
+                }
+                if (bestNeighbour != -1) {
+                    mate[v] = bestNeighbour;
+                    mate[bestNeighbour] = v;
+                }
+            }
+
+            // Numbering the merged nodes following the order of the nodes
+            parent = new int[nbNodes];
+            Arrays.fill(parent, -1);
+            int nbCoarserNodes = 0;
+            for (int v = 0; v < nbNodes; v++) {
+                if (parent[v] == -1) {
+                    parent[v] = nbCoarserNodes;
+                    if (mate[v] != -1) {
+                        parent[mate[v]] = nbCoarserNodes;
+                    }
+                    nbCoarserNodes++;
+                }
+            }
+
+            coarser = new Level(nbCoarserNodes);
+            nbChildren = new int[nbCoarserNodes];
+            int[] nbKnownPositions = new int[nbCoarserNodes];
+            for (int v = 0; v < nbNodes; v++) {
+                int p = parent[v];
+                nbChildren[p]++;
+                coarser.fixed[p] |= fixed[v];
+                if (hasKnownPosition[v]) {
+                    coarser.hasKnownPosition[p] = true;
+                    coarser.knownX[p] += knownX[v];
+                    coarser.knownY[p] += knownY[v];
+                    nbKnownPositions[p]++;
+                }
+            }
+
+            int[] marker = new int[nbCoarserNodes];
+            Arrays.fill(marker, -1);
+            int[] neighbours = new int[nbCoarserNodes];
+            for (int v = 0; v < nbNodes; v++) {
+                int p = parent[v];
+                if (coarser.adjacency[p] != null) {
+                    continue;
+                }
+                int nbNeighbours = 0;
+                int[] children = mate[v] == -1 ? new int[] {v} : new int[] {v, mate[v]};
+                for (int child : children) {
+                    for (int neighbour : adjacency[child]) {
+                        int neighbourParent = parent[neighbour];
+                        if (neighbourParent != p && marker[neighbourParent] != p) {
+                            marker[neighbourParent] = p;
+                            neighbours[nbNeighbours++] = neighbourParent;
+                        }
+                    }
+                }
+                coarser.adjacency[p] = Arrays.copyOf(neighbours, nbNeighbours);
+                if (nbKnownPositions[p] > 0) {
+                    coarser.knownX[p] /= nbKnownPositions[p];
+                    coarser.knownY[p] /= nbKnownPositions[p];
+                }
+            }
+            return coarser;
+        }
+    }
+}
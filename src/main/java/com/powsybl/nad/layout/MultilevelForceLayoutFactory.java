@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.layout;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public class MultilevelForceLayoutFactory implements LayoutFactory {
+
+    private final ForkJoinPool forkJoinPool;
+
+    public MultilevelForceLayoutFactory() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public MultilevelForceLayoutFactory(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = Objects.requireNonNull(forkJoinPool);
+    }
+
+    @Override
+    public Layout create() {
+        return new MultilevelForceLayout(forkJoinPool);
+    }
+}
@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.model;
+
+import org.jgrapht.alg.util.UnorderedPair;
+
+import java.util.*;
+
+/**
+ * Frozen int-indexed representation of a {@link Graph}, produced by {@link Graph#getCompactGraph()}.
+ * Nodes of the voltage level graph, bus graph nodes and edges are given dense ids, which follow the insertion order
+ * of the graph. Adjacencies are stored in compressed sparse row arrays: the edges adjacent to node i are the ones
+ * between indexes getAdjacencyStart(i) and getAdjacencyEnd(i), in the same order as in the jgrapht graphs.
+ * <p>
+ * The coordinates arrays hold the positions of the nodes when the compact graph was last returned by
+ * {@link Graph#getCompactGraph()}, updated by {@link #setPosition}.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+public final class CompactGraph {
+
+    private final Node[] nodes;
+    private final double[] x;
+    private final double[] y;
+    private final int[] adjacencyStart;
+    private final int[] adjacentEdges;
+
+    private final Edge[] edges;
+    private final int[] edgeNode1;
+    private final int[] edgeNode2;
+
+    private final Node[] busNodes;
+    private final int[] edgeBusNode1;
+    private final int[] edgeBusNode2;
+    private final int[] busAdjacencyStart;
+    private final int[] busAdjacentEdges;
+
+    /** Edges grouped by pair of nodes, the edges of group g being between indexes edgeGroupStart[g] and edgeGroupStart[g + 1] */
+    private final int[] edgeGroupStart;
+    private final int[] edgeGroupEdges;
+
+    /** Branch edges of each group, the branch edges of group g being between indexes branchEdgeGroupStart[g] and branchEdgeGroupStart[g + 1] */
+    private final int[] branchEdgeGroupStart;
+    private final int[] branchEdgeGroupEdges;
+
+    CompactGraph(org.jgrapht.Graph<Node, Edge> voltageLevelGraph, org.jgrapht.Graph<Node, Edge> busGraph,
+                 Map<UnorderedPair<Node, Node>, List<Edge>> edgeGroups) {
+        Map<Node, Integer> nodeIndexes = new IdentityHashMap<>(voltageLevelGraph.vertexSet().size());
+        nodes = voltageLevelGraph.vertexSet().toArray(new Node[0]);
+        x = new double[nodes.length];
+        y = new double[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            nodeIndexes.put(nodes[i], i);
+        }
+        updateCoordinates();
+
+        Map<Edge, Integer> edgeIndexes = new IdentityHashMap<>(voltageLevelGraph.edgeSet().size());
+        edges = voltageLevelGraph.edgeSet().toArray(new Edge[0]);
+        edgeNode1 = new int[edges.length];
+        edgeNode2 = new int[edges.length];
+        for (int e = 0; e < edges.length; e++) {
+            edgeIndexes.put(edges[e], e);
+            edgeNode1[e] = nodeIndexes.get(voltageLevelGraph.getEdgeSource(edges[e]));
+            edgeNode2[e] = nodeIndexes.get(voltageLevelGraph.getEdgeTarget(edges[e]));
+        }
+        adjacencyStart = new int[nodes.length + 1];
+        adjacentEdges = buildAdjacency(edgeNode1, edgeNode2, edges.length, adjacencyStart);
+
+        Map<Node, Integer> busNodeIndexes = new IdentityHashMap<>(busGraph.vertexSet().size());
+        busNodes = busGraph.vertexSet().toArray(new Node[0]);
+        for (int b = 0; b < busNodes.length; b++) {
+            busNodeIndexes.put(busNodes[b], b);
+        }
+        // Bus graph edges are also voltage level graph edges: their ends are indexed by the voltage level edge index
+        edgeBusNode1 = new int[edges.length];
+        edgeBusNode2 = new int[edges.length];
+        Arrays.fill(edgeBusNode1, -1);
+        Arrays.fill(edgeBusNode2, -1);
+        int[] busEdgeNode1 = new int[busGraph.edgeSet().size()];
+        int[] busEdgeNode2 = new int[busEdgeNode1.length];
+        int[] busEdges = new int[busEdgeNode1.length];
+        int k = 0;
+        for (Edge edge : busGraph.edgeSet()) {
+            int e = edgeIndexes.get(edge);
+            busEdges[k] = e;
+            busEdgeNode1[k] = busNodeIndexes.get(busGraph.getEdgeSource(edge));
+            busEdgeNode2[k] = busNodeIndexes.get(busGraph.getEdgeTarget(edge));
+            edgeBusNode1[e] = busEdgeNode1[k];
+            edgeBusNode2[e] = busEdgeNode2[k];
+            k++;
+        }
+        busAdjacencyStart = new int[busNodes.length + 1];
+        busAdjacentEdges = buildAdjacency(busEdgeNode1, busEdgeNode2, busEdges.length, busAdjacencyStart);
+        for (int i = 0; i < busAdjacentEdges.length; i++) {
+            busAdjacentEdges[i] = busEdges[busAdjacentEdges[i]];
+        }
+
+        edgeGroupStart = new int[edgeGroups.size() + 1];
+        edgeGroupEdges = new int[edges.length];
+        branchEdgeGroupStart = new int[edgeGroups.size() + 1];
+        int nbBranchEdges = (int) Arrays.stream(edges).filter(BranchEdge.class::isInstance).count();
+        branchEdgeGroupEdges = new int[nbBranchEdges];
+        int g = 0;
+        int index = 0;
+        int branchIndex = 0;
+        for (List<Edge> group : edgeGroups.values()) {
+            for (Edge edge : group) {
+                int e = edgeIndexes.get(edge);
+                edgeGroupEdges[index++] = e;
+                if (edge instanceof BranchEdge) {
+                    branchEdgeGroupEdges[branchIndex++] = e;
+                }
+            }
+            edgeGroupStart[++g] = index;
+            branchEdgeGroupStart[g] = branchIndex;
+        }
+    }
+
+    /**
+     * Fills the given start array and returns the adjacent edges array of the compressed sparse row adjacency.
+     * Edges are added to their source then to their target, loops being added only once, as in jgrapht pseudographs.
+     */
+    private static int[] buildAdjacency(int[] node1, int[] node2, int nbEdges, int[] start) {
+        int nbNodes = start.length - 1;
+        for (int e = 0; e < nbEdges; e++) {
+            start[node1[e] + 1]++;
+            if (node2[e] != node1[e]) {
+                start[node2[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < nbNodes; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] next = Arrays.copyOf(start, nbNodes);
+        int[] adjacent = new int[start[nbNodes]];
+        for (int e = 0; e < nbEdges; e++) {
+            adjacent[next[node1[e]]++] = e;
+            if (node2[e] != node1[e]) {
+                adjacent[next[node2[e]]++] = e;
+            }
+        }
+        return adjacent;
+    }
+
+    /**
+     * Copies the current positions of the nodes into the coordinates arrays. This is done by
+     * {@link Graph#getCompactGraph()}: this method only needs to be called if the nodes have been moved since, other
+     * than with {@link #setPosition}.
+     */
+    public void updateCoordinates() {
+        for (int i = 0; i < nodes.length; i++) {
+            x[i] = nodes[i].getX();
+            y[i] = nodes[i].getY();
+        }
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    public Node getNode(int node) {
+        return nodes[node];
+    }
+
+    public double getX(int node) {
+        return x[node];
+    }
+
+    public double getY(int node) {
+        return y[node];
+    }
+
+    /**
+     * Sets the position of the given node, both in the coordinates arrays and in the node itself.
+     */
+    public void setPosition(int node, double px, double py) {
+        x[node] = px;
+        y[node] = py;
+        nodes[node].setPosition(px, py);
+    }
+
+    public int getAdjacencyStart(int node) {
+        return adjacencyStart[node];
+    }
+
+    public int getAdjacencyEnd(int node) {
+        return adjacencyStart[node + 1];
+    }
+
+    public int getAdjacentEdge(int index) {
+        return adjacentEdges[index];
+    }
+
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    public Edge getEdge(int edge) {
+        return edges[edge];
+    }
+
+    public int getEdgeNode1(int edge) {
+        return edgeNode1[edge];
+    }
+
+    public int getEdgeNode2(int edge) {
+        return edgeNode2[edge];
+    }
+
+    public int getBusNodeCount() {
+        return busNodes.length;
+    }
+
+    public Node getBusNode(int busNode) {
+        return busNodes[busNode];
+    }
+
+    /**
+     * Returns the bus graph node on side 1 of the given edge, or -1 if the edge is not in the bus graph.
+     */
+    public int getEdgeBusNode1(int edge) {
+        return edgeBusNode1[edge];
+    }
+
+    /**
+     * Returns the bus graph node on side 2 of the given edge, or -1 if the edge is not in the bus graph.
+     */
+    public int getEdgeBusNode2(int edge) {
+        return edgeBusNode2[edge];
+    }
+
+    public int getBusAdjacencyStart(int busNode) {
+        return busAdjacencyStart[busNode];
+    }
+
+    public int getBusAdjacencyEnd(int busNode) {
+        return busAdjacencyStart[busNode + 1];
+    }
+
+    /**
+     * Returns the edge, indexed as a voltage level graph edge, at the given index of the bus graph adjacency.
+     */
+    public int getBusAdjacentEdge(int index) {
+        return busAdjacentEdges[index];
+    }
+
+    /**
+     * Returns the number of groups of edges sharing the same two nodes, loops of a node forming one group.
+     */
+    public int getEdgeGroupCount() {
+        return edgeGroupStart.length - 1;
+    }
+
+    public int getEdgeGroupStart(int group) {
+        return edgeGroupStart[group];
+    }
+
+    public int getEdgeGroupEnd(int group) {
+        return edgeGroupStart[group + 1];
+    }
+
+    public int getEdgeGroupEdge(int index) {
+        return edgeGroupEdges[index];
+    }
+
+    /**
+     * Returns the start index of the branch edges of the given group, the other edges of the group being skipped.
+     */
+    public int getBranchEdgeGroupStart(int group) {
+        return branchEdgeGroupStart[group];
+    }
+
+    public int getBranchEdgeGroupEnd(int group) {
+        return branchEdgeGroupStart[group + 1];
+    }
+
+    public int getBranchEdgeGroupEdge(int index) {
+        return branchEdgeGroupEdges[index];
+    }
+}
@@ -6,7 +6,9 @@
  */
 package com.powsybl.nad.model;
 
+import com.powsybl.commons.PowsyblException;
 import org.jgrapht.alg.util.Pair;
+import org.jgrapht.alg.util.UnorderedPair;
 import org.jgrapht.graph.Pseudograph;
 import org.jgrapht.graph.WeightedPseudograph;
 
@@ -30,11 +32,37 @@ public class Graph {
     private final org.jgrapht.Graph<Node, Edge> voltageLevelGraph = new WeightedPseudograph<>(Edge.class);
     private final org.jgrapht.Graph<Node, Edge> busGraph = new Pseudograph<>(Edge.class);
     private final Map<TextEdge, Pair<VoltageLevelNode, TextNode>> textEdges = new LinkedHashMap<>();
+    /** Graph of the text edges, which is combined with the voltage level graph when laying out text nodes */
+    private final org.jgrapht.Graph<Node, Edge> textGraph = new WeightedPseudograph<>(Edge.class);
+    private final Set<Node> textNodes = new LinkedHashSet<>();
+    private org.jgrapht.Graph<Node, Edge> graphWithTextNodes;
+
+    /** Nodes and edges of each kind, in insertion order, to avoid filtering all nodes or edges at each call */
+    private final List<VoltageLevelNode> voltageLevelNodes = new ArrayList<>();
+    private final List<ThreeWtNode> threeWtNodes = new ArrayList<>();
+    private final List<BranchEdge> branchEdges = new ArrayList<>();
+    private final List<ThreeWtEdge> threeWtEdges = new ArrayList<>();
+    private final List<TextEdge> textEdgesList = new ArrayList<>();
+
+    /** Edges of the voltage level graph grouped by pair of nodes, in order of the first edge added for each pair */
+    private final Map<UnorderedPair<Node, Node>, List<Edge>> edgeGroups = new LinkedHashMap<>();
+    /** Loop branch edges grouped by node, in order of the first loop added for each node */
+    private final Map<VoltageLevelNode, List<BranchEdge>> loopBranchEdges = new LinkedHashMap<>();
+
+    /** Compact representation, built on demand and discarded when a node or an edge is added */
+    private CompactGraph compactGraph;
 
     public void addNode(Node node) {
         Objects.requireNonNull(node);
+        compactGraph = null;
         nodes.put(node.getEquipmentId(), node);
-        voltageLevelGraph.addVertex(node);
+        if (voltageLevelGraph.addVertex(node)) {
+            if (node instanceof VoltageLevelNode) {
+                voltageLevelNodes.add((VoltageLevelNode) node);
+            } else if (node instanceof ThreeWtNode) {
+                threeWtNodes.add((ThreeWtNode) node);
+            }
+        }
         if (node instanceof VoltageLevelNode) {
             ((VoltageLevelNode) node).getBusNodeStream().forEach(b -> {
                 busGraph.addVertex(b);
@@ -66,15 +94,82 @@ public class Graph {
         Objects.requireNonNull(vlNode);
         Objects.requireNonNull(textNode);
         Objects.requireNonNull(edge);
-        textEdges.put(edge, Pair.of(vlNode, textNode));
+        if (textEdges.put(edge, Pair.of(vlNode, textNode)) == null) {
+            textEdgesList.add(edge);
+            textNodes.add(textNode);
+            textGraph.addVertex(vlNode);
+            textGraph.addVertex(textNode);
+            textGraph.addEdge(vlNode, textNode, edge);
+            textGraph.setEdgeWeight(edge, 1);
+        }
+    }
+
+    /**
+     * Adds the given bus node to the given voltage level node, which is already in the graph.
+     */
+    public void addBusNode(VoltageLevelNode vlNode, BusNode busNode) {
+        Objects.requireNonNull(vlNode);
+        Objects.requireNonNull(busNode);
+        compactGraph = null;
+        vlNode.addBusNode(busNode);
+        busGraph.addVertex(busNode);
+        busNodes.put(busNode.getEquipmentId(), busNode);
+    }
+
+    /**
+     * Removes the given bus node from the given voltage level node. The edges connected to that bus node need to be
+     * connected to other bus nodes beforehand.
+     */
+    public void removeBusNode(VoltageLevelNode vlNode, BusNode busNode) {
+        Objects.requireNonNull(vlNode);
+        Objects.requireNonNull(busNode);
+        if (busGraph.containsVertex(busNode) && busGraph.degreeOf(busNode) > 0) {
+            throw new PowsyblException("Cannot remove bus node '" + busNode.getEquipmentId() + "' which still has edges");
+        }
+        compactGraph = null;
+        vlNode.removeBusNode(busNode);
+        busGraph.removeVertex(busNode);
+        busNodes.remove(busNode.getEquipmentId(), busNode);
+    }
+
+    /**
+     * Connects the given branch edge, already in the graph, to the given bus nodes.
+     */
+    public void setBusNodes(BranchEdge edge, BusNode busNode1, BusNode busNode2) {
+        Objects.requireNonNull(edge);
+        compactGraph = null;
+        busGraph.removeEdge(edge);
+        addBusesEdge(busNode1, busNode2, edge);
+    }
+
+    /**
+     * Connects the given three windings transformer edge, already in the graph, to the given bus node.
+     */
+    public void setBusNode(ThreeWtEdge edge, BusNode busNode) {
+        Objects.requireNonNull(edge);
+        compactGraph = null;
+        Node threeWtNode = busGraph.getEdgeTarget(edge);
+        busGraph.removeEdge(edge);
+        addBusesEdge(busNode, threeWtNode, edge);
     }
 
     private void addVoltageLevelsEdge(Node node1, Node node2, Edge edge) {
         Objects.requireNonNull(node1);
         Objects.requireNonNull(node2);
         Objects.requireNonNull(edge);
+        compactGraph = null;
         edges.put(edge.getEquipmentId(), edge);
-        voltageLevelGraph.addEdge(node1, node2, edge);
+        if (voltageLevelGraph.addEdge(node1, node2, edge)) {
+            if (edge instanceof BranchEdge) {
+                branchEdges.add((BranchEdge) edge);
+            } else if (edge instanceof ThreeWtEdge) {
+                threeWtEdges.add((ThreeWtEdge) edge);
+            }
+            edgeGroups.computeIfAbsent(new UnorderedPair<>(node1, node2), k -> new ArrayList<>(1)).add(edge);
+            if (node1 == node2 && edge instanceof BranchEdge) {
+                loopBranchEdges.computeIfAbsent((VoltageLevelNode) node1, k -> new ArrayList<>(1)).add((BranchEdge) edge);
+            }
+        }
     }
 
     private void addBusesEdge(BusNode node1, Node node2, Edge edge) {
@@ -96,11 +191,19 @@ public class Graph {
     }
 
     public Stream<VoltageLevelNode> getVoltageLevelNodesStream() {
-        return nodes.values().stream().filter(VoltageLevelNode.class::isInstance).map(VoltageLevelNode.class::cast);
+        return voltageLevelNodes.stream();
+    }
+
+    public List<VoltageLevelNode> getVoltageLevelNodes() {
+        return Collections.unmodifiableList(voltageLevelNodes);
     }
 
     public Stream<ThreeWtNode> getThreeWtNodesStream() {
-        return nodes.values().stream().filter(ThreeWtNode.class::isInstance).map(ThreeWtNode.class::cast);
+        return threeWtNodes.stream();
+    }
+
+    public List<ThreeWtNode> getThreeWtNodes() {
+        return Collections.unmodifiableList(threeWtNodes);
     }
 
     public Stream<TextNode> getTextNodesStream() {
@@ -138,61 +241,55 @@ public class Graph {
     }
 
     public Stream<BranchEdge> getBranchEdgeStream() {
-        return voltageLevelGraph.edgeSet().stream()
-                .filter(BranchEdge.class::isInstance)
-                .map(BranchEdge.class::cast);
+        return branchEdges.stream();
     }
 
     public List<BranchEdge> getBranchEdges() {
-        return getBranchEdgeStream().collect(Collectors.toList());
+        return Collections.unmodifiableList(branchEdges);
     }
 
     public Stream<TextEdge> getTextEdgesStream() {
-        return textEdges.keySet().stream();
+        return textEdgesList.stream();
     }
 
     public List<TextEdge> getTextEdges() {
-        return getTextEdgesStream().collect(Collectors.toList());
+        return Collections.unmodifiableList(textEdgesList);
     }
 
     public Map<TextEdge, Pair<VoltageLevelNode, TextNode>> getTextEdgesMap() {
         return Collections.unmodifiableMap(textEdges);
     }
 
+    /**
+     * Returns the branch edges which are the only edge between their two nodes, single loops included.
+     */
     public Stream<BranchEdge> getNonMultiBranchEdgesStream() {
-        return voltageLevelGraph.edgeSet().stream()
-                .filter(BranchEdge.class::isInstance)
-                .map(BranchEdge.class::cast)
-                .filter(e -> voltageLevelGraph.getAllEdges(voltageLevelGraph.getEdgeSource(e), voltageLevelGraph.getEdgeTarget(e)).size() == 1);
+        return edgeGroups.values().stream()
+                .filter(group -> group.size() == 1 && group.get(0) instanceof BranchEdge)
+                .map(group -> (BranchEdge) group.get(0));
     }
 
+    /**
+     * Returns the groups of branch edges sharing the same two distinct nodes, for the groups containing several branch
+     * edges.
+     */
     public Stream<List<BranchEdge>> getMultiBranchEdgesStream() {
-        return voltageLevelGraph.edgeSet().stream()
-                .filter(e -> !isLoop(e))
-                .map(e -> voltageLevelGraph.getAllEdges(voltageLevelGraph.getEdgeSource(e), voltageLevelGraph.getEdgeTarget(e)))
-                .filter(e -> e.size() > 1)
-                .distinct()
-                .map(e -> e.stream().filter(BranchEdge.class::isInstance).map(BranchEdge.class::cast).collect(Collectors.toList()))
-                .filter(e -> e.size() > 1);
+        return edgeGroups.entrySet().stream()
+                .filter(e -> e.getValue().size() > 1 && e.getKey().getFirst() != e.getKey().getSecond())
+                .map(e -> e.getValue().stream().filter(BranchEdge.class::isInstance).map(BranchEdge.class::cast).collect(Collectors.toList()))
+                .filter(group -> group.size() > 1);
     }
 
     public Map<VoltageLevelNode, List<BranchEdge>> getLoopBranchEdgesMap() {
-        return voltageLevelGraph.vertexSet().stream()
-                .map(n -> voltageLevelGraph.getAllEdges(n, n).stream()
-                        .filter(BranchEdge.class::isInstance).map(BranchEdge.class::cast)
-                        .collect(Collectors.toList()))
-                .filter(l -> !l.isEmpty())
-                .collect(Collectors.toMap(l -> getVoltageLevelNode1(l.get(0)), l -> l));
+        return Collections.unmodifiableMap(loopBranchEdges);
     }
 
     public Stream<ThreeWtEdge> getThreeWtEdgesStream() {
-        return voltageLevelGraph.edgeSet().stream()
-                .filter(ThreeWtEdge.class::isInstance)
-                .map(ThreeWtEdge.class::cast);
+        return threeWtEdges.stream();
     }
 
     public List<ThreeWtEdge> getThreeWtEdges() {
-        return getThreeWtEdgesStream().collect(Collectors.toList());
+        return Collections.unmodifiableList(threeWtEdges);
     }
 
     public Optional<Node> getNode(String equipmentId) {
@@ -211,16 +308,29 @@ public class Graph {
         return busNodes.get(busId);
     }
 
+    /**
+     * Returns the compact int-indexed representation of the voltage level graph and of the bus graph, built once the
+     * graph is complete and reused until a node or an edge is added. Its coordinates are refreshed from the current
+     * positions of the nodes.
+     */
+    public CompactGraph getCompactGraph() {
+        if (compactGraph == null) {
+            compactGraph = new CompactGraph(voltageLevelGraph, busGraph, edgeGroups);
+        } else {
+            compactGraph.updateCoordinates();
+        }
+        return compactGraph;
+    }
+
+    /**
+     * Returns the voltage level graph, with the text nodes and text edges if includeTextNodes is true. The graph
+     * including text nodes is an unmodifiable view, which is created once and follows the changes of this graph.
+     */
     public org.jgrapht.Graph<Node, Edge> getJgraphtGraph(boolean includeTextNodes) {
         if (includeTextNodes) {
-            org.jgrapht.Graph<Node, Edge> graphWithTextNodes = new WeightedPseudograph<>(Edge.class);
-            voltageLevelGraph.vertexSet().forEach(graphWithTextNodes::addVertex);
-            voltageLevelGraph.edgeSet().forEach(e -> graphWithTextNodes.addEdge(voltageLevelGraph.getEdgeSource(e), voltageLevelGraph.getEdgeTarget(e), e));
-            textEdges.values().forEach(nodePair -> graphWithTextNodes.addVertex(nodePair.getSecond()));
-            textEdges.forEach((edge, nodePair) -> {
-                graphWithTextNodes.addEdge(nodePair.getFirst(), nodePair.getSecond(), edge);
-                graphWithTextNodes.setEdgeWeight(edge, 1);
-            });
+            if (graphWithTextNodes == null) {
+                graphWithTextNodes = new GraphWithTextNodes(voltageLevelGraph, textGraph, textNodes);
+            }
             return graphWithTextNodes;
         } else {
             return voltageLevelGraph;
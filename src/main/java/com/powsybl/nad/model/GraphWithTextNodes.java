@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.model;
+
+import org.jgrapht.graph.AsGraphUnion;
+
+import java.util.*;
+
+/**
+ * Read-only view of the voltage level graph together with the text nodes and text edges, without copying them.
+ * Unlike {@link AsGraphUnion}, whose union sets are ordered by size, the voltage level graph elements come first and
+ * then the text graph ones, hence iterating on this view gives the same order as a copy of both graphs.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+final class GraphWithTextNodes extends AsGraphUnion<Node, Edge> {
+
+    private final org.jgrapht.Graph<Node, Edge> voltageLevelGraph;
+    private final org.jgrapht.Graph<Node, Edge> textGraph;
+    private final Set<Node> textNodes;
+    private final Set<Edge> textEdges;
+
+    /**
+     * @param voltageLevelGraph the voltage level graph
+     * @param textGraph the graph containing the text edges, their text nodes and their voltage level nodes
+     * @param textNodes the text nodes, which are the vertices of the text graph not in the voltage level graph
+     */
+    GraphWithTextNodes(org.jgrapht.Graph<Node, Edge> voltageLevelGraph, org.jgrapht.Graph<Node, Edge> textGraph, Set<Node> textNodes) {
+        super(voltageLevelGraph, textGraph);
+        this.voltageLevelGraph = voltageLevelGraph;
+        this.textGraph = textGraph;
+        this.textNodes = textNodes;
+        this.textEdges = textGraph.edgeSet();
+    }
+
+    @Override
+    public Set<Node> vertexSet() {
+        return new DisjointUnionSet<>(voltageLevelGraph.vertexSet(), textNodes);
+    }
+
+    @Override
+    public Set<Edge> edgeSet() {
+        return new DisjointUnionSet<>(voltageLevelGraph.edgeSet(), textEdges);
+    }
+
+    @Override
+    public Set<Edge> edgesOf(Node vertex) {
+        boolean inVoltageLevelGraph = voltageLevelGraph.containsVertex(vertex);
+        boolean inTextGraph = textGraph.containsVertex(vertex);
+        if (inVoltageLevelGraph && inTextGraph) {
+            return new DisjointUnionSet<>(voltageLevelGraph.edgesOf(vertex), textGraph.edgesOf(vertex));
+        }
+        return inVoltageLevelGraph ? voltageLevelGraph.edgesOf(vertex) : textGraph.edgesOf(vertex);
+    }
+
+    /**
+     * Unmodifiable view of the union of two disjoint sets, iterating on the first one then on the second one.
+     */
+    private static final class DisjointUnionSet<T> extends AbstractSet<T> {
+
+        private final Set<T> first;
+        private final Set<T> second;
+
+        private DisjointUnionSet(Set<T> first, Set<T> second) {
+            this.first = Collections.unmodifiableSet(first);
+            this.second = Collections.unmodifiableSet(second);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Iterator<T> firstIterator = first.iterator();
+            Iterator<T> secondIterator = second.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return firstIterator.hasNext() || secondIterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return firstIterator.hasNext() ? firstIterator.next() : secondIterator.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return first.size() + second.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return first.contains(o) || second.contains(o);
+        }
+    }
+}
@@ -34,6 +34,10 @@ public class VoltageLevelNode extends AbstractNode {
         busNodes.add(busNode);
     }
 
+    public void removeBusNode(BusNode busNode) {
+        busNodes.remove(busNode);
+    }
+
     public List<BusNode> getBusNodes() {
         return Collections.unmodifiableList(busNodes);
     }
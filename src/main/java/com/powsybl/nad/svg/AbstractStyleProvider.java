@@ -8,12 +8,8 @@ package com.powsybl.nad.svg;
 
 import com.powsybl.commons.config.BaseVoltagesConfig;
 import com.powsybl.nad.model.*;
-import org.apache.commons.io.IOUtils;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -36,15 +32,9 @@ public abstract class AbstractStyleProvider implements StyleProvider {
     public String getStyleDefs() {
         StringBuilder styleSheetBuilder = new StringBuilder("\n");
         for (URL cssUrl : getCssUrls()) {
-            try {
-                styleSheetBuilder.append(new String(IOUtils.toByteArray(cssUrl), StandardCharsets.UTF_8));
-            } catch (IOException e) {
-                throw new UncheckedIOException("Can't read css file " + cssUrl.getPath(), e);
-            }
+            styleSheetBuilder.append(CssCache.getContent(cssUrl));
         }
-        return styleSheetBuilder.toString()
-                .replace("\r\n", "\n") // workaround for https://bugs.openjdk.java.net/browse/JDK-8133452
-                .replace("\r", "\n");
+        return styleSheetBuilder.toString();
     }
 
     protected List<URL> getCssUrls() {
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Destination of the characters written by {@link DirectXmlStreamWriter}, keeping count of their size once encoded in
+ * UTF-8. The characters are either written as is to a {@link Writer}, or encoded in UTF-8 into an {@link OutputStream}
+ * or a {@link ByteBuffer}, without any intermediate transcoding. Unpaired surrogates are encoded as '?'.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+abstract class AbstractSvgSink {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private long byteCount;
+    private char pendingHighSurrogate;
+
+    static AbstractSvgSink of(Writer writer) {
+        return new WriterSink(writer);
+    }
+
+    static AbstractSvgSink of(OutputStream outputStream) {
+        return new OutputStreamSink(outputStream);
+    }
+
+    /**
+     * Returns a sink writing into the given buffer, which throws a {@link java.nio.BufferOverflowException} if the
+     * buffer is too small.
+     */
+    static AbstractSvgSink of(ByteBuffer byteBuffer) {
+        return new ByteBufferSink(byteBuffer);
+    }
+
+    /**
+     * Returns the number of bytes of the characters written so far, encoded in UTF-8.
+     */
+    long getByteCount() {
+        return byteCount;
+    }
+
+    void write(String s) throws IOException {
+        write(s, 0, s.length());
+    }
+
+    void write(String s, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            write(s.charAt(i));
+        }
+    }
+
+    void write(char c) throws IOException {
+        if (c < 0x80 && pendingHighSurrogate == 0) {
+            byteCount++;
+            writeAscii(c);
+            return;
+        }
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                byteCount += 4;
+                writeCodePoint(Character.toCodePoint(high, c));
+                return;
+            }
+            byteCount++;
+            writeCodePoint('?');
+        }
+        if (c < 0x80) {
+            byteCount++;
+            writeAscii(c);
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            byteCount++;
+            writeCodePoint('?');
+        } else {
+            byteCount += c < 0x800 ? 2 : 3;
+            writeCodePoint(c);
+        }
+    }
+
+    void flush() throws IOException {
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            byteCount++;
+            writeCodePoint('?');
+        }
+    }
+
+    /**
+     * Writes the given ASCII character.
+     */
+    protected abstract void writeAscii(char c) throws IOException;
+
+    /**
+     * Writes the given code point, not encodable in one byte in UTF-8 unless being the replacement character of an
+     * unpaired surrogate.
+     */
+    protected abstract void writeCodePoint(int codePoint) throws IOException;
+
+    private static final class WriterSink extends AbstractSvgSink {
+
+        private final Writer writer;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int size = 0;
+
+        private WriterSink(Writer writer) {
+            this.writer = Objects.requireNonNull(writer);
+        }
+
+        @Override
+        protected void writeAscii(char c) throws IOException {
+            if (size == buffer.length) {
+                flushBuffer();
+            }
+            buffer[size++] = c;
+        }
+
+        @Override
+        protected void writeCodePoint(int codePoint) throws IOException {
+            if (size + 2 > buffer.length) {
+                flushBuffer();
+            }
+            if (codePoint == '?') {
+                buffer[size++] = '?';
+            } else {
+                size += Character.toChars(codePoint, buffer, size);
+            }
+        }
+
+        @Override
+        void flush() throws IOException {
+            super.flush();
+            flushBuffer();
+            writer.flush();
+        }
+
+        private void flushBuffer() throws IOException {
+            writer.write(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Sink encoding the characters in UTF-8, into an internal buffer for an output stream or into the given buffer.
+     */
+    private abstract static class AbstractUtf8Sink extends AbstractSvgSink {
+
+        protected abstract void put(byte b) throws IOException;
+
+        @Override
+        protected void writeAscii(char c) throws IOException {
+            put((byte) c);
+        }
+
+        @Override
+        protected void writeCodePoint(int codePoint) throws IOException {
+            if (codePoint < 0x80) {
+                put((byte) codePoint);
+            } else if (codePoint < 0x800) {
+                put((byte) (0xC0 | (codePoint >> 6)));
+                put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (codePoint < 0x10000) {
+                put((byte) (0xE0 | (codePoint >> 12)));
+                put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                put((byte) (0xF0 | (codePoint >> 18)));
+                put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                put((byte) (0x80 | (codePoint & 0x3F)));
+            }
+        }
+    }
+
+    private static final class OutputStreamSink extends AbstractUtf8Sink {
+
+        private final OutputStream outputStream;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int size = 0;
+
+        private OutputStreamSink(OutputStream outputStream) {
+            this.outputStream = Objects.requireNonNull(outputStream);
+        }
+
+        @Override
+        protected void put(byte b) throws IOException {
+            if (size == buffer.length) {
+                flushBuffer();
+            }
+            buffer[size++] = b;
+        }
+
+        @Override
+        void flush() throws IOException {
+            super.flush();
+            flushBuffer();
+            outputStream.flush();
+        }
+
+        private void flushBuffer() throws IOException {
+            outputStream.write(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    private static final class ByteBufferSink extends AbstractUtf8Sink {
+
+        private final ByteBuffer byteBuffer;
+
+        private ByteBufferSink(ByteBuffer byteBuffer) {
+            this.byteBuffer = Objects.requireNonNull(byteBuffer);
+        }
+
+        @Override
+        protected void put(byte b) {
+            byteBuffer.put(b);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of the contents of the CSS resources, with normalized line separators, keyed by resource URL.
+ * As the URL of a resource depends on the class loader which found it, the resources of different class loaders are
+ * cached separately. Only the URL strings are kept, so that the cache does not prevent any class loader from being
+ * garbage collected.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+final class CssCache {
+
+    private static final Map<String, String> CONTENTS = new ConcurrentHashMap<>();
+
+    private CssCache() {
+    }
+
+    static String getContent(URL cssUrl) {
+        Objects.requireNonNull(cssUrl);
+        return CONTENTS.computeIfAbsent(cssUrl.toExternalForm(), k -> readContent(cssUrl));
+    }
+
+    static void clear() {
+        CONTENTS.clear();
+    }
+
+    private static String readContent(URL cssUrl) {
+        try {
+            return new String(IOUtils.toByteArray(cssUrl), StandardCharsets.UTF_8)
+                    .replace("\r\n", "\n") // workaround for https://bugs.openjdk.java.net/browse/JDK-8133452
+                    .replace("\r", "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read css file " + cssUrl.getPath(), e);
+        }
+    }
+}
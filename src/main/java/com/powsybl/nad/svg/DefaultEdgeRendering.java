@@ -10,8 +10,6 @@ import com.powsybl.nad.model.*;
 
 import java.util.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * @author Florian Dupuy <florian.dupuy at rte-france.com>
@@ -20,26 +18,66 @@ public class DefaultEdgeRendering implements EdgeRendering {
 
     @Override
     public void run(Graph graph, SvgParameters svgParameters) {
-        graph.getNonMultiBranchEdgesStream().forEach(edge -> computeSingleBranchEdgeCoordinates(graph, edge, svgParameters));
-        graph.getMultiBranchEdgesStream().forEach(edges -> computeMultiBranchEdgesCoordinates(graph, edges, svgParameters));
-        graph.getLoopBranchEdgesMap().forEach((node, edges) -> loopEdgesLayout(graph, node, edges, svgParameters));
-        graph.getThreeWtNodesStream().forEach(threeWtNode -> computeThreeWtEdgeCoordinates(graph, threeWtNode, svgParameters));
+        CompactGraph compactGraph = graph.getCompactGraph();
+        int nbGroups = compactGraph.getEdgeGroupCount();
+
+        // Branch edges which are the only edge between their nodes, single loops included
+        for (int g = 0; g < nbGroups; g++) {
+            int start = compactGraph.getEdgeGroupStart(g);
+            if (compactGraph.getEdgeGroupEnd(g) - start == 1) {
+                int edge = compactGraph.getEdgeGroupEdge(start);
+                if (compactGraph.getEdge(edge) instanceof BranchEdge) {
+                    computeSingleBranchEdgeCoordinates(compactGraph, edge, svgParameters);
+                }
+            }
+        }
+
+        // Several branch edges between two distinct nodes
+        for (int g = 0; g < nbGroups; g++) {
+            int start = compactGraph.getBranchEdgeGroupStart(g);
+            int end = compactGraph.getBranchEdgeGroupEnd(g);
+            if (end - start > 1 && !isLoop(compactGraph, compactGraph.getBranchEdgeGroupEdge(start))) {
+                computeMultiBranchEdgesCoordinates(compactGraph, start, end, svgParameters);
+            }
+        }
+
+        // Loops, done last as their angles depend on the other edges
+        for (int g = 0; g < nbGroups; g++) {
+            int start = compactGraph.getBranchEdgeGroupStart(g);
+            int end = compactGraph.getBranchEdgeGroupEnd(g);
+            if (end > start && isLoop(compactGraph, compactGraph.getBranchEdgeGroupEdge(start))) {
+                loopEdgesLayout(compactGraph, start, end, svgParameters);
+            }
+        }
+
+        for (int i = 0; i < compactGraph.getNodeCount(); i++) {
+            if (compactGraph.getNode(i) instanceof ThreeWtNode) {
+                computeThreeWtEdgeCoordinates(compactGraph, i, svgParameters);
+            }
+        }
         graph.getTextEdgesMap().forEach((edge, nodes) -> computeTextEdgeLayoutCoordinates(nodes.getFirst(), nodes.getSecond(), edge));
     }
 
+    private static boolean isLoop(CompactGraph compactGraph, int edge) {
+        return compactGraph.getEdgeNode1(edge) == compactGraph.getEdgeNode2(edge);
+    }
+
     private void computeTextEdgeLayoutCoordinates(Node node1, Node node2, TextEdge edge) {
         edge.setPoints(node1.getPosition(), node2.getPosition());
     }
 
-    private void computeSingleBranchEdgeCoordinates(Graph graph, BranchEdge edge, SvgParameters svgParameters) {
-        Node node1 = graph.getBusGraphNode1(edge);
-        Node node2 = graph.getBusGraphNode2(edge);
+    private void computeSingleBranchEdgeCoordinates(CompactGraph compactGraph, int edgeIndex, SvgParameters svgParameters) {
+        BranchEdge edge = (BranchEdge) compactGraph.getEdge(edgeIndex);
+        Node node1 = compactGraph.getBusNode(compactGraph.getEdgeBusNode1(edgeIndex));
+        Node node2 = compactGraph.getBusNode(compactGraph.getEdgeBusNode2(edgeIndex));
+        VoltageLevelNode vlNode1 = (VoltageLevelNode) compactGraph.getNode(compactGraph.getEdgeNode1(edgeIndex));
+        VoltageLevelNode vlNode2 = (VoltageLevelNode) compactGraph.getNode(compactGraph.getEdgeNode2(edgeIndex));
 
-        Point direction1 = getDirection(node2, () -> graph.getNode2(edge));
-        Point edgeStart1 = computeEdgeStart(node1, direction1, graph.getVoltageLevelNode1(edge), svgParameters);
+        Point direction1 = getDirection(node2, () -> vlNode2);
+        Point edgeStart1 = computeEdgeStart(node1, direction1, vlNode1, svgParameters);
 
-        Point direction2 = getDirection(node1, () -> graph.getNode1(edge));
-        Point edgeStart2 = computeEdgeStart(node2, direction2, graph.getVoltageLevelNode2(edge), svgParameters);
+        Point direction2 = getDirection(node1, () -> vlNode1);
+        Point edgeStart2 = computeEdgeStart(node2, direction2, vlNode2, svgParameters);
 
         Point middle = Point.createMiddlePoint(edgeStart1, edgeStart2);
         if (edge.getType().equals(BranchEdge.TWO_WT_EDGE)) {
@@ -74,10 +112,14 @@ public class DefaultEdgeRendering implements EdgeRendering {
         return edgeStart;
     }
 
-    private void computeMultiBranchEdgesCoordinates(Graph graph, List<BranchEdge> edges, SvgParameters svgParameters) {
-        BranchEdge firstEdge = edges.iterator().next();
-        VoltageLevelNode nodeA = graph.getVoltageLevelNode1(firstEdge);
-        VoltageLevelNode nodeB = graph.getVoltageLevelNode2(firstEdge);
+    /**
+     * Computes the coordinates of the branch edges of a group, between the given indexes of the branch edge groups.
+     */
+    private void computeMultiBranchEdgesCoordinates(CompactGraph compactGraph, int start, int end, SvgParameters svgParameters) {
+        int firstEdge = compactGraph.getBranchEdgeGroupEdge(start);
+        int nodeIndexA = compactGraph.getEdgeNode1(firstEdge);
+        VoltageLevelNode nodeA = (VoltageLevelNode) compactGraph.getNode(nodeIndexA);
+        VoltageLevelNode nodeB = (VoltageLevelNode) compactGraph.getNode(compactGraph.getEdgeNode2(firstEdge));
         Point pointA = nodeA.getPosition();
         Point pointB = nodeB.getPosition();
 
@@ -85,15 +127,15 @@ public class DefaultEdgeRendering implements EdgeRendering {
         double dy = pointB.getY() - pointA.getY();
         double angle = Math.atan2(dy, dx);
 
-        int nbForks = edges.size();
+        int nbForks = end - start;
         double forkAperture = svgParameters.getEdgesForkAperture();
         double forkLength = svgParameters.getEdgesForkLength();
         double angleStep = forkAperture / (nbForks - 1);
 
-        int i = 0;
-        for (BranchEdge edge : edges) {
+        for (int i = 0; i < nbForks; i++) {
+            int edge = compactGraph.getBranchEdgeGroupEdge(start + i);
             if (2 * i + 1 == nbForks) { // in the middle, hence alpha = 0
-                computeSingleBranchEdgeCoordinates(graph, edge, svgParameters);
+                computeSingleBranchEdgeCoordinates(compactGraph, edge, svgParameters);
             } else {
                 double alpha = -forkAperture / 2 + i * angleStep;
                 double angleForkA = angle - alpha;
@@ -102,17 +144,17 @@ public class DefaultEdgeRendering implements EdgeRendering {
                 Point forkA = pointA.shift(forkLength * Math.cos(angleForkA), forkLength * Math.sin(angleForkA));
                 Point forkB = pointB.shift(forkLength * Math.cos(angleForkB), forkLength * Math.sin(angleForkB));
                 Point middle = Point.createMiddlePoint(forkA, forkB);
-                BranchEdge.Side sideA = graph.getNode1(edge) == nodeA ? BranchEdge.Side.ONE : BranchEdge.Side.TWO;
+                BranchEdge.Side sideA = compactGraph.getEdgeNode1(edge) == nodeIndexA ? BranchEdge.Side.ONE : BranchEdge.Side.TWO;
 
-                computeHalfForkCoordinates(graph, svgParameters, nodeA, edge, forkA, middle, sideA);
-                computeHalfForkCoordinates(graph, svgParameters, nodeB, edge, forkB, middle, sideA.getOpposite());
+                computeHalfForkCoordinates(compactGraph, svgParameters, nodeA, edge, forkA, middle, sideA);
+                computeHalfForkCoordinates(compactGraph, svgParameters, nodeB, edge, forkB, middle, sideA.getOpposite());
             }
-            i++;
         }
     }
 
-    private void computeHalfForkCoordinates(Graph graph, SvgParameters svgParameters, VoltageLevelNode node, BranchEdge edge, Point fork, Point middle, BranchEdge.Side side) {
-        Node busNodeA = side == BranchEdge.Side.ONE ? graph.getBusGraphNode1(edge) : graph.getBusGraphNode2(edge);
+    private void computeHalfForkCoordinates(CompactGraph compactGraph, SvgParameters svgParameters, VoltageLevelNode node, int edgeIndex, Point fork, Point middle, BranchEdge.Side side) {
+        BranchEdge edge = (BranchEdge) compactGraph.getEdge(edgeIndex);
+        Node busNodeA = getBusNode(compactGraph, edgeIndex, side);
         Point edgeStart = computeEdgeStart(busNodeA, fork, node, svgParameters);
         Point endFork = edge.getType().equals(BranchEdge.TWO_WT_EDGE)
                 ? middle.atDistance(1.5 * svgParameters.getTransformerCircleRadius(), fork)
@@ -120,19 +162,29 @@ public class DefaultEdgeRendering implements EdgeRendering {
         edge.setPoints(side, edgeStart, fork, endFork);
     }
 
-    private void loopEdgesLayout(Graph graph, VoltageLevelNode node, List<BranchEdge> loopEdges, SvgParameters svgParameters) {
-        List<Double> angles = computeLoopAngles(graph, loopEdges, node, svgParameters);
-        int i = 0;
-        for (BranchEdge edge : loopEdges) {
-            double angle = angles.get(i++);
+    private static Node getBusNode(CompactGraph compactGraph, int edge, BranchEdge.Side side) {
+        return compactGraph.getBusNode(side == BranchEdge.Side.ONE ? compactGraph.getEdgeBusNode1(edge) : compactGraph.getEdgeBusNode2(edge));
+    }
+
+    /**
+     * Lays out the loops of a node, between the given indexes of the branch edge groups.
+     */
+    private void loopEdgesLayout(CompactGraph compactGraph, int start, int end, SvgParameters svgParameters) {
+        int nodeIndex = compactGraph.getEdgeNode1(compactGraph.getBranchEdgeGroupEdge(start));
+        VoltageLevelNode node = (VoltageLevelNode) compactGraph.getNode(nodeIndex);
+        double[] angles = computeLoopAngles(compactGraph, end - start, nodeIndex, svgParameters);
+        for (int i = 0; i < end - start; i++) {
+            int edge = compactGraph.getBranchEdgeGroupEdge(start + i);
+            double angle = angles[i];
             Point middle = node.getPosition().atDistance(svgParameters.getLoopDistance(), angle);
-            loopEdgesHalfLayout(graph, node, svgParameters, edge, BranchEdge.Side.ONE, angle, middle);
-            loopEdgesHalfLayout(graph, node, svgParameters, edge, BranchEdge.Side.TWO, angle, middle);
+            loopEdgesHalfLayout(compactGraph, node, svgParameters, edge, BranchEdge.Side.ONE, angle, middle);
+            loopEdgesHalfLayout(compactGraph, node, svgParameters, edge, BranchEdge.Side.TWO, angle, middle);
         }
     }
 
-    private void loopEdgesHalfLayout(Graph graph, VoltageLevelNode node, SvgParameters svgParameters,
-                                     BranchEdge edge, BranchEdge.Side side, double angle, Point middle) {
+    private void loopEdgesHalfLayout(CompactGraph compactGraph, VoltageLevelNode node, SvgParameters svgParameters,
+                                     int edgeIndex, BranchEdge.Side side, double angle, Point middle) {
+        BranchEdge edge = (BranchEdge) compactGraph.getEdge(edgeIndex);
 
         int sideSign = side == BranchEdge.Side.ONE ? -1 : 1;
         double startAngle = angle + sideSign * svgParameters.getLoopEdgesAperture() / 2;
@@ -142,7 +194,7 @@ public class DefaultEdgeRendering implements EdgeRendering {
         double endAngle = angle + sideSign * Math.PI / 2;
 
         Point fork = node.getPosition().atDistance(svgParameters.getEdgesForkLength(), startAngle);
-        Point edgeStart = computeEdgeStart(graph.getBusGraphNode(edge, side), fork, node, svgParameters);
+        Point edgeStart = computeEdgeStart(getBusNode(compactGraph, edgeIndex, side), fork, node, svgParameters);
         Point control1a = fork.atDistance(controlsDist, startAngle);
         Point middle1 = isTwoWt ? middle.atDistance(1.5 * radius, endAngle) : middle;
         Point control1b = middle1.atDistance(isTwoWt ? Math.max(0, controlsDist - 1.5 * radius) : controlsDist, endAngle);
@@ -150,43 +202,49 @@ public class DefaultEdgeRendering implements EdgeRendering {
         edge.setPoints(side, edgeStart, fork, control1a, control1b, middle1);
     }
 
-    private List<Double> computeLoopAngles(Graph graph, List<BranchEdge> loopEdges, Node node, SvgParameters svgParameters) {
-        int nbLoops = loopEdges.size();
-
-        List<Double> anglesOtherEdges = graph.getBranchEdgeStream(node)
-                .filter(e -> !loopEdges.contains(e))
-                .mapToDouble(e -> getAngle(e, graph, node))
-                .sorted().boxed().collect(Collectors.toList());
+    private double[] computeLoopAngles(CompactGraph compactGraph, int nbLoops, int node, SvgParameters svgParameters) {
+        // All the loop branch edges of the node are laid out together: the other branch edges are the non-loop ones
+        int adjacencyStart = compactGraph.getAdjacencyStart(node);
+        int adjacencyEnd = compactGraph.getAdjacencyEnd(node);
+        // One more slot for the first angle shifted by 2 pi
+        double[] anglesOtherEdges = new double[adjacencyEnd - adjacencyStart + 1];
+        int nbOtherEdges = 0;
+        for (int index = adjacencyStart; index < adjacencyEnd; index++) {
+            int e = compactGraph.getAdjacentEdge(index);
+            if (compactGraph.getEdge(e) instanceof BranchEdge && !isLoop(compactGraph, e)) {
+                anglesOtherEdges[nbOtherEdges++] = getAngle(compactGraph, e, node);
+            }
+        }
+        Arrays.sort(anglesOtherEdges, 0, nbOtherEdges);
 
-        List<Double> loopAngles = new ArrayList<>();
-        if (anglesOtherEdges.size() > 0) {
-            anglesOtherEdges.add(anglesOtherEdges.get(0) + 2 * Math.PI);
+        double[] loopAngles = new double[nbLoops];
+        if (nbOtherEdges > 0) {
+            anglesOtherEdges[nbOtherEdges] = anglesOtherEdges[0] + 2 * Math.PI;
             double apertureWithMargin = svgParameters.getLoopEdgesAperture() * 1.2;
 
-            double[] deltaAngles = new double[anglesOtherEdges.size() - 1];
+            double[] deltaAngles = new double[nbOtherEdges];
             int nbSeparatedSlots = 0;
             int nbSharedSlots = 0;
-            for (int i = 0; i < anglesOtherEdges.size() - 1; i++) {
-                deltaAngles[i] = anglesOtherEdges.get(i + 1) - anglesOtherEdges.get(i);
+            for (int i = 0; i < nbOtherEdges; i++) {
+                deltaAngles[i] = anglesOtherEdges[i + 1] - anglesOtherEdges[i];
                 nbSeparatedSlots += deltaAngles[i] > apertureWithMargin ? 1 : 0;
                 nbSharedSlots += Math.floor(deltaAngles[i] / apertureWithMargin);
             }
 
-            List<Integer> sortedIndices = IntStream.range(0, deltaAngles.length)
-                    .boxed().sorted(Comparator.comparingDouble(i -> deltaAngles[i]))
-                    .collect(Collectors.toList());
+            int[] sortedIndices = getSortedIndices(deltaAngles);
 
+            int nbLoopAngles = 0;
             if (nbLoops <= nbSeparatedSlots) {
                 // Place loops in "slots" separated by non-loop edges
-                for (int i = sortedIndices.size() - nbLoops; i < sortedIndices.size(); i++) {
-                    int iSorted = sortedIndices.get(i);
-                    loopAngles.add((anglesOtherEdges.get(iSorted) + anglesOtherEdges.get(iSorted + 1)) / 2);
+                for (int i = sortedIndices.length - nbLoops; i < sortedIndices.length; i++) {
+                    int iSorted = sortedIndices[i];
+                    loopAngles[nbLoopAngles++] = (anglesOtherEdges[iSorted] + anglesOtherEdges[iSorted + 1]) / 2;
                 }
             } else if (nbLoops <= nbSharedSlots) {
                 // Place the maximum of loops in "slots" separated by non-loop edges, and put the excessive ones in the bigger "slots"
                 int nbExcessiveRemaining = nbLoops - nbSeparatedSlots;
-                for (int i = sortedIndices.size() - 1; i >= 0; i--) {
-                    int iSorted = sortedIndices.get(i);
+                for (int i = sortedIndices.length - 1; i >= 0; i--) {
+                    int iSorted = sortedIndices[i];
                     int nbAvailableSlots = (int) Math.floor(deltaAngles[iSorted] / apertureWithMargin);
                     if (nbAvailableSlots == 0) {
                         break;
@@ -194,76 +252,114 @@ public class DefaultEdgeRendering implements EdgeRendering {
                     int nbLoopsInDelta = Math.min(nbAvailableSlots, nbExcessiveRemaining + 1);
                     double extraSpace = deltaAngles[iSorted] - svgParameters.getLoopEdgesAperture() * nbLoopsInDelta; // extra space without margins
                     double intraSpace = extraSpace / (nbLoopsInDelta + 1); // space between two loops and between non-loop edges and first/last loop
-                    double angleStep = (anglesOtherEdges.get(iSorted + 1) - anglesOtherEdges.get(iSorted) - intraSpace) / nbLoopsInDelta;
-                    double startAngle = anglesOtherEdges.get(iSorted) + intraSpace / 2 + angleStep / 2;
-                    IntStream.range(0, nbLoopsInDelta).mapToDouble(iLoop -> startAngle + iLoop * angleStep).forEach(loopAngles::add);
+                    double angleStep = (anglesOtherEdges[iSorted + 1] - anglesOtherEdges[iSorted] - intraSpace) / nbLoopsInDelta;
+                    double startAngle = anglesOtherEdges[iSorted] + intraSpace / 2 + angleStep / 2;
+                    for (int iLoop = 0; iLoop < nbLoopsInDelta && nbLoopAngles < nbLoops; iLoop++) {
+                        loopAngles[nbLoopAngles++] = startAngle + iLoop * angleStep;
+                    }
                     nbExcessiveRemaining -= nbLoopsInDelta - 1;
                 }
             } else {
                 // Not enough place in the slots: dividing the circle in nbLoops, starting in the middle of the biggest slot
-                int iMaxDelta = sortedIndices.get(sortedIndices.size() - 1);
-                double startAngle = (anglesOtherEdges.get(iMaxDelta) + anglesOtherEdges.get(iMaxDelta + 1)) / 2;
-                IntStream.range(0, nbLoops).mapToDouble(i -> startAngle + i * 2 * Math.PI / nbLoops).forEach(loopAngles::add);
+                int iMaxDelta = sortedIndices[sortedIndices.length - 1];
+                double startAngle = (anglesOtherEdges[iMaxDelta] + anglesOtherEdges[iMaxDelta + 1]) / 2;
+                for (int i = 0; i < nbLoops; i++) {
+                    loopAngles[i] = startAngle + i * 2 * Math.PI / nbLoops;
+                }
             }
 
         } else {
             // No other edges: dividing the circle in nbLoops
-            IntStream.range(0, nbLoops).mapToDouble(i -> i * 2 * Math.PI / nbLoops).forEach(loopAngles::add);
+            for (int i = 0; i < nbLoops; i++) {
+                loopAngles[i] = i * 2 * Math.PI / nbLoops;
+            }
         }
 
         return loopAngles;
     }
 
-    private double getAngle(BranchEdge edge, Graph graph, Node node) {
-        BranchEdge.Side side = graph.getNode1(edge) == node ? BranchEdge.Side.ONE : BranchEdge.Side.TWO;
-        return edge.getEdgeStartAngle(side);
+    /**
+     * Returns the indices of the given values, sorted by increasing value, equal values keeping their order.
+     * Insertion sort, as the number of values is the degree of a node.
+     */
+    private static int[] getSortedIndices(double[] values) {
+        int[] sortedIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            int j = i;
+            while (j > 0 && Double.compare(values[sortedIndices[j - 1]], values[i]) > 0) {
+                sortedIndices[j] = sortedIndices[j - 1];
+                j--;
+            }
+            sortedIndices[j] = i;
+        }
+        return sortedIndices;
+    }
+
+    private double getAngle(CompactGraph compactGraph, int edge, int node) {
+        BranchEdge.Side side = compactGraph.getEdgeNode1(edge) == node ? BranchEdge.Side.ONE : BranchEdge.Side.TWO;
+        return ((BranchEdge) compactGraph.getEdge(edge)).getEdgeStartAngle(side);
     }
 
-    private void computeThreeWtEdgeCoordinates(Graph graph, ThreeWtNode threeWtNode, SvgParameters svgParameters) {
+    private void computeThreeWtEdgeCoordinates(CompactGraph compactGraph, int threeWtNodeIndex, SvgParameters svgParameters) {
         // The 3wt edges are computed by finding the "leading" edge and then placing the other edges at 120°
         // The leading edge is chosen to be the opposite edge of the smallest aperture.
-        List<ThreeWtEdge> edges = graph.getThreeWtEdgeStream(threeWtNode).collect(Collectors.toList());
-        List<Double> angles = edges.stream()
-                .map(edge -> computeEdgeStart(graph.getBusGraphNode(edge), threeWtNode.getPosition(), graph.getVoltageLevelNode(edge), svgParameters))
-                .map(edgeStart -> threeWtNode.getPosition().getAngle(edgeStart))
-                .collect(Collectors.toList());
-        List<Integer> sortedIndices = IntStream.range(0, 3)
-                .boxed().sorted(Comparator.comparingDouble(angles::get))
-                .collect(Collectors.toList());
+        ThreeWtNode threeWtNode = (ThreeWtNode) compactGraph.getNode(threeWtNodeIndex);
+        int[] edges = new int[3];
+        double[] angles = new double[3];
+        int nbEdges = 0;
+        for (int index = compactGraph.getAdjacencyStart(threeWtNodeIndex); index < compactGraph.getAdjacencyEnd(threeWtNodeIndex); index++) {
+            int edge = compactGraph.getAdjacentEdge(index);
+            if (compactGraph.getEdge(edge) instanceof ThreeWtEdge) {
+                Point edgeStart = computeThreeWtEdgeStart(compactGraph, edge, threeWtNode, svgParameters);
+                edges[nbEdges] = edge;
+                angles[nbEdges] = threeWtNode.getPosition().getAngle(edgeStart);
+                nbEdges++;
+            }
+        }
+        int[] sortedIndices = getSortedIndices(angles);
 
         int leadingSortedIndex = getSortedIndexMaximumAperture(angles);
-        double leadingAngle = angles.get(sortedIndices.get(leadingSortedIndex));
+        double leadingAngle = angles[sortedIndices[leadingSortedIndex]];
 
-        List<ThreeWtEdge> edgesSorted = IntStream.range(0, 3)
-                .map(i -> (leadingSortedIndex + i) % 3)
-                .map(sortedIndices::get)
-                .mapToObj(edges::get)
-                .collect(Collectors.toList());
+        int[] edgesSorted = new int[3];
+        for (int i = 0; i < 3; i++) {
+            edgesSorted[i] = edges[sortedIndices[(leadingSortedIndex + i) % 3]];
+        }
         double dNodeToAnchor = svgParameters.getTransformerCircleRadius() * 1.6;
-        for (int i = 0; i < edgesSorted.size(); i++) {
-            ThreeWtEdge edge = edgesSorted.get(i);
-            Point edgeStart = computeEdgeStart(graph.getBusGraphNode(edge), threeWtNode.getPosition(), graph.getVoltageLevelNode(edge), svgParameters);
+        for (int i = 0; i < edgesSorted.length; i++) {
+            int edge = edgesSorted[i];
+            Point edgeStart = computeThreeWtEdgeStart(compactGraph, edge, threeWtNode, svgParameters);
             double anchorAngle = leadingAngle + i * 2 * Math.PI / 3;
             Point threeWtAnchor = threeWtNode.getPosition().shiftRhoTheta(dNodeToAnchor, anchorAngle);
-            edge.setPoints(edgeStart, threeWtAnchor);
+            ((ThreeWtEdge) compactGraph.getEdge(edge)).setPoints(edgeStart, threeWtAnchor);
         }
     }
 
-    private int getSortedIndexMaximumAperture(List<Double> angles) {
+    private Point computeThreeWtEdgeStart(CompactGraph compactGraph, int edge, ThreeWtNode threeWtNode, SvgParameters svgParameters) {
+        Node busNode = compactGraph.getBusNode(compactGraph.getEdgeBusNode1(edge));
+        VoltageLevelNode vlNode = (VoltageLevelNode) compactGraph.getNode(compactGraph.getEdgeNode1(edge));
+        return computeEdgeStart(busNode, threeWtNode.getPosition(), vlNode, svgParameters);
+    }
+
+    private int getSortedIndexMaximumAperture(double[] angles) {
         // Sorting the given angles
-        List<Double> sortedAngles = angles.stream().sorted().collect(Collectors.toList());
+        double[] sortedAngles = Arrays.copyOf(angles, 4);
+        Arrays.sort(sortedAngles, 0, 3);
 
         // Then calculating the apertures
-        sortedAngles.add(sortedAngles.get(0) + 2 * Math.PI);
+        sortedAngles[3] = sortedAngles[0] + 2 * Math.PI;
         double[] deltaAngles = new double[3];
         for (int i = 0; i < 3; i++) {
-            deltaAngles[i] = sortedAngles.get(i + 1) - sortedAngles.get(i);
+            deltaAngles[i] = sortedAngles[i + 1] - sortedAngles[i];
         }
 
         // Returning the (sorted) index of the angle facing the minimal aperture
-        int minDeltaIndex = IntStream.range(0, 3)
-                .boxed().min(Comparator.comparingDouble(i -> deltaAngles[i]))
-                .orElse(0);
+        int minDeltaIndex = 0;
+        for (int i = 1; i < 3; i++) {
+            if (Double.compare(deltaAngles[i], deltaAngles[minDeltaIndex]) < 0) {
+                minDeltaIndex = i;
+            }
+        }
         return ((minDeltaIndex - 1) + 3) % 3;
     }
 }
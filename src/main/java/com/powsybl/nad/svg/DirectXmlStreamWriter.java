@@ -0,0 +1,489 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Lightweight XML stream writer writing the markup directly into a {@link AbstractSvgSink}, giving the same document as the
+ * indenting StAX writer of {@link com.powsybl.commons.xml.XmlUtil#initializeWriter}: same indentation, same escaping
+ * and same empty elements.
+ * <p>
+ * Element and attribute names are written as is, only attribute values and texts being escaped. As in the StAX writer
+ * without namespace repairing, the methods taking a namespace URI without a prefix use the prefix bound to that URI,
+ * by {@link #setPrefix}, {@link #setDefaultNamespace}, a namespace declaration or the {@link NamespaceContext} given.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+final class DirectXmlStreamWriter implements XMLStreamWriter {
+
+    private static final int WROTE_MARKUP = 1;
+    private static final int WROTE_DATA = 2;
+
+    private final AbstractSvgSink sink;
+    private final String indent;
+    private final String newLine;
+
+    /** Names of the open elements */
+    private String[] names = new String[16];
+
+    /** What has been written in each open element, as in the indenting StAX writer */
+    private int[] written = new int[16];
+    private int depth = 0;
+
+    /** True if the last start tag has not been closed yet, as attributes may still be written */
+    private boolean startTagOpen = false;
+    private boolean emptyElement = false;
+
+    /** Namespace bindings, each one being in the scope of the element at its depth */
+    private final List<NamespaceBinding> namespaceBindings = new ArrayList<>();
+    private NamespaceContext namespaceContext;
+
+    DirectXmlStreamWriter(AbstractSvgSink sink, String indent, String newLine) {
+        this.sink = Objects.requireNonNull(sink);
+        this.indent = Objects.requireNonNull(indent);
+        this.newLine = Objects.requireNonNull(newLine);
+    }
+
+    /**
+     * Creates a writer of a fragment of a document, the fragment being inside the given number of elements which are
+     * already opened and already contain some markup. Those elements cannot be ended by this writer.
+     */
+    DirectXmlStreamWriter(AbstractSvgSink sink, String indent, String newLine, int nbOpenElements) {
+        this(sink, indent, newLine);
+        if (nbOpenElements >= names.length) {
+            names = new String[2 * nbOpenElements];
+            written = new int[2 * nbOpenElements];
+        }
+        if (nbOpenElements > 0) {
+            depth = nbOpenElements;
+            Arrays.fill(written, 0, depth + 1, WROTE_MARKUP);
+        }
+    }
+
+    /**
+     * Ends the fragment written by this fragment writer, closing the last start tag, and flushes the sink.
+     */
+    void writeEndFragment() throws XMLStreamException {
+        closeStartTag();
+        flush();
+    }
+
+    /**
+     * Writes in the current element the given fragment, written by a fragment writer inside the same elements.
+     */
+    void writeFragment(String fragment) throws XMLStreamException {
+        closeStartTag();
+        if (!fragment.isEmpty()) {
+            write(fragment);
+            afterMarkup();
+        }
+    }
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        writeStartDocument("1.0");
+    }
+
+    @Override
+    public void writeStartDocument(String version) throws XMLStreamException {
+        beforeMarkup();
+        write("<?xml version=\"" + version + "\"?>");
+        afterMarkup();
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+        beforeMarkup();
+        write("<?xml version=\"" + version + "\" encoding=\"" + encoding + "\"?>");
+        afterMarkup();
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        closeStartTag();
+        beforeMarkup();
+        write('<');
+        write(localName);
+        afterMarkup();
+        push(localName);
+        startTagOpen = true;
+        emptyElement = false;
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeStartElement(getQualifiedName(getBoundPrefix(namespaceURI), localName));
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        writeStartElement(getQualifiedName(prefix, localName));
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        closeStartTag();
+        beforeMarkup();
+        write('<');
+        write(localName);
+        afterMarkup();
+        startTagOpen = true;
+        emptyElement = true;
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeEmptyElement(getQualifiedName(getBoundPrefix(namespaceURI), localName));
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        writeEmptyElement(getQualifiedName(prefix, localName));
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        if (depth == 0 || names[depth - 1] == null) {
+            throw new XMLStreamException("No element to end");
+        }
+        if (written[depth] == WROTE_MARKUP) {
+            // Only markup in the element: end tag on a new line
+            writeNewLine(depth - 1);
+        }
+        if (startTagOpen) {
+            closeStartTag();
+        }
+        depth--;
+        removeNamespaceBindings();
+        write("</");
+        write(names[depth]);
+        write('>');
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        while (depth > 0) {
+            writeEndElement();
+        }
+        closeStartTag();
+        if (written[0] == WROTE_MARKUP) {
+            writeNewLine(0);
+        }
+        written[0] = 0;
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        flush();
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        if (!startTagOpen) {
+            throw new XMLStreamException("Attribute '" + localName + "' written outside a start tag");
+        }
+        write(' ');
+        write(localName);
+        write("=\"");
+        writeEscaped(value, true);
+        write('"');
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value) throws XMLStreamException {
+        writeAttribute(getQualifiedName(prefix, localName), value);
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        writeAttribute(getQualifiedName(getBoundPrefix(namespaceURI), localName), value);
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        if (prefix == null || prefix.isEmpty() || prefix.equals("xmlns")) {
+            writeDefaultNamespace(namespaceURI);
+        } else {
+            writeAttribute("xmlns:" + prefix, namespaceURI);
+            bindDeclaredNamespace(prefix, namespaceURI);
+        }
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        writeAttribute("xmlns", namespaceURI);
+        bindDeclaredNamespace(XMLConstants.DEFAULT_NS_PREFIX, namespaceURI);
+    }
+
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        closeStartTag();
+        beforeMarkup();
+        write("<!--");
+        write(data);
+        write("-->");
+        afterMarkup();
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) throws XMLStreamException {
+        writeProcessingInstruction(target, null);
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+        closeStartTag();
+        beforeMarkup();
+        write("<?");
+        write(target);
+        if (data != null) {
+            write(' ');
+            write(data);
+        }
+        write("?>");
+        afterMarkup();
+    }
+
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        closeStartTag();
+        write("<![CDATA[");
+        write(data);
+        write("]]>");
+        written[depth] |= WROTE_DATA;
+    }
+
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        closeStartTag();
+        beforeMarkup();
+        write(dtd);
+        afterMarkup();
+    }
+
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        closeStartTag();
+        write('&');
+        write(name);
+        write(';');
+        written[depth] |= WROTE_DATA;
+    }
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        closeStartTag();
+        writeEscaped(text, false);
+        written[depth] |= WROTE_DATA;
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        writeCharacters(new String(text, start, len));
+    }
+
+    @Override
+    public String getPrefix(String uri) {
+        for (int i = namespaceBindings.size() - 1; i >= 0; i--) {
+            NamespaceBinding binding = namespaceBindings.get(i);
+            if (binding.uri.equals(uri)) {
+                return binding.prefix;
+            }
+        }
+        return namespaceContext != null ? namespaceContext.getPrefix(uri) : null;
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) {
+        namespaceBindings.add(new NamespaceBinding(depth, Objects.requireNonNull(prefix), Objects.requireNonNull(uri)));
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) {
+        setPrefix(XMLConstants.DEFAULT_NS_PREFIX, uri);
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) {
+        this.namespaceContext = context;
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                for (int i = namespaceBindings.size() - 1; i >= 0; i--) {
+                    NamespaceBinding binding = namespaceBindings.get(i);
+                    if (binding.prefix.equals(prefix)) {
+                        return binding.uri;
+                    }
+                }
+                return namespaceContext != null ? namespaceContext.getNamespaceURI(prefix) : null;
+            }
+
+            @Override
+            public String getPrefix(String namespaceURI) {
+                return DirectXmlStreamWriter.this.getPrefix(namespaceURI);
+            }
+
+            @Override
+            public Iterator<String> getPrefixes(String namespaceURI) {
+                String prefix = getPrefix(namespaceURI);
+                return prefix != null ? List.of(prefix).iterator() : Collections.emptyIterator();
+            }
+        };
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        throw new IllegalArgumentException("Property '" + name + "' not supported");
+    }
+
+    private String getBoundPrefix(String namespaceURI) throws XMLStreamException {
+        String prefix = getPrefix(namespaceURI);
+        if (prefix == null) {
+            throw new XMLStreamException("No prefix bound to namespace URI '" + namespaceURI + "'");
+        }
+        return prefix;
+    }
+
+    /**
+     * Binds the namespace declared in the start tag being written, in the scope of its element. The declarations of
+     * an empty element are not bound, their scope being already ended.
+     */
+    private void bindDeclaredNamespace(String prefix, String namespaceURI) {
+        if (!emptyElement) {
+            namespaceBindings.add(new NamespaceBinding(depth, prefix, namespaceURI));
+        }
+    }
+
+    private void removeNamespaceBindings() {
+        while (!namespaceBindings.isEmpty() && namespaceBindings.get(namespaceBindings.size() - 1).depth > depth) {
+            namespaceBindings.remove(namespaceBindings.size() - 1);
+        }
+    }
+
+    private static String getQualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    private void push(String name) {
+        depth++;
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, 2 * depth);
+            written = Arrays.copyOf(written, 2 * depth);
+        }
+        names[depth - 1] = name;
+        written[depth] = 0;
+    }
+
+    private void closeStartTag() throws XMLStreamException {
+        if (startTagOpen) {
+            write(emptyElement ? "/>" : ">");
+            startTagOpen = false;
+        }
+    }
+
+    /**
+     * Writes a new line before the markup, unless some data has been written in the current element or unless this
+     * is the very beginning of the document.
+     */
+    private void beforeMarkup() throws XMLStreamException {
+        int soFar = written[depth];
+        if ((soFar & WROTE_DATA) == 0 && (depth > 0 || soFar != 0)) {
+            writeNewLine(depth);
+        }
+    }
+
+    private void afterMarkup() {
+        written[depth] |= WROTE_MARKUP;
+    }
+
+    private void writeNewLine(int indentation) throws XMLStreamException {
+        closeStartTag();
+        write(newLine);
+        for (int i = 0; i < indentation; i++) {
+            write(indent);
+        }
+    }
+
+    private void writeEscaped(String text, boolean attribute) throws XMLStreamException {
+        try {
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                String escaped = getEscaped(text.charAt(i), attribute);
+                if (escaped != null) {
+                    sink.write(text, start, i - start);
+                    sink.write(escaped);
+                    start = i + 1;
+                }
+            }
+            sink.write(text, start, text.length() - start);
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    private static String getEscaped(char c, boolean attribute) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return attribute ? "&quot;" : null;
+            default:
+                return null;
+        }
+    }
+
+    private void write(String s) throws XMLStreamException {
+        try {
+            sink.write(s);
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    private void write(char c) throws XMLStreamException {
+        try {
+            sink.write(c);
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    private static final class NamespaceBinding {
+        private final int depth;
+        private final String prefix;
+        private final String uri;
+
+        private NamespaceBinding(int depth, String prefix, String uri) {
+            this.depth = depth;
+            this.prefix = prefix;
+            this.uri = uri;
+        }
+    }
+}
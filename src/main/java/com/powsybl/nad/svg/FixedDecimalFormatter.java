@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import java.util.Locale;
+
+/**
+ * Formats doubles with a fixed number of decimals, giving the same result as {@code String.format(Locale.US, "%.nf")}
+ * without its parsing of the format and boxing of the value, the digits being appended directly to a StringBuilder.
+ * <p>
+ * {@link String#format} rounds half-up the shortest decimal representation of the value, which differs from the exact
+ * binary value: when the scaled value is too close to a rounding tie to know which way it is rounded, as for 1.005,
+ * or too large to be handled with longs, the formatting falls back to {@link String#format}.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+final class FixedDecimalFormatter {
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000};
+
+    /** Above this scaled value the fractional part is not accurate enough */
+    private static final double MAX_SCALED_VALUE = 1e12;
+
+    /** Relative error bound of the scaled value, compared to the scaled shortest decimal representation */
+    private static final double RELATIVE_TOLERANCE = 1e-15;
+
+    private FixedDecimalFormatter() {
+    }
+
+    static String format(double value, int decimals) {
+        return append(new StringBuilder(16), value, decimals).toString();
+    }
+
+    /**
+     * Appends the given value with the given number of decimals, from 0 to 6, to the given StringBuilder.
+     * @return the given StringBuilder
+     */
+    static StringBuilder append(StringBuilder sb, double value, int decimals) {
+        long power = POWERS_OF_TEN[decimals];
+        double scaled = Math.abs(value) * power;
+        if (!(scaled < MAX_SCALED_VALUE)) { // NaN included
+            return sb.append(String.format(Locale.US, "%." + decimals + "f", value));
+        }
+        long integerPart = (long) scaled;
+        double fraction = scaled - integerPart;
+        if (Math.abs(fraction - 0.5) <= scaled * RELATIVE_TOLERANCE) {
+            return sb.append(String.format(Locale.US, "%." + decimals + "f", value));
+        }
+        long rounded = fraction > 0.5 ? integerPart + 1 : integerPart;
+
+        // Sign bit checked to have a minus sign for negative zero and for negative values rounded to zero
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append('-');
+        }
+        sb.append(rounded / power);
+        if (decimals > 0) {
+            sb.append('.');
+            long decimalPart = rounded % power;
+            for (long p = power / 10; p > decimalPart && p > 1; p /= 10) {
+                sb.append('0');
+            }
+            sb.append(decimalPart);
+        }
+        return sb;
+    }
+
+    /**
+     * Appends the given value rounded to the given number of decimals, from 0 to 6, in its shortest form: without
+     * trailing zeros, without leading zero before the decimal point and without sign for zero.
+     * @return the given StringBuilder
+     */
+    static StringBuilder appendShortest(StringBuilder sb, double value, int decimals) {
+        int start = sb.length();
+        append(sb, value, decimals);
+        if (sb.indexOf(".", start) >= 0) {
+            int end = sb.length();
+            while (sb.charAt(end - 1) == '0') {
+                end--;
+            }
+            if (sb.charAt(end - 1) == '.') {
+                end--;
+            }
+            sb.setLength(end);
+        }
+        int digitsStart = sb.charAt(start) == '-' ? start + 1 : start;
+        if (sb.charAt(digitsStart) == '0') {
+            if (sb.length() == digitsStart + 1) {
+                sb.setLength(start);
+                sb.append('0');
+            } else {
+                sb.deleteCharAt(digitsStart);
+            }
+        }
+        return sb;
+    }
+}
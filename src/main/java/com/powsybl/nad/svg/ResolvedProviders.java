@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import com.powsybl.nad.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Style and label providers giving the results of other providers, resolved beforehand for the elements rendered in
+ * parallel. The other providers may read the network, which is not thread-safe, and may give results depending on the
+ * order of the calls, as {@link com.powsybl.nad.svg.iidm.TopologicalStyleProvider}: the results are therefore resolved
+ * on the calling thread, by calling the methods of this class in the order of the serial rendering, before calling
+ * {@link #endResolution}. The resolved results are then only read, hence this class can be used concurrently.
+ *
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+final class ResolvedProviders implements StyleProvider, LabelProvider {
+
+    private final StyleProvider styleProvider;
+    private final LabelProvider labelProvider;
+    private final Graph graph;
+    private final Map<Key, Object> results = new HashMap<>();
+    private boolean resolving = true;
+
+    ResolvedProviders(StyleProvider styleProvider, LabelProvider labelProvider, Graph graph) {
+        this.styleProvider = Objects.requireNonNull(styleProvider);
+        this.labelProvider = Objects.requireNonNull(labelProvider);
+        this.graph = Objects.requireNonNull(graph);
+    }
+
+    /**
+     * Ends the resolution: the results which have not been resolved so far cannot be given afterwards.
+     */
+    void endResolution() {
+        resolving = false;
+    }
+
+    @Override
+    public List<String> getCssFilenames() {
+        return styleProvider.getCssFilenames();
+    }
+
+    @Override
+    public String getStyleDefs() {
+        return styleProvider.getStyleDefs();
+    }
+
+    @Override
+    public List<String> getNodeStyleClasses(Node node) {
+        return getStyleClasses(new Key("node", node, null), () -> styleProvider.getNodeStyleClasses(node));
+    }
+
+    @Override
+    public List<String> getNodeStyleClasses(BusNode busNode) {
+        return getStyleClasses(new Key("busNode", busNode, null), () -> styleProvider.getNodeStyleClasses(busNode));
+    }
+
+    @Override
+    public List<String> getEdgeStyleClasses(Edge edge) {
+        return getStyleClasses(new Key("edge", edge, null), () -> styleProvider.getEdgeStyleClasses(edge));
+    }
+
+    @Override
+    public List<String> getSideEdgeStyleClasses(BranchEdge edge, BranchEdge.Side side) {
+        return getStyleClasses(new Key("sideEdge", edge, side), () -> styleProvider.getSideEdgeStyleClasses(edge, side));
+    }
+
+    @Override
+    public List<String> getEdgeInfoStyles(EdgeInfo info) {
+        return getStyleClasses(new Key("edgeInfo", info, null), () -> styleProvider.getEdgeInfoStyles(info));
+    }
+
+    @Override
+    public List<String> getThreeWtNodeStyle(ThreeWtNode threeWtNode, ThreeWtEdge.Side side) {
+        return getStyleClasses(new Key("threeWtNode", threeWtNode, side), () -> styleProvider.getThreeWtNodeStyle(threeWtNode, side));
+    }
+
+    @Override
+    public List<EdgeInfo> getEdgeInfos(Graph graph, BranchEdge edge, BranchEdge.Side side) {
+        checkGraph(graph);
+        return getResult(new Key("edgeInfos", edge, side), () -> labelProvider.getEdgeInfos(graph, edge, side));
+    }
+
+    @Override
+    public List<EdgeInfo> getEdgeInfos(Graph graph, ThreeWtEdge edge) {
+        checkGraph(graph);
+        return getResult(new Key("edgeInfos", edge, null), () -> labelProvider.getEdgeInfos(graph, edge));
+    }
+
+    @Override
+    public String getArrowPathDIn() {
+        return getResult(new Key("arrowPathDIn", null, null), labelProvider::getArrowPathDIn);
+    }
+
+    @Override
+    public String getArrowPathDOut() {
+        return getResult(new Key("arrowPathDOut", null, null), labelProvider::getArrowPathDOut);
+    }
+
+    @Override
+    public List<String> getVoltageLevelDescription(VoltageLevelNode voltageLevelNode) {
+        return getResult(new Key("vlDescription", voltageLevelNode, null), () -> labelProvider.getVoltageLevelDescription(voltageLevelNode));
+    }
+
+    private void checkGraph(Graph graph) {
+        if (graph != this.graph) {
+            throw new IllegalArgumentException("Results resolved for another graph");
+        }
+    }
+
+    /**
+     * Returns a copy of the resolved style classes, as the style classes lists may be completed by the caller.
+     */
+    private List<String> getStyleClasses(Key key, Supplier<List<String>> provider) {
+        return new ArrayList<>(getResult(key, provider));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getResult(Key key, Supplier<T> provider) {
+        if (resolving) {
+            return (T) results.computeIfAbsent(key, k -> provider.get());
+        }
+        Object result = results.get(key);
+        if (result == null) {
+            throw new IllegalStateException("Result not resolved before rendering: " + key);
+        }
+        return (T) result;
+    }
+
+    /**
+     * Key of a result: the method name, the element and the side if any. Elements are compared by identity, as in
+     * the graph.
+     */
+    private static final class Key {
+        private final String method;
+        private final Object element;
+        private final Object side;
+
+        private Key(String method, Object element, Object side) {
+            this.method = method;
+            this.element = element;
+            this.side = side;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return method.equals(other.method) && element == other.element && side == other.side;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * method.hashCode() + System.identityHashCode(element)) + System.identityHashCode(side);
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + element + (side != null ? " " + side : "");
+        }
+    }
+}
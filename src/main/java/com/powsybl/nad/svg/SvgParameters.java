@@ -7,6 +7,7 @@
 package com.powsybl.nad.svg;
 
 import java.util.Objects;
+import java.util.zip.Deflater;
 
 /**
  * @author Florian Dupuy <florian.dupuy at rte-france.com>
@@ -42,6 +43,13 @@ public class SvgParameters {
     private boolean idDisplayed = false;
     private boolean substationDescriptionDisplayed;
     private double arrowHeight = 10;
+    private boolean directXmlWriting = false;
+    private boolean minifiedSvg = false;
+    private boolean svgzOutput = false;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private int compressionBufferSize = 8192;
+    private boolean parallelRendering = false;
+    private int renderingChunkSize = 200;
 
     public enum CssLocation {
         INSERTED_IN_SVG, EXTERNAL_IMPORTED, EXTERNAL_NO_IMPORT
@@ -84,6 +92,13 @@ public class SvgParameters {
         this.idDisplayed = other.idDisplayed;
         this.substationDescriptionDisplayed = other.substationDescriptionDisplayed;
         this.arrowHeight = other.arrowHeight;
+        this.directXmlWriting = other.directXmlWriting;
+        this.minifiedSvg = other.minifiedSvg;
+        this.svgzOutput = other.svgzOutput;
+        this.compressionLevel = other.compressionLevel;
+        this.compressionBufferSize = other.compressionBufferSize;
+        this.parallelRendering = other.parallelRendering;
+        this.renderingChunkSize = other.renderingChunkSize;
     }
 
     public Padding getDiagramPadding() {
@@ -349,4 +364,101 @@ public class SvgParameters {
         this.arrowHeight = arrowHeight;
         return this;
     }
+
+    public boolean isDirectXmlWriting() {
+        return directXmlWriting;
+    }
+
+    /**
+     * Sets whether the SVG is written directly into the output, instead of through a StAX writer, without the
+     * transcoding of a writer into an output stream. The document written is the same. Direct XML writing is always
+     * used with parallel rendering.
+     */
+    public SvgParameters setDirectXmlWriting(boolean directXmlWriting) {
+        this.directXmlWriting = directXmlWriting;
+        return this;
+    }
+
+    public boolean isMinifiedSvg() {
+        return minifiedSvg;
+    }
+
+    /**
+     * Sets whether the SVG is written in its most compact form: without indentation, with numbers without trailing
+     * zeros and with duplicate style classes removed.
+     */
+    public SvgParameters setMinifiedSvg(boolean minifiedSvg) {
+        this.minifiedSvg = minifiedSvg;
+        return this;
+    }
+
+    public boolean isSvgzOutput() {
+        return svgzOutput;
+    }
+
+    /**
+     * Sets whether the SVG files are compressed with gzip, with the svgz extension. SVG files with the svgz extension
+     * are compressed anyway.
+     */
+    public SvgParameters setSvgzOutput(boolean svgzOutput) {
+        this.svgzOutput = svgzOutput;
+        return this;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the compression level of the svgz files, from 0 to 9, or -1 for the default compression level.
+     */
+    public SvgParameters setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level should be between -1 and 9: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    public int getCompressionBufferSize() {
+        return compressionBufferSize;
+    }
+
+    public SvgParameters setCompressionBufferSize(int compressionBufferSize) {
+        if (compressionBufferSize <= 0) {
+            throw new IllegalArgumentException("Compression buffer size should be strictly positive: " + compressionBufferSize);
+        }
+        this.compressionBufferSize = compressionBufferSize;
+        return this;
+    }
+
+    public boolean isParallelRendering() {
+        return parallelRendering;
+    }
+
+    /**
+     * Sets whether the elements of the SVG are rendered concurrently by chunks, on the executor of the
+     * {@link SvgWriter}. The style and label providers are still called on the calling thread, in the same order as
+     * without parallel rendering, only the geometry being rendered concurrently: the SVG written is the same.
+     * <p>
+     * As the fragments rendered concurrently are written directly, parallel rendering implies direct XML writing,
+     * whatever the value of {@link #isDirectXmlWriting}.
+     */
+    public SvgParameters setParallelRendering(boolean parallelRendering) {
+        this.parallelRendering = parallelRendering;
+        return this;
+    }
+
+    public int getRenderingChunkSize() {
+        return renderingChunkSize;
+    }
+
+    /**
+     * Sets the number of elements rendered together when rendering in parallel, the groups of elements which are not
+     * larger being rendered without concurrency.
+     */
+    public SvgParameters setRenderingChunkSize(int renderingChunkSize) {
+        this.renderingChunkSize = renderingChunkSize;
+        return this;
+    }
 }
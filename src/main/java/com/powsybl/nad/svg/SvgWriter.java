@@ -6,22 +6,29 @@
  */
 package com.powsybl.nad.svg;
 
+import com.google.common.base.Throwables;
+import com.powsybl.commons.PowsyblException;
 import com.powsybl.commons.exceptions.UncheckedXmlStreamException;
 import com.powsybl.commons.xml.XmlUtil;
 import com.powsybl.nad.model.*;
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.apache.commons.io.output.WriterOutputStream;
-import org.jgrapht.alg.util.Pair;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author Florian Dupuy <florian.dupuy at rte-france.com>
@@ -58,87 +65,295 @@ public class SvgWriter {
     private static final String FE_IN_ATTRIBUTE = "in";
     private static final String FE_OPERATOR_ATTRIBUTE = "operator";
     public static final String TEXT_BG_FILTER_ID = "textBgFilter";
+    private static final String SVG_EXTENSION = ".svg";
+    private static final String SVGZ_EXTENSION = ".svgz";
 
     private final SvgParameters svgParameters;
     private final StyleProvider styleProvider;
     private final LabelProvider labelProvider;
     private final EdgeRendering edgeRendering;
+    private final ExecutorService renderingExecutor;
 
     public SvgWriter(SvgParameters svgParameters, StyleProvider styleProvider, LabelProvider labelProvider) {
+        this(svgParameters, styleProvider, labelProvider, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param renderingExecutor executor rendering the elements when parallel rendering is enabled in the svg parameters
+     */
+    public SvgWriter(SvgParameters svgParameters, StyleProvider styleProvider, LabelProvider labelProvider, ExecutorService renderingExecutor) {
         this.svgParameters = Objects.requireNonNull(svgParameters);
         this.styleProvider = Objects.requireNonNull(styleProvider);
         this.labelProvider = Objects.requireNonNull(labelProvider);
         this.edgeRendering = new DefaultEdgeRendering();
+        this.renderingExecutor = Objects.requireNonNull(renderingExecutor);
     }
 
+    /**
+     * Writes the SVG of the given graph in the given file, adding the svg extension if missing. The SVG is compressed
+     * with gzip if the file has the svgz extension or if the svgz output is set in the svg parameters, in which case
+     * the svgz extension is used: see {@link #getSvgFile}.
+     */
     public void writeSvg(Graph graph, Path svgFile) {
+        Path actualSvgFile = getSvgFile(svgFile);
+        boolean compressed = actualSvgFile.getFileName().toString().endsWith(SVGZ_EXTENSION);
+        try (OutputStream fileOs = Files.newOutputStream(actualSvgFile);
+             OutputStream svgOs = compressed ? createGzipOutputStream(fileOs) : new BufferedOutputStream(fileOs)) {
+            writeSvg(graph, svgOs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the file actually written by {@link #writeSvg(Graph, Path)} for the given file, with the svg extension,
+     * or the svgz extension if the SVG is compressed.
+     */
+    public Path getSvgFile(Path svgFile) {
         Objects.requireNonNull(svgFile);
         Path dir = svgFile.toAbsolutePath().getParent();
         String svgFileName = svgFile.getFileName().toString();
-        if (!svgFileName.endsWith(".svg")) {
-            svgFileName = svgFileName + ".svg";
+        boolean compressed = svgParameters.isSvgzOutput() || svgFileName.endsWith(SVGZ_EXTENSION);
+        if (compressed && !svgFileName.endsWith(SVGZ_EXTENSION)) {
+            svgFileName = svgFileName.endsWith(SVG_EXTENSION) ? svgFileName + "z" : svgFileName + SVGZ_EXTENSION;
+        } else if (!compressed && !svgFileName.endsWith(SVG_EXTENSION)) {
+            svgFileName = svgFileName + SVG_EXTENSION;
         }
-        try (OutputStream svgOs = new BufferedOutputStream(Files.newOutputStream(dir.resolve(svgFileName)))) {
-            writeSvg(graph, svgOs);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        return dir.resolve(svgFileName);
+    }
+
+    private OutputStream createGzipOutputStream(OutputStream os) throws IOException {
+        int bufferSize = svgParameters.getCompressionBufferSize();
+        GZIPOutputStream gzipOs = new LeveledGzipOutputStream(os, bufferSize, svgParameters.getCompressionLevel());
+        return new BufferedOutputStream(gzipOs, bufferSize);
+    }
+
+    /**
+     * Gzip output stream with a given compression level.
+     */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        private LeveledGzipOutputStream(OutputStream os, int bufferSize, int level) throws IOException {
+            super(os, bufferSize);
+            def.setLevel(level);
         }
     }
 
+    /**
+     * Writes the SVG of the given graph in the given writer, which is flushed but left open.
+     */
     public void writeSvg(Graph graph, Writer svgWriter) {
-        try (WriterOutputStream svgOs = new WriterOutputStream(svgWriter, StandardCharsets.UTF_8)) {
-            writeSvg(graph, svgOs);
+        Objects.requireNonNull(svgWriter);
+        if (isDirectXmlWriting()) {
+            writeSvg(graph, AbstractSvgSink.of(svgWriter));
+            return;
+        }
+        // Not closing the output stream, as it would close the given writer
+        WriterOutputStream svgOs = new WriterOutputStream(svgWriter, StandardCharsets.UTF_8);
+        writeSvg(graph, svgOs);
+        try {
+            svgOs.flush();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
-    private void writeSvg(Graph graph, OutputStream svgOs) {
-        Objects.requireNonNull(graph);
+    /**
+     * Writes the SVG of the given graph in the given output stream, encoded in UTF-8, which is flushed but left open.
+     */
+    public void writeSvg(Graph graph, OutputStream svgOs) {
         Objects.requireNonNull(svgOs);
+        if (isDirectXmlWriting()) {
+            writeSvg(graph, AbstractSvgSink.of(svgOs));
+            return;
+        }
+        try {
+            XMLStreamWriter writer = XmlUtil.initializeWriter(!svgParameters.isMinifiedSvg(), INDENT, svgOs);
+            writeSvg(graph, writer);
+        } catch (XMLStreamException e) {
+            throw new UncheckedXmlStreamException(e);
+        }
+    }
 
-        // Edge coordinates need to be computed first, based on svg parameters
-        edgeRendering.run(graph, svgParameters);
+    /**
+     * Writes the SVG of the given graph in the given buffer, encoded in UTF-8, from its current position, which is
+     * moved after the SVG.
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void writeSvg(Graph graph, ByteBuffer svgBuffer) {
+        Objects.requireNonNull(svgBuffer);
+        if (isDirectXmlWriting()) {
+            writeSvg(graph, AbstractSvgSink.of(svgBuffer));
+            return;
+        }
+        writeSvg(graph, new OutputStream() {
+            @Override
+            public void write(int b) {
+                svgBuffer.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                svgBuffer.put(b, off, len);
+            }
+        });
+    }
 
+    private void writeSvg(Graph graph, AbstractSvgSink sink) {
         try {
-            XMLStreamWriter writer = XmlUtil.initializeWriter(true, INDENT, svgOs);
-            addSvgRoot(graph, writer);
-            addStyle(writer);
-            addMetadata(graph, writer);
-            addDefs(writer);
-            drawVoltageLevelNodes(graph, writer);
-            drawBranchEdges(graph, writer);
-            drawThreeWtEdges(graph, writer);
-            drawThreeWtNodes(graph, writer);
-            drawTextEdges(graph, writer);
-            drawTextNodes(graph, writer);
-            writer.writeEndDocument();
+            XMLStreamWriter writer = createDirectWriter(sink, 0);
+            writer.writeStartDocument(StandardCharsets.UTF_8.toString(), "1.0");
+            writeSvg(graph, writer);
         } catch (XMLStreamException e) {
             throw new UncheckedXmlStreamException(e);
         }
     }
 
+    private boolean isDirectXmlWriting() {
+        // Parallel rendering writes the fragments rendered concurrently with the direct writer, hence implies it
+        return svgParameters.isDirectXmlWriting() || svgParameters.isParallelRendering();
+    }
+
+    private DirectXmlStreamWriter createDirectWriter(AbstractSvgSink sink, int nbOpenElements) {
+        return svgParameters.isMinifiedSvg()
+                ? new DirectXmlStreamWriter(sink, "", "", nbOpenElements)
+                : new DirectXmlStreamWriter(sink, INDENT, System.lineSeparator(), nbOpenElements);
+    }
+
+    private void writeSvg(Graph graph, XMLStreamWriter writer) throws XMLStreamException {
+        Objects.requireNonNull(graph);
+
+        // Edge coordinates need to be computed first, based on svg parameters
+        edgeRendering.run(graph, svgParameters);
+
+        addSvgRoot(graph, writer);
+        addStyle(writer);
+        addMetadata(graph, writer);
+        addDefs(writer);
+        drawVoltageLevelNodes(graph, writer);
+        drawBranchEdges(graph, writer);
+        drawThreeWtEdges(graph, writer);
+        drawThreeWtNodes(graph, writer);
+        drawTextEdges(graph, writer);
+        drawTextNodes(graph, writer);
+        writer.writeEndDocument();
+        writer.flush();
+    }
+
     private void drawBranchEdges(Graph graph, XMLStreamWriter writer) throws XMLStreamException {
+        drawGroup(writer, graph, StyleProvider.BRANCH_EDGES_CLASS, graph.getBranchEdges(),
+            (styles, labels, edge) -> resolveBranchEdge(graph, styles, labels, edge),
+            (w, styles, labels, edge) -> drawBranchEdge(graph, w, styles, labels, edge));
+    }
+
+    private void resolveBranchEdge(Graph graph, StyleProvider styles, LabelProvider labels, BranchEdge edge) {
+        styles.getEdgeStyleClasses(edge);
+        for (BranchEdge.Side side : BranchEdge.Side.values()) {
+            if (isHalfEdgeDrawn(edge, side)) {
+                styles.getSideEdgeStyleClasses(edge, side);
+                if (edge.isVisible(side)) {
+                    resolveEdgeInfos(styles, labels, labels.getEdgeInfos(graph, edge, side));
+                }
+            }
+        }
+    }
+
+    private void drawBranchEdge(Graph graph, XMLStreamWriter writer, StyleProvider styles, LabelProvider labels, BranchEdge edge) throws XMLStreamException {
         writer.writeStartElement(GROUP_ELEMENT_NAME);
-        writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.BRANCH_EDGES_CLASS);
-        for (BranchEdge edge : graph.getBranchEdges()) {
-            writer.writeStartElement(GROUP_ELEMENT_NAME);
-            writer.writeAttribute(ID_ATTRIBUTE, getPrefixedId(edge.getDiagramId()));
-            addStylesIfAny(writer, styleProvider.getEdgeStyleClasses(edge));
-            insertName(writer, edge::getName);
+        writer.writeAttribute(ID_ATTRIBUTE, getPrefixedId(edge.getDiagramId()));
+        addStylesIfAny(writer, styles.getEdgeStyleClasses(edge));
+        insertName(writer, edge::getName);
 
-            drawHalfEdge(graph, writer, edge, BranchEdge.Side.ONE);
-            drawHalfEdge(graph, writer, edge, BranchEdge.Side.TWO);
+        drawHalfEdge(graph, writer, styles, labels, edge, BranchEdge.Side.ONE);
+        drawHalfEdge(graph, writer, styles, labels, edge, BranchEdge.Side.TWO);
 
-            if (edge.getType().equals(BranchEdge.HVDC_LINE_EDGE)) {
-                drawConverterStation(writer, edge);
+        if (edge.getType().equals(BranchEdge.HVDC_LINE_EDGE)) {
+            drawConverterStation(writer, edge);
+        }
+
+        writer.writeEndElement();
+    }
+
+    /**
+     * Draws the given elements in a group with the given class. If parallel rendering is enabled, the results of the
+     * style and label providers are first resolved for all the elements on the calling thread, in the order of the
+     * serial rendering, then the elements are rendered concurrently by chunks into fragments, which are written in the
+     * order of the elements.
+     */
+    private <T> void drawGroup(XMLStreamWriter writer, Graph graph, String groupClass, List<T> elements,
+                               ElementResolver<T> resolver, ElementDrawer<T> drawer) throws XMLStreamException {
+        writer.writeStartElement(GROUP_ELEMENT_NAME);
+        writer.writeAttribute(CLASS_ATTRIBUTE, groupClass);
+        int chunkSize = Math.max(1, svgParameters.getRenderingChunkSize());
+        if (svgParameters.isParallelRendering() && writer instanceof DirectXmlStreamWriter && elements.size() > chunkSize) {
+            ResolvedProviders providers = new ResolvedProviders(styleProvider, labelProvider, graph);
+            for (T element : elements) {
+                resolver.resolve(providers, providers, element);
             }
+            providers.endResolution();
 
-            writer.writeEndElement();
+            List<Future<String>> fragments = new ArrayList<>();
+            for (int i = 0; i < elements.size(); i += chunkSize) {
+                List<T> chunk = elements.subList(i, Math.min(i + chunkSize, elements.size()));
+                fragments.add(renderingExecutor.submit(() -> renderFragment(chunk, drawer, providers)));
+            }
+            for (Future<String> fragment : fragments) {
+                ((DirectXmlStreamWriter) writer).writeFragment(getFragment(fragment, fragments));
+            }
+        } else {
+            for (T element : elements) {
+                drawer.draw(writer, styleProvider, labelProvider, element);
+            }
         }
         writer.writeEndElement();
     }
 
+    private <T> String renderFragment(List<T> elements, ElementDrawer<T> drawer, ResolvedProviders providers) throws XMLStreamException {
+        StringBuilderWriter fragmentWriter = new StringBuilderWriter();
+        DirectXmlStreamWriter writer = createDirectWriter(AbstractSvgSink.of(fragmentWriter), 2);
+        for (T element : elements) {
+            drawer.draw(writer, providers, providers, element);
+        }
+        writer.writeEndFragment();
+        return fragmentWriter.toString();
+    }
+
+    private static String getFragment(Future<String> fragment, List<Future<String>> fragments) throws XMLStreamException {
+        try {
+            return fragment.get();
+        } catch (ExecutionException e) {
+            fragments.forEach(f -> f.cancel(true));
+            Throwables.throwIfInstanceOf(e.getCause(), XMLStreamException.class);
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new PowsyblException("Failed to render SVG fragment", e.getCause());
+        } catch (InterruptedException e) {
+            fragments.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new PowsyblException("Interrupted while rendering SVG fragments", e);
+        }
+    }
+
+    /**
+     * Calls the style and label providers as the drawing of an element does, and in the same order.
+     */
+    @FunctionalInterface
+    private interface ElementResolver<T> {
+        void resolve(StyleProvider styles, LabelProvider labels, T element);
+    }
+
+    @FunctionalInterface
+    private interface ElementDrawer<T> {
+        void draw(XMLStreamWriter writer, StyleProvider styles, LabelProvider labels, T element) throws XMLStreamException;
+    }
+
+    private static void resolveEdgeInfos(StyleProvider styles, LabelProvider labels, List<EdgeInfo> edgeInfos) {
+        for (EdgeInfo info : edgeInfos) {
+            styles.getEdgeInfoStyles(info);
+            labels.getArrowPathDIn();
+            labels.getArrowPathDOut();
+        }
+    }
+
     private void drawConverterStation(XMLStreamWriter writer, BranchEdge edge) throws XMLStreamException {
         writer.writeEmptyElement(POLYLINE_ELEMENT_NAME);
         List<Point> line1 = edge.getPoints(BranchEdge.Side.ONE);
@@ -152,10 +367,7 @@ public class SvgWriter {
             points.add(line1.get(1).atDistance(halfWidth, line1.get(0)));
             points.add(line2.get(1).atDistance(halfWidth, line2.get(0)));
         }
-        String lineFormatted = points.stream()
-                .map(point -> getFormattedValue(point.getX()) + "," + getFormattedValue(point.getY()))
-                .collect(Collectors.joining(" "));
-        writer.writeAttribute(POINTS_ATTRIBUTE, lineFormatted);
+        writer.writeAttribute(POINTS_ATTRIBUTE, getPolylinePointsString(points));
         writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.HVDC_CLASS);
     }
 
@@ -165,32 +377,33 @@ public class SvgWriter {
             return;
         }
 
-        writer.writeStartElement(GROUP_ELEMENT_NAME);
-        writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.THREE_WT_EDGES_CLASS);
-        for (ThreeWtEdge edge : threeWtEdges) {
-            drawThreeWtEdge(graph, writer, edge);
-        }
-        writer.writeEndElement();
+        drawGroup(writer, graph, StyleProvider.THREE_WT_EDGES_CLASS, threeWtEdges,
+            (styles, labels, edge) -> resolveThreeWtEdge(graph, styles, labels, edge),
+            (w, styles, labels, edge) -> drawThreeWtEdge(graph, w, styles, labels, edge));
     }
 
-    private void drawHalfEdge(Graph graph, XMLStreamWriter writer, BranchEdge edge, BranchEdge.Side side) throws XMLStreamException {
+    private static boolean isHalfEdgeDrawn(BranchEdge edge, BranchEdge.Side side) {
         // the half edge is only drawn if visible, but if the edge is a TwoWtEdge, the transformer is still drawn
-        if (!edge.isVisible(side) && !(edge.getType().equals(BranchEdge.TWO_WT_EDGE))) {
+        return edge.isVisible(side) || edge.getType().equals(BranchEdge.TWO_WT_EDGE);
+    }
+
+    private void drawHalfEdge(Graph graph, XMLStreamWriter writer, StyleProvider styles, LabelProvider labels, BranchEdge edge, BranchEdge.Side side) throws XMLStreamException {
+        if (!isHalfEdgeDrawn(edge, side)) {
             return;
         }
         writer.writeStartElement(GROUP_ELEMENT_NAME);
-        addStylesIfAny(writer, styleProvider.getSideEdgeStyleClasses(edge, side));
+        addStylesIfAny(writer, styles.getSideEdgeStyleClasses(edge, side));
         if (edge.isVisible(side)) {
             if (!graph.isLoop(edge)) {
                 writer.writeEmptyElement(POLYLINE_ELEMENT_NAME);
                 writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.EDGE_PATH_CLASS);
                 writer.writeAttribute(POINTS_ATTRIBUTE, getPolylinePointsString(edge, side));
-                drawBranchEdgeInfo(graph, writer, edge, side, labelProvider.getEdgeInfos(graph, edge, side));
+                drawBranchEdgeInfo(graph, writer, styles, labels, edge, side, labels.getEdgeInfos(graph, edge, side));
             } else {
                 writer.writeEmptyElement(PATH_ELEMENT_NAME);
                 writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.EDGE_PATH_CLASS);
                 writer.writeAttribute(PATH_D_ATTRIBUTE, getLoopPathString(edge, side));
-                drawLoopEdgeInfo(writer, edge, side, labelProvider.getEdgeInfos(graph, edge, side));
+                drawLoopEdgeInfo(writer, styles, labels, edge, side, labels.getEdgeInfos(graph, edge, side));
             }
         }
         if (edge.getType().equals(BranchEdge.TWO_WT_EDGE)) {
@@ -208,87 +421,119 @@ public class SvgWriter {
     }
 
     private String getPolylinePointsString(List<Point> points) {
-        return points.stream()
-                .map(point -> getFormattedValue(point.getX()) + "," + getFormattedValue(point.getY()))
-                .collect(Collectors.joining(" "));
+        StringBuilder sb = new StringBuilder(points.size() * 16);
+        for (int i = 0; i < points.size(); i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            appendPoint(sb, points.get(i));
+        }
+        return sb.toString();
     }
 
     private String getLoopPathString(BranchEdge edge, BranchEdge.Side side) {
-        Object[] points = edge.getPoints(side).stream().flatMap(p -> Stream.of(p.getX(), p.getY())).toArray();
-        return String.format(Locale.US, "M%.2f,%.2f L%.2f,%.2f C%.2f,%.2f %.2f,%.2f %.2f,%.2f", points);
+        List<Point> points = edge.getPoints(side);
+        StringBuilder sb = new StringBuilder(80).append('M');
+        appendPoint(sb, points.get(0)).append(" L");
+        appendPoint(sb, points.get(1)).append(" C");
+        appendPoint(sb, points.get(2)).append(' ');
+        appendPoint(sb, points.get(3)).append(' ');
+        return appendPoint(sb, points.get(4)).toString();
     }
 
-    private void drawThreeWtEdge(Graph graph, XMLStreamWriter writer, ThreeWtEdge edge) throws XMLStreamException {
+    private StringBuilder appendPoint(StringBuilder sb, Point point) {
+        appendNumber(sb, point.getX(), 2).append(',');
+        return appendNumber(sb, point.getY(), 2);
+    }
+
+    private void resolveThreeWtEdge(Graph graph, StyleProvider styles, LabelProvider labels, ThreeWtEdge edge) {
+        if (edge.isVisible()) {
+            styles.getEdgeStyleClasses(edge);
+            resolveEdgeInfos(styles, labels, labels.getEdgeInfos(graph, edge));
+        }
+    }
+
+    private void drawThreeWtEdge(Graph graph, XMLStreamWriter writer, StyleProvider styles, LabelProvider labels, ThreeWtEdge edge) throws XMLStreamException {
         if (!edge.isVisible()) {
             return;
         }
         writer.writeStartElement(GROUP_ELEMENT_NAME);
         writer.writeAttribute(ID_ATTRIBUTE, getPrefixedId(edge.getDiagramId()));
-        addStylesIfAny(writer, styleProvider.getEdgeStyleClasses(edge));
+        addStylesIfAny(writer, styles.getEdgeStyleClasses(edge));
         insertName(writer, edge::getName);
         writer.writeEmptyElement(POLYLINE_ELEMENT_NAME);
         writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.EDGE_PATH_CLASS);
         writer.writeAttribute(POINTS_ATTRIBUTE, getPolylinePointsString(edge));
-        drawThreeWtEdgeInfo(graph, writer, edge, labelProvider.getEdgeInfos(graph, edge));
+        drawThreeWtEdgeInfo(graph, writer, styles, labels, edge, labels.getEdgeInfos(graph, edge));
         writer.writeEndElement();
     }
 
     private void drawThreeWtNodes(Graph graph, XMLStreamWriter writer) throws XMLStreamException {
-        List<ThreeWtNode> threeWtNodes = graph.getThreeWtNodesStream().collect(Collectors.toList());
+        List<ThreeWtNode> threeWtNodes = graph.getThreeWtNodes();
         if (threeWtNodes.isEmpty()) {
             return;
         }
 
+        drawGroup(writer, graph, StyleProvider.THREE_WT_NODES_CLASS, threeWtNodes,
+            (styles, labels, threeWtNode) -> resolveThreeWtNode(graph, styles, threeWtNode),
+            (w, styles, labels, threeWtNode) -> drawThreeWtNode(graph, w, styles, threeWtNode));
+    }
+
+    private static void resolveThreeWtNode(Graph graph, StyleProvider styles, ThreeWtNode threeWtNode) {
+        styles.getNodeStyleClasses(threeWtNode);
+        graph.getThreeWtEdgeStream(threeWtNode).forEach(edge -> styles.getThreeWtNodeStyle(threeWtNode, edge.getSide()));
+    }
+
+    private void drawThreeWtNode(Graph graph, XMLStreamWriter writer, StyleProvider styles, ThreeWtNode threeWtNode) throws XMLStreamException {
         writer.writeStartElement(GROUP_ELEMENT_NAME);
-        writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.THREE_WT_NODES_CLASS);
-        for (ThreeWtNode threeWtNode : threeWtNodes) {
-            writer.writeStartElement(GROUP_ELEMENT_NAME);
-            addStylesIfAny(writer, styleProvider.getNodeStyleClasses(threeWtNode));
-            List<ThreeWtEdge> edges = graph.getThreeWtEdgeStream(threeWtNode).collect(Collectors.toList());
-            for (ThreeWtEdge edge : edges) {
-                draw3WtWinding(edge, threeWtNode, writer);
-            }
-            writer.writeEndElement();
+        addStylesIfAny(writer, styles.getNodeStyleClasses(threeWtNode));
+        List<ThreeWtEdge> edges = graph.getThreeWtEdgeStream(threeWtNode).collect(Collectors.toList());
+        for (ThreeWtEdge edge : edges) {
+            draw3WtWinding(edge, threeWtNode, writer, styles);
         }
         writer.writeEndElement();
     }
 
-    private void draw3WtWinding(ThreeWtEdge edge, ThreeWtNode threeWtNode, XMLStreamWriter writer) throws XMLStreamException {
-        List<String> styles = styleProvider.getThreeWtNodeStyle(threeWtNode, edge.getSide());
-        styles.add(StyleProvider.WINDING_CLASS);
+    private void draw3WtWinding(ThreeWtEdge edge, ThreeWtNode threeWtNode, XMLStreamWriter writer, StyleProvider styles) throws XMLStreamException {
+        List<String> windingStyles = styles.getThreeWtNodeStyle(threeWtNode, edge.getSide());
+        windingStyles.add(StyleProvider.WINDING_CLASS);
         double radius = svgParameters.getTransformerCircleRadius();
         Point circleCenter = edge.getPoints().get(1).atDistance(radius, threeWtNode.getPosition());
         writer.writeEmptyElement(CIRCLE_ELEMENT_NAME);
-        addStylesIfAny(writer, styles);
+        addStylesIfAny(writer, windingStyles);
         writer.writeAttribute("cx", getFormattedValue(circleCenter.getX()));
         writer.writeAttribute("cy", getFormattedValue(circleCenter.getY()));
         writer.writeAttribute(CIRCLE_RADIUS_ATTRIBUTE, getFormattedValue(svgParameters.getTransformerCircleRadius()));
     }
 
-    private void drawLoopEdgeInfo(XMLStreamWriter writer, BranchEdge edge, BranchEdge.Side side, List<EdgeInfo> edgeInfos) throws XMLStreamException {
-        drawEdgeInfo(writer, edgeInfos, edge.getPoints(side).get(1), edge.getEdgeStartAngle(side));
+    private void drawLoopEdgeInfo(XMLStreamWriter writer, StyleProvider styles, LabelProvider labels, BranchEdge edge, BranchEdge.Side side,
+                                  List<EdgeInfo> edgeInfos) throws XMLStreamException {
+        drawEdgeInfo(writer, styles, labels, edgeInfos, edge.getPoints(side).get(1), edge.getEdgeStartAngle(side));
     }
 
-    private void drawBranchEdgeInfo(Graph graph, XMLStreamWriter writer, BranchEdge edge, BranchEdge.Side side, List<EdgeInfo> edgeInfos) throws XMLStreamException {
+    private void drawBranchEdgeInfo(Graph graph, XMLStreamWriter writer, StyleProvider styles, LabelProvider labels, BranchEdge edge, BranchEdge.Side side,
+                                    List<EdgeInfo> edgeInfos) throws XMLStreamException {
         VoltageLevelNode vlNode = graph.getVoltageLevelNode(edge, side);
         BusNode busNode = graph.getBusGraphNode(edge, side);
-        drawEdgeInfo(writer, edgeInfos, getArrowCenter(vlNode, busNode, edge.getPoints(side)), edge.getEdgeEndAngle(side));
+        drawEdgeInfo(writer, styles, labels, edgeInfos, getArrowCenter(vlNode, busNode, edge.getPoints(side)), edge.getEdgeEndAngle(side));
     }
 
-    private void drawThreeWtEdgeInfo(Graph graph, XMLStreamWriter writer, ThreeWtEdge edge, List<EdgeInfo> edgeInfos) throws XMLStreamException {
+    private void drawThreeWtEdgeInfo(Graph graph, XMLStreamWriter writer, StyleProvider styles, LabelProvider labels, ThreeWtEdge edge,
+                                     List<EdgeInfo> edgeInfos) throws XMLStreamException {
         VoltageLevelNode vlNode = graph.getVoltageLevelNode(edge);
         BusNode busNode = graph.getBusGraphNode(edge);
-        drawEdgeInfo(writer, edgeInfos, getArrowCenter(vlNode, busNode, edge.getPoints()), edge.getEdgeAngle());
+        drawEdgeInfo(writer, styles, labels, edgeInfos, getArrowCenter(vlNode, busNode, edge.getPoints()), edge.getEdgeAngle());
     }
 
-    private void drawEdgeInfo(XMLStreamWriter writer, List<EdgeInfo> edgeInfos, Point infoCenter, double edgeAngle) throws XMLStreamException {
+    private void drawEdgeInfo(XMLStreamWriter writer, StyleProvider styles, LabelProvider labels, List<EdgeInfo> edgeInfos,
+                              Point infoCenter, double edgeAngle) throws XMLStreamException {
         writer.writeStartElement(GROUP_ELEMENT_NAME);
         writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.EDGE_INFOS_CLASS);
         writer.writeAttribute(TRANSFORM_ATTRIBUTE, getTranslateString(infoCenter));
         for (EdgeInfo info : edgeInfos) {
             writer.writeStartElement(GROUP_ELEMENT_NAME);
-            addStylesIfAny(writer, styleProvider.getEdgeInfoStyles(info));
-            drawInAndOutArrows(writer, edgeAngle);
+            addStylesIfAny(writer, styles.getEdgeInfoStyles(info));
+            drawInAndOutArrows(writer, labels, edgeAngle);
             Optional<String> externalLabel = info.getExternalLabel();
             if (externalLabel.isPresent()) {
                 drawLabel(writer, externalLabel.get(), edgeAngle, true);
@@ -302,18 +547,18 @@ public class SvgWriter {
         writer.writeEndElement();
     }
 
-    private void drawInAndOutArrows(XMLStreamWriter writer, double edgeAngle) throws XMLStreamException {
+    private void drawInAndOutArrows(XMLStreamWriter writer, LabelProvider labels, double edgeAngle) throws XMLStreamException {
         double rotationAngle = edgeAngle + (edgeAngle > Math.PI / 2 ? -3 * Math.PI / 2 : Math.PI / 2);
         writer.writeStartElement(GROUP_ELEMENT_NAME);
         writer.writeAttribute(TRANSFORM_ATTRIBUTE, getRotateString(rotationAngle));
         writer.writeEmptyElement(PATH_ELEMENT_NAME);
         writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.ARROW_IN_CLASS);
         writer.writeAttribute(TRANSFORM_ATTRIBUTE, getScaleString(svgParameters.getArrowHeight()));
-        writer.writeAttribute(PATH_D_ATTRIBUTE, labelProvider.getArrowPathDIn());
+        writer.writeAttribute(PATH_D_ATTRIBUTE, labels.getArrowPathDIn());
         writer.writeEmptyElement(PATH_ELEMENT_NAME);
         writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.ARROW_OUT_CLASS);
         writer.writeAttribute(TRANSFORM_ATTRIBUTE, getScaleString(svgParameters.getArrowHeight()));
-        writer.writeAttribute(PATH_D_ATTRIBUTE, labelProvider.getArrowPathDOut());
+        writer.writeAttribute(PATH_D_ATTRIBUTE, labels.getArrowPathDOut());
         writer.writeEndElement();
     }
 
@@ -353,11 +598,11 @@ public class SvgWriter {
     }
 
     private String getRotateString(double angleRad) {
-        return "rotate(" + getFormattedValue(Math.toDegrees(angleRad)) + ")";
+        return appendNumber(new StringBuilder("rotate("), Math.toDegrees(angleRad), 2).append(')').toString();
     }
 
     private String getScaleString(double scale) {
-        return "scale(" + getFormattedValue(scale) + ")";
+        return appendNumber(new StringBuilder("scale("), scale, 2).append(')').toString();
     }
 
     private Point getArrowCenter(VoltageLevelNode vlNode, BusNode busNode, List<Point> line) {
@@ -383,24 +628,21 @@ public class SvgWriter {
     }
 
     private void drawVoltageLevelNodes(Graph graph, XMLStreamWriter writer) throws XMLStreamException {
-        writer.writeStartElement(GROUP_ELEMENT_NAME);
-        writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.VOLTAGE_LEVEL_NODES_CLASS);
-        for (VoltageLevelNode vlNode : graph.getVoltageLevelNodesStream().filter(VoltageLevelNode::isVisible).collect(Collectors.toList())) {
-            writer.writeStartElement(GROUP_ELEMENT_NAME);
-            writer.writeAttribute(TRANSFORM_ATTRIBUTE, getTranslateString(vlNode));
-            drawNode(graph, writer, vlNode);
-            writer.writeEndElement();
-        }
-        writer.writeEndElement();
+        List<VoltageLevelNode> visibleVlNodes = graph.getVoltageLevelNodesStream().filter(VoltageLevelNode::isVisible).collect(Collectors.toList());
+        drawGroup(writer, graph, StyleProvider.VOLTAGE_LEVEL_NODES_CLASS, visibleVlNodes,
+            (styles, labels, vlNode) -> resolveNode(styles, vlNode),
+            (w, styles, labels, vlNode) -> {
+                w.writeStartElement(GROUP_ELEMENT_NAME);
+                w.writeAttribute(TRANSFORM_ATTRIBUTE, getTranslateString(vlNode));
+                drawNode(graph, w, styles, vlNode);
+                w.writeEndElement();
+            });
     }
 
     private void drawTextNodes(Graph graph, XMLStreamWriter writer) throws XMLStreamException {
-        writer.writeStartElement(GROUP_ELEMENT_NAME);
-        writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.TEXT_NODES_CLASS);
-        for (Pair<VoltageLevelNode, TextNode> nodePair : graph.getVoltageLevelTextPairs()) {
-            writeTextNode(writer, nodePair.getSecond(), labelProvider.getVoltageLevelDescription(nodePair.getFirst()));
-        }
-        writer.writeEndElement();
+        drawGroup(writer, graph, StyleProvider.TEXT_NODES_CLASS, new ArrayList<>(graph.getVoltageLevelTextPairs()),
+            (styles, labels, nodePair) -> labels.getVoltageLevelDescription(nodePair.getFirst()),
+            (w, styles, labels, nodePair) -> writeTextNode(w, nodePair.getSecond(), labels.getVoltageLevelDescription(nodePair.getFirst())));
     }
 
     private String getTranslateString(Node node) {
@@ -412,7 +654,9 @@ public class SvgWriter {
     }
 
     private String getTranslateString(double x, double y) {
-        return "translate(" + getFormattedValue(x) + "," + getFormattedValue(y) + ")";
+        StringBuilder sb = new StringBuilder(32).append("translate(");
+        appendNumber(sb, x, 2).append(',');
+        return appendNumber(sb, y, 2).append(')').toString();
     }
 
     private void writeTextNode(XMLStreamWriter writer, TextNode textNode, List<String> content) throws XMLStreamException {
@@ -442,16 +686,24 @@ public class SvgWriter {
         writer.writeEndElement();
     }
 
-    private void drawNode(Graph graph, XMLStreamWriter writer, VoltageLevelNode vlNode) throws XMLStreamException {
+    private static void resolveNode(StyleProvider styles, VoltageLevelNode vlNode) {
+        styles.getNodeStyleClasses(vlNode);
+        if (vlNode.hasUnknownBusNode()) {
+            styles.getNodeStyleClasses(BusNode.UNKNOWN);
+        }
+        vlNode.getBusNodes().forEach(styles::getNodeStyleClasses);
+    }
+
+    private void drawNode(Graph graph, XMLStreamWriter writer, StyleProvider styles, VoltageLevelNode vlNode) throws XMLStreamException {
         writer.writeAttribute(ID_ATTRIBUTE, getPrefixedId(vlNode.getDiagramId()));
-        addStylesIfAny(writer, styleProvider.getNodeStyleClasses(vlNode));
+        addStylesIfAny(writer, styles.getNodeStyleClasses(vlNode));
         insertName(writer, vlNode::getName);
 
         double nodeOuterRadius = getVoltageLevelCircleRadius(vlNode);
 
         if (vlNode.hasUnknownBusNode()) {
             writer.writeEmptyElement(CIRCLE_ELEMENT_NAME);
-            addStylesIfAny(writer, styleProvider.getNodeStyleClasses(BusNode.UNKNOWN));
+            addStylesIfAny(writer, styles.getNodeStyleClasses(BusNode.UNKNOWN));
             writer.writeAttribute(CIRCLE_RADIUS_ATTRIBUTE, getFormattedValue(nodeOuterRadius + svgParameters.getUnknownBusNodeExtraRadius()));
         }
 
@@ -469,7 +721,7 @@ public class SvgWriter {
             }
             writer.writeAttribute(ID_ATTRIBUTE, getPrefixedId(busNode.getDiagramId()));
 
-            List<String> nodeStyleClasses = styleProvider.getNodeStyleClasses(busNode);
+            List<String> nodeStyleClasses = styles.getNodeStyleClasses(busNode);
             nodeStyleClasses.add(StyleProvider.BUSNODE_CLASS);
             addStylesIfAny(writer, nodeStyleClasses);
 
@@ -479,13 +731,14 @@ public class SvgWriter {
 
     private String getFragmentedAnnulusPath(double innerRadius, double outerRadius, List<Edge> traversingBusEdges, Graph graph, VoltageLevelNode vlNode, BusNode busNode) {
         if (traversingBusEdges.isEmpty()) {
-            String path = "M" + getCirclePath(outerRadius, 0, Math.PI, true)
-                    + " M" + getCirclePath(outerRadius, Math.PI, 0, true);
+            StringBuilder path = new StringBuilder(160).append('M');
+            appendCirclePath(path, outerRadius, 0, Math.PI, true).append(" M");
+            appendCirclePath(path, outerRadius, Math.PI, 0, true);
             if (innerRadius > 0) { // going the other way around (counter-clockwise) to subtract the inner circle
-                path += "M" + getCirclePath(innerRadius, 0, Math.PI, false)
-                        + "M" + getCirclePath(innerRadius, Math.PI, 0, false);
+                appendCirclePath(path.append('M'), innerRadius, 0, Math.PI, false).append('M');
+                appendCirclePath(path, innerRadius, Math.PI, 0, false);
             }
-            return path;
+            return path.toString();
         }
 
         List<Double> angles = createSortedTraversingAnglesList(traversingBusEdges, graph, vlNode, busNode);
@@ -504,9 +757,8 @@ public class SvgWriter {
             double innerArcStart = angles.get(i + 1) - deltaAngle1;
             double innerArcEnd = angles.get(i) + deltaAngle1;
             if (outerArcEnd > outerArcStart && innerArcEnd < innerArcStart) {
-                path.append("M").append(getCirclePath(outerRadius, outerArcStart, outerArcEnd, true))
-                        .append(" L").append(getCirclePath(innerRadius, innerArcStart, innerArcEnd, false))
-                        .append(" Z ");
+                appendCirclePath(path.append('M'), outerRadius, outerArcStart, outerArcEnd, true).append(" L");
+                appendCirclePath(path, innerRadius, innerArcStart, innerArcEnd, false).append(" Z ");
             }
         }
 
@@ -551,15 +803,21 @@ public class SvgWriter {
         return 0;
     }
 
-    private String getCirclePath(double radius, double angleStart, double angleEnd, boolean clockWise) {
+    private StringBuilder appendCirclePath(StringBuilder sb, double radius, double angleStart, double angleEnd, boolean clockWise) {
         double arcAngle = angleEnd - angleStart;
         double xStart = radius * Math.cos(angleStart);
         double yStart = radius * Math.sin(angleStart);
         double xEnd = radius * Math.cos(angleEnd);
         double yEnd = radius * Math.sin(angleEnd);
         int largeArc = Math.abs(arcAngle) > Math.PI ? 1 : 0;
-        return String.format(Locale.US, "%.3f,%.3f A%.3f,%.3f %.3f %d %d %.3f,%.3f",
-                xStart, yStart, radius, radius, Math.toDegrees(arcAngle), largeArc, clockWise ? 1 : 0, xEnd, yEnd);
+        appendNumber(sb, xStart, 3).append(',');
+        appendNumber(sb, yStart, 3).append(" A");
+        appendNumber(sb, radius, 3).append(',');
+        appendNumber(sb, radius, 3).append(' ');
+        appendNumber(sb, Math.toDegrees(arcAngle), 3).append(' ')
+                .append(largeArc).append(' ').append(clockWise ? 1 : 0).append(' ');
+        appendNumber(sb, xEnd, 3).append(',');
+        return appendNumber(sb, yEnd, 3);
     }
 
     private void insertName(XMLStreamWriter writer, Supplier<Optional<String>> getName) throws XMLStreamException {
@@ -574,29 +832,24 @@ public class SvgWriter {
     }
 
     private void drawTextEdges(Graph graph, XMLStreamWriter writer) throws XMLStreamException {
-        writer.writeStartElement(GROUP_ELEMENT_NAME);
-        writer.writeAttribute(CLASS_ATTRIBUTE, StyleProvider.TEXT_EDGES_CLASS);
-        for (TextEdge edge : graph.getTextEdges()) {
-            drawTextEdge(writer, edge, graph.getVoltageLevelNode(edge));
-        }
-        writer.writeEndElement();
+        drawGroup(writer, graph, StyleProvider.TEXT_EDGES_CLASS, graph.getTextEdges(),
+            (styles, labels, edge) -> styles.getEdgeStyleClasses(edge),
+            (w, styles, labels, edge) -> drawTextEdge(w, styles, edge, graph.getVoltageLevelNode(edge)));
     }
 
-    private void drawTextEdge(XMLStreamWriter writer, TextEdge edge, VoltageLevelNode vlNode) throws XMLStreamException {
+    private void drawTextEdge(XMLStreamWriter writer, StyleProvider styles, TextEdge edge, VoltageLevelNode vlNode) throws XMLStreamException {
         writer.writeEmptyElement(POLYLINE_ELEMENT_NAME);
         writer.writeAttribute(ID_ATTRIBUTE, getPrefixedId(edge.getDiagramId()));
-        addStylesIfAny(writer, styleProvider.getEdgeStyleClasses(edge));
+        addStylesIfAny(writer, styles.getEdgeStyleClasses(edge));
         List<Point> points = edge.getPoints();
         shiftEdgeStart(points, vlNode);
-        String lineFormatted1 = points.stream()
-                .map(point -> getFormattedValue(point.getX()) + "," + getFormattedValue(point.getY()))
-                .collect(Collectors.joining(" "));
-        writer.writeAttribute(POINTS_ATTRIBUTE, lineFormatted1);
+        writer.writeAttribute(POINTS_ATTRIBUTE, getPolylinePointsString(points));
     }
 
     private void addStylesIfAny(XMLStreamWriter writer, List<String> edgeStyleClasses) throws XMLStreamException {
         if (!edgeStyleClasses.isEmpty()) {
-            writer.writeAttribute(CLASS_ATTRIBUTE, String.join(" ", edgeStyleClasses));
+            Collection<String> styleClasses = svgParameters.isMinifiedSvg() ? new LinkedHashSet<>(edgeStyleClasses) : edgeStyleClasses;
+            writer.writeAttribute(CLASS_ATTRIBUTE, String.join(" ", styleClasses));
         }
     }
 
@@ -649,9 +902,11 @@ public class SvgWriter {
 
     private String getViewBoxValue(Graph graph) {
         Padding diagramPadding = svgParameters.getDiagramPadding();
-        return getFormattedValue(graph.getMinX() - diagramPadding.getLeft()) + " "
-                + getFormattedValue(graph.getMinY() - diagramPadding.getTop()) + " "
-                + getFormattedValue(getDiagramWidth(graph)) + " " + getFormattedValue(getDiagramHeight(graph));
+        StringBuilder sb = new StringBuilder(48);
+        appendNumber(sb, graph.getMinX() - diagramPadding.getLeft(), 2).append(' ');
+        appendNumber(sb, graph.getMinY() - diagramPadding.getTop(), 2).append(' ');
+        appendNumber(sb, getDiagramWidth(graph), 2).append(' ');
+        return appendNumber(sb, getDiagramHeight(graph), 2).toString();
     }
 
     private void addStyle(XMLStreamWriter writer) throws XMLStreamException {
@@ -703,8 +958,14 @@ public class SvgWriter {
         }
     }
 
-    private static String getFormattedValue(double value) {
-        return String.format(Locale.US, "%.2f", value);
+    private String getFormattedValue(double value) {
+        return appendNumber(new StringBuilder(16), value, 2).toString();
+    }
+
+    private StringBuilder appendNumber(StringBuilder sb, double value, int decimals) {
+        return svgParameters.isMinifiedSvg()
+                ? FixedDecimalFormatter.appendShortest(sb, value, decimals)
+                : FixedDecimalFormatter.append(sb, value, decimals);
     }
 
     protected double getVoltageLevelCircleRadius(VoltageLevelNode vlNode) {
@@ -11,7 +11,8 @@ import com.powsybl.iidm.network.Network;
 import com.powsybl.iidm.network.VoltageLevel;
 import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
 import com.powsybl.nad.build.iidm.VoltageLevelFilter;
-import com.powsybl.nad.layout.BasicForceLayout;
+import com.powsybl.nad.layout.BasicForceLayoutFactory;
+import com.powsybl.nad.layout.LayoutFactory;
 import com.powsybl.nad.layout.LayoutParameters;
 import com.powsybl.nad.model.Graph;
 import com.powsybl.nad.svg.LabelProvider;
@@ -38,6 +39,8 @@ public abstract class AbstractTest {
 
     private LayoutParameters layoutParameters;
 
+    private LayoutFactory layoutFactory = new BasicForceLayoutFactory();
+
     protected abstract StyleProvider getStyleProvider(Network network);
 
     protected abstract LabelProvider getLabelProvider(Network network);
@@ -48,7 +51,7 @@ public abstract class AbstractTest {
 
     protected String generateSvgString(Network network, Predicate<VoltageLevel> voltageLevelFilter, String refFilename) {
         Graph graph = new NetworkGraphBuilder(network, voltageLevelFilter).buildGraph();
-        new BasicForceLayout().run(graph, getLayoutParameters());
+        getLayoutFactory().create().run(graph, getLayoutParameters());
         StringWriter writer = new StringWriter();
         new SvgWriter(getSvgParameters(), getStyleProvider(network), getLabelProvider(network)).writeSvg(graph, writer);
         String svgString = writer.toString();
@@ -108,6 +111,14 @@ public abstract class AbstractTest {
         return svgParameters;
     }
 
+    protected LayoutFactory getLayoutFactory() {
+        return layoutFactory;
+    }
+
+    protected void setLayoutFactory(LayoutFactory layoutFactory) {
+        this.layoutFactory = layoutFactory;
+    }
+
     protected void setLayoutParameters(LayoutParameters layoutParameters) {
         this.layoutParameters = layoutParameters;
     }
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad;
+
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManagerConstants;
+import com.powsybl.nad.build.iidm.IntIdProvider;
+import com.powsybl.nad.build.iidm.VoltageLevelFilter;
+import com.powsybl.nad.layout.BasicForceLayoutFactory;
+import com.powsybl.nad.layout.Layout;
+import com.powsybl.nad.layout.LayoutFactory;
+import com.powsybl.nad.layout.LayoutParameters;
+import com.powsybl.nad.svg.SvgParameters;
+import com.powsybl.nad.svg.iidm.DefaultLabelProvider;
+import com.powsybl.nad.svg.iidm.NominalVoltageStyleProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class DiagramCacheTest {
+
+    private static class CountingLayoutFactory implements LayoutFactory {
+        private final LayoutFactory layoutFactory = new BasicForceLayoutFactory();
+        private int nbLayouts;
+
+        @Override
+        public Layout create() {
+            nbLayouts++;
+            return layoutFactory.create();
+        }
+    }
+
+    @Test
+    void test() {
+        Network network = IeeeCdfNetworkFactory.create118();
+        DiagramCache cache = new DiagramCache(10, Duration.ofMinutes(10));
+        CountingLayoutFactory layoutFactory = new CountingLayoutFactory();
+        LayoutParameters layoutParameters = new LayoutParameters();
+
+        String svg = draw(network, "VL12", cache, layoutParameters, layoutFactory);
+        assertEquals(1, layoutFactory.nbLayouts);
+        assertEquals(1, cache.size());
+
+        // Same area and parameters: the cached positions give the same diagram
+        assertEquals(svg, draw(network, "VL12", cache, new LayoutParameters(layoutParameters), layoutFactory));
+        assertEquals(1, layoutFactory.nbLayouts);
+        assertEquals(svg, draw(network, "VL12", null, layoutParameters, layoutFactory));
+        assertEquals(2, layoutFactory.nbLayouts);
+
+        // Another area, other layout parameters or another variant are not in the cache
+        draw(network, "VL13", cache, layoutParameters, layoutFactory);
+        assertEquals(3, layoutFactory.nbLayouts);
+        draw(network, "VL12", cache, new LayoutParameters().setSpringRepulsionFactorForceLayout(0.2), layoutFactory);
+        assertEquals(4, layoutFactory.nbLayouts);
+        network.getVariantManager().cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, "variant");
+        network.getVariantManager().setWorkingVariant("variant");
+        draw(network, "VL12", cache, layoutParameters, layoutFactory);
+        assertEquals(5, layoutFactory.nbLayouts);
+        assertEquals(4, cache.size());
+
+        cache.invalidate(IeeeCdfNetworkFactory.create14());
+        assertEquals(4, cache.size());
+        cache.invalidate(network);
+        assertEquals(0, cache.size());
+        draw(network, "VL12", cache, layoutParameters, layoutFactory);
+        assertEquals(6, layoutFactory.nbLayouts);
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testMaximumSize() {
+        Network network = IeeeCdfNetworkFactory.create14();
+        DiagramCache cache = new DiagramCache(2, Duration.ofMinutes(10));
+        CountingLayoutFactory layoutFactory = new CountingLayoutFactory();
+        LayoutParameters layoutParameters = new LayoutParameters();
+        for (String voltageLevelId : List.of("VL1", "VL2", "VL3", "VL1")) {
+            draw(network, voltageLevelId, cache, layoutParameters, layoutFactory);
+        }
+        assertEquals(4, layoutFactory.nbLayouts);
+        assertEquals(2, cache.size());
+    }
+
+    private static String draw(Network network, String voltageLevelId, DiagramCache cache, LayoutParameters layoutParameters,
+                               LayoutFactory layoutFactory) {
+        SvgParameters svgParameters = new SvgParameters();
+        StringWriter writer = new StringWriter();
+        new NetworkAreaDiagram(network, VoltageLevelFilter.createVoltageLevelDepthFilter(network, voltageLevelId, 1))
+                .setDiagramCache(cache)
+                .draw(writer, svgParameters, layoutParameters, new NominalVoltageStyleProvider(network),
+                        new DefaultLabelProvider(network, svgParameters), layoutFactory, new IntIdProvider());
+        return writer.toString();
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad;
+
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.nad.build.iidm.IntIdProvider;
+import com.powsybl.nad.layout.BasicFixedLayoutFactory;
+import com.powsybl.nad.layout.BasicForceLayoutFactory;
+import com.powsybl.nad.layout.LayoutParameters;
+import com.powsybl.nad.svg.SvgParameters;
+import com.powsybl.nad.svg.iidm.DefaultLabelProvider;
+import com.powsybl.nad.svg.iidm.NominalVoltageStyleProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class DiagramMetricsListenerTest {
+
+    private static class RecordingListener implements DiagramMetricsListener {
+        private int nbNodes;
+        private int nbEdges;
+        private int nbSteps = -1;
+        private double energy = -1;
+        private long nbBytes;
+        private int nbEvents;
+
+        @Override
+        public void onGraphBuilt(int nbNodes, int nbEdges, long durationNanos) {
+            this.nbNodes = nbNodes;
+            this.nbEdges = nbEdges;
+            assertTrue(durationNanos > 0);
+            nbEvents++;
+        }
+
+        @Override
+        public void onLayoutDone(int nbSteps, double energy, long durationNanos) {
+            this.nbSteps = nbSteps;
+            this.energy = energy;
+            assertTrue(durationNanos > 0);
+            nbEvents++;
+        }
+
+        @Override
+        public void onSvgWritten(long nbBytes, long durationNanos) {
+            this.nbBytes = nbBytes;
+            assertTrue(durationNanos > 0);
+            nbEvents++;
+        }
+    }
+
+    @Test
+    void testWriter() {
+        Network network = IeeeCdfNetworkFactory.create30();
+        SvgParameters svgParameters = new SvgParameters();
+        RecordingListener listener = new RecordingListener();
+        StringWriter writer = new StringWriter();
+        new NetworkAreaDiagram(network).draw(writer, svgParameters, new LayoutParameters(),
+                new NominalVoltageStyleProvider(network), new DefaultLabelProvider(network, svgParameters),
+                new BasicForceLayoutFactory(), new IntIdProvider(), listener);
+
+        assertEquals(3, listener.nbEvents);
+        assertEquals(30, listener.nbNodes);
+        assertEquals(41, listener.nbEdges);
+        assertTrue(listener.nbSteps > 0);
+        assertTrue(listener.energy >= 0);
+        assertEquals(writer.toString().getBytes(StandardCharsets.UTF_8).length, listener.nbBytes);
+    }
+
+    @Test
+    void testFile(@TempDir Path tempDir) throws IOException {
+        Network network = IeeeCdfNetworkFactory.create14();
+        SvgParameters svgParameters = new SvgParameters();
+        RecordingListener listener = new RecordingListener();
+        Path svgFile = tempDir.resolve("diagram.svg");
+        new NetworkAreaDiagram(network).draw(svgFile, svgParameters, new LayoutParameters(),
+                new NominalVoltageStyleProvider(network), new DefaultLabelProvider(network, svgParameters),
+                new BasicFixedLayoutFactory(Collections.emptyMap()), new IntIdProvider(), listener);
+
+        assertEquals(3, listener.nbEvents);
+        assertEquals(14, listener.nbNodes);
+        assertEquals(0, listener.nbSteps);
+        assertEquals(Files.size(svgFile), listener.nbBytes);
+    }
+
+    @Test
+    void testSvgzFile(@TempDir Path tempDir) throws IOException {
+        Network network = IeeeCdfNetworkFactory.create14();
+        SvgParameters svgParameters = new SvgParameters().setSvgzOutput(true);
+        RecordingListener listener = new RecordingListener();
+        new NetworkAreaDiagram(network).draw(tempDir.resolve("diagram"), svgParameters, new LayoutParameters(),
+                new NominalVoltageStyleProvider(network), new DefaultLabelProvider(network, svgParameters),
+                new BasicFixedLayoutFactory(Collections.emptyMap()), new IntIdProvider(), listener);
+
+        // Size of the compressed file actually written
+        assertEquals(Files.size(tempDir.resolve("diagram.svgz")), listener.nbBytes);
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManager;
+import com.powsybl.iidm.network.VariantManagerConstants;
+import com.powsybl.nad.svg.SvgParameters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class NetworkAreaDiagramBatchTest {
+
+    private static class RecordingListener implements NetworkAreaDiagramBatch.ProgressListener {
+        private final Set<String> drawn = ConcurrentHashMap.newKeySet();
+        private final Set<String> failed = ConcurrentHashMap.newKeySet();
+        private final Set<Integer> nbDone = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onAreaDrawn(NetworkAreaDiagramBatch.Area area, Path svgFile, int nbDone, int nbAreas) {
+            assertEquals(4, nbAreas);
+            drawn.add(area.getName());
+            this.nbDone.add(nbDone);
+        }
+
+        @Override
+        public void onAreaFailed(NetworkAreaDiagramBatch.Area area, Exception exception, int nbDone, int nbAreas) {
+            assertEquals(4, nbAreas);
+            failed.add(area.getName());
+            this.nbDone.add(nbDone);
+        }
+    }
+
+    @Test
+    void test(@TempDir Path tempDir) throws IOException {
+        Network network = IeeeCdfNetworkFactory.create14();
+        List<NetworkAreaDiagramBatch.Area> areas = List.of(
+                new NetworkAreaDiagramBatch.Area("area1", "VL1", 1),
+                new NetworkAreaDiagramBatch.Area("area2", List.of("VL6", "VL9"), 1),
+                new NetworkAreaDiagramBatch.Area("unknown", "VL15", 1),
+                new NetworkAreaDiagramBatch.Area("area3", "VL3", 0));
+        SvgParameters svgParameters = new SvgParameters().setSvgWidthAndHeightAdded(true);
+        RecordingListener listener = new RecordingListener();
+
+        NetworkAreaDiagramBatch.Result result = new NetworkAreaDiagramBatch(network)
+                .setSvgParameters(svgParameters)
+                .setParallelism(2)
+                .setProgressListener(listener)
+                .draw(areas, tempDir);
+
+        // The failure of an area does not prevent the other areas from being drawn
+        assertFalse(result.isOk());
+        assertEquals(List.of("area1", "area2", "area3"), List.copyOf(result.getSvgFiles().keySet()));
+        assertEquals(Set.of("unknown"), result.getFailures().keySet());
+        assertTrue(result.getFailures().get("unknown") instanceof PowsyblException);
+        assertEquals(Set.of("area1", "area2", "area3"), listener.drawn);
+        assertEquals(Set.of("unknown"), listener.failed);
+        assertEquals(Set.of(1, 2, 3, 4), listener.nbDone);
+
+        // Same diagrams as the ones drawn one by one
+        Map<String, Path> svgFiles = result.getSvgFiles();
+        assertEquals(tempDir.resolve("area2.svg"), svgFiles.get("area2"));
+        Path expectedSvgFile = tempDir.resolve("expected.svg");
+        new NetworkAreaDiagram(network, List.of("VL6", "VL9"), 1).draw(expectedSvgFile, svgParameters);
+        assertEquals(Files.readString(expectedSvgFile), Files.readString(svgFiles.get("area2")));
+    }
+
+    @Test
+    void testExecutor(@TempDir Path tempDir) {
+        Network network = IeeeCdfNetworkFactory.create14();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            NetworkAreaDiagramBatch batch = new NetworkAreaDiagramBatch(network).setExecutor(executor);
+            assertTrue(batch.draw(List.of(new NetworkAreaDiagramBatch.Area("area1", "VL1", 1)), tempDir).isOk());
+            // The given executor is not shut down
+            assertFalse(executor.isShutdown());
+            assertTrue(batch.draw(List.of(new NetworkAreaDiagramBatch.Area("area2", "VL2", 1)), tempDir).isOk());
+            assertTrue(Files.exists(tempDir.resolve("area2.svg")));
+        } finally {
+            executor.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new NetworkAreaDiagramBatch(network).setParallelism(0));
+    }
+
+    @Test
+    void testMultiThreadVariantAccess(@TempDir Path tempDir) throws IOException {
+        Network network = IeeeCdfNetworkFactory.create118();
+        VariantManager variantManager = network.getVariantManager();
+        variantManager.cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, List.of("v1", "v2"));
+        variantManager.allowVariantMultiThreadAccess(true);
+        try {
+            variantManager.setWorkingVariant("v2");
+            network.getLineStream().forEach(l -> l.getTerminal1().setP(1234.5));
+
+            List<NetworkAreaDiagramBatch.Area> areas = Stream.of("VL1", "VL12", "VL49", "VL59", "VL69", "VL80", "VL92", "VL100")
+                    .map(vlId -> new NetworkAreaDiagramBatch.Area(vlId, vlId, 2))
+                    .collect(Collectors.toList());
+            NetworkAreaDiagramBatch.Result result = new NetworkAreaDiagramBatch(network).setParallelism(4).draw(areas, tempDir);
+            assertTrue(result.isOk());
+
+            // Same diagrams as the ones drawn one by one on the working variant
+            for (NetworkAreaDiagramBatch.Area area : areas) {
+                Path expectedSvgFile = tempDir.resolve("expected.svg");
+                new NetworkAreaDiagram(network, area.getVoltageLevelIds(), area.getDepth()).draw(expectedSvgFile);
+                assertEquals(Files.readString(expectedSvgFile), Files.readString(result.getSvgFiles().get(area.getName())));
+            }
+            assertTrue(Files.readString(result.getSvgFiles().get("VL1")).contains("1235"));
+        } finally {
+            variantManager.allowVariantMultiThreadAccess(false);
+        }
+    }
+
+    @Test
+    void testDuplicateAreaNames(@TempDir Path tempDir) {
+        NetworkAreaDiagramBatch batch = new NetworkAreaDiagramBatch(IeeeCdfNetworkFactory.create14());
+        List<NetworkAreaDiagramBatch.Area> areas = List.of(
+                new NetworkAreaDiagramBatch.Area("area1", "VL1", 1),
+                new NetworkAreaDiagramBatch.Area("area2", "VL2", 1),
+                new NetworkAreaDiagramBatch.Area("AREA1", "VL3", 1));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> batch.draw(areas, tempDir));
+        assertEquals("Several areas named 'AREA1', ignoring case", e.getMessage());
+    }
+
+    @Test
+    void testInvalidAreaNames() {
+        for (String name : List.of("", ".", "..", "../area", "dir/area", "dir\\area", "/tmp/area", "C:area")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new NetworkAreaDiagramBatch.Area(name, "VL1", 1));
+            assertEquals("Invalid area name '" + name + "', which should be a file name", e.getMessage());
+        }
+        assertEquals("area.1", new NetworkAreaDiagramBatch.Area("area.1", "VL1", 1).getName());
+    }
+}
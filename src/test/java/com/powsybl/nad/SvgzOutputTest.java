@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad;
+
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.nad.svg.SvgParameters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class SvgzOutputTest {
+
+    @Test
+    void test(@TempDir Path tempDir) throws IOException {
+        Network network = IeeeCdfNetworkFactory.create14();
+        NetworkAreaDiagram nad = new NetworkAreaDiagram(network);
+        SvgParameters svgParameters = new SvgParameters().setSvgWidthAndHeightAdded(true);
+        nad.draw(tempDir.resolve("diagram.svg"), svgParameters);
+        String svg = Files.readString(tempDir.resolve("diagram.svg"));
+
+        // Compression selected by extension
+        nad.draw(tempDir.resolve("diagram1.svgz"), svgParameters);
+        assertEquals(svg, readSvgz(tempDir.resolve("diagram1.svgz")));
+
+        // Compression selected by parameter, svgz extension used
+        SvgParameters svgzParameters = new SvgParameters(svgParameters).setSvgzOutput(true)
+                .setCompressionLevel(9)
+                .setCompressionBufferSize(512);
+        nad.draw(tempDir.resolve("diagram2.svg"), svgzParameters);
+        nad.draw(tempDir.resolve("diagram3"), svgzParameters);
+        assertFalse(Files.exists(tempDir.resolve("diagram2.svg")));
+        assertEquals(svg, readSvgz(tempDir.resolve("diagram2.svgz")));
+        assertEquals(svg, readSvgz(tempDir.resolve("diagram3.svgz")));
+        assertTrue(Files.size(tempDir.resolve("diagram2.svgz")) < Files.size(tempDir.resolve("diagram.svg")) / 4);
+
+        nad.draw(tempDir.resolve("diagram4.svgz"), new SvgParameters(svgParameters).setCompressionLevel(0).setDirectXmlWriting(true));
+        assertEquals(svg, readSvgz(tempDir.resolve("diagram4.svgz")));
+        assertTrue(Files.size(tempDir.resolve("diagram4.svgz")) > Files.size(tempDir.resolve("diagram.svg")));
+    }
+
+    private static String readSvgz(Path svgzFile) throws IOException {
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(svgzFile))) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
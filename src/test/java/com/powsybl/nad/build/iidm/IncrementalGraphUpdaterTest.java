@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.build.iidm;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.SwitchKind;
+import com.powsybl.iidm.network.test.EurostagTutorialExample1Factory;
+import com.powsybl.iidm.network.test.FourSubstationsNodeBreakerFactory;
+import com.powsybl.nad.model.BusNode;
+import com.powsybl.nad.model.Graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class IncrementalGraphUpdaterTest {
+
+    @Test
+    void testSwitchesUpdate() {
+        Network network = FourSubstationsNodeBreakerFactory.create();
+        IdProvider idProvider = new IntIdProvider();
+        Graph graph = new NetworkGraphBuilder(network, VoltageLevelFilter.NO_FILTER, idProvider).buildGraph();
+        try (IncrementalGraphUpdater updater = new IncrementalGraphUpdater(network, graph, idProvider)) {
+            // Values changes do not need any update
+            network.getLine("LINE_S2S3").getTerminal1().setP(100);
+            assertTrue(updater.getChangedVoltageLevels().isEmpty());
+            assertFalse(updater.update());
+
+            // Opening all the switches of a voltage level removes its buses
+            network.getVoltageLevel("S1VL2").getNodeBreakerView().getSwitches().forEach(s -> s.setOpen(true));
+            assertEquals(Set.of("S1VL2"), updater.getChangedVoltageLevels());
+            assertTrue(updater.update());
+            assertTrue(updater.getChangedVoltageLevels().isEmpty());
+            assertEquals(describe(new NetworkGraphBuilder(network).buildGraph()), describe(graph));
+
+            // Closing them back creates new bus nodes
+            network.getVoltageLevel("S1VL2").getNodeBreakerView().getSwitches().forEach(s -> s.setOpen(false));
+            assertTrue(updater.update());
+            assertEquals(describe(new NetworkGraphBuilder(network).buildGraph()), describe(graph));
+
+            // Opening one breaker of each voltage level
+            network.getSwitchStream().filter(s -> s.getKind() == SwitchKind.BREAKER)
+                    .collect(Collectors.groupingBy(s -> s.getVoltageLevel().getId()))
+                    .values().forEach(switches -> switches.get(0).setOpen(true));
+            updater.update();
+            assertEquals(describe(new NetworkGraphBuilder(network).buildGraph()), describe(graph));
+        }
+    }
+
+    @Test
+    void testTerminalsUpdate() {
+        Network network = EurostagTutorialExample1Factory.create();
+        IdProvider idProvider = new IntIdProvider();
+        Graph graph = new NetworkGraphBuilder(network, VoltageLevelFilter.NO_FILTER, idProvider).buildGraph();
+        IncrementalGraphUpdater updater = new IncrementalGraphUpdater(network, graph, idProvider);
+        network.getLine("NHV1_NHV2_1").getTerminal1().disconnect();
+        network.getLoad("LOAD").getTerminal().disconnect();
+        assertEquals(Set.of("VLHV1", "VLHV2", "VLLOAD"), updater.getChangedVoltageLevels());
+        updater.update();
+        assertEquals(describe(new NetworkGraphBuilder(network).buildGraph()), describe(graph));
+
+        // Adding a line cannot be handled incrementally
+        network.newLine().setId("NEW_LINE").setVoltageLevel1("VLHV1").setBus1("NHV1")
+                .setVoltageLevel2("VLHV2").setBus2("NHV2")
+                .setR(1).setX(1).setG1(0).setB1(0).setG2(0).setB2(0).add();
+        assertTrue(updater.isRebuildNeeded());
+        assertThrows(PowsyblException.class, updater::update);
+
+        // Once closed, the updater does not follow the network changes anymore
+        updater.close();
+        network.getLine("NHV1_NHV2_2").getTerminal1().disconnect();
+        assertTrue(updater.getChangedVoltageLevels().isEmpty());
+    }
+
+    /**
+     * Describes the graph structure with equipment ids, which do not depend on the order of creation of the nodes.
+     */
+    private static List<String> describe(Graph graph) {
+        return Stream.concat(
+                graph.getVoltageLevelNodesStream().map(vlNode -> vlNode.getEquipmentId() + " " + vlNode.hasUnknownBusNode() + " "
+                        + vlNode.getBusNodeStream().map(BusNode::getEquipmentId).sorted().collect(Collectors.toList())),
+                graph.getEdgesStream().map(e -> e.getEquipmentId() + " " + graph.getNode1(e).getEquipmentId() + " " + graph.getNode2(e).getEquipmentId()
+                        + " " + graph.getBusGraphNode1(e).getEquipmentId() + " " + graph.getBusGraphNode2(e).getEquipmentId()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.build.iidm;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Identifiable;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.iidm.network.test.HvdcTestNetwork;
+import com.powsybl.iidm.network.test.ThreeWindingsTransformerNetworkFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class VoltageLevelAdjacencyTest {
+
+    @Test
+    void testNeighbours() {
+        VoltageLevelAdjacency adjacency = new VoltageLevelAdjacency(IeeeCdfNetworkFactory.create14());
+        // Parallel branches give only one neighbour
+        assertEquals(List.of("VL2", "VL5"), adjacency.getNeighbours("VL1"));
+        assertEquals(List.of("VL1", "VL3", "VL4", "VL5"), adjacency.getNeighbours("VL2"));
+        assertEquals(List.of("VL4", "VL8", "VL9"), adjacency.getNeighbours("VL7"));
+
+        VoltageLevelAdjacency twtAdjacency = new VoltageLevelAdjacency(ThreeWindingsTransformerNetworkFactory.create());
+        assertEquals(Set.of("VL_11", "VL_33"), Set.copyOf(twtAdjacency.getNeighbours("VL_132")));
+
+        VoltageLevelAdjacency hvdcAdjacency = new VoltageLevelAdjacency(HvdcTestNetwork.createVsc());
+        assertEquals(List.of("VL2"), hvdcAdjacency.getNeighbours("VL1"));
+
+        PowsyblException e = assertThrows(PowsyblException.class, () -> adjacency.getNeighbours("VL15"));
+        assertEquals("Unknown voltage level id 'VL15'", e.getMessage());
+    }
+
+    @Test
+    void testDepthFilters() {
+        Network network = IeeeCdfNetworkFactory.create14();
+        VoltageLevelAdjacency adjacency = new VoltageLevelAdjacency(network);
+        assertEquals(Set.of("VL1"), ids(adjacency.getVoltageLevels(List.of("VL1"), 0)));
+        assertEquals(Set.of("VL1", "VL2", "VL5"), ids(adjacency.getVoltageLevels(List.of("VL1"), 1)));
+        assertEquals(Set.of("VL1", "VL2", "VL3", "VL4", "VL5", "VL6"), ids(adjacency.getVoltageLevels(List.of("VL1"), 2)));
+        assertEquals(Set.of(), adjacency.getVoltageLevels(List.of("VL1"), -1));
+        assertEquals(network.getVoltageLevelCount(), adjacency.getVoltageLevels(List.of("VL1"), 100).size());
+        assertEquals(Set.of("VL1", "VL2", "VL5", "VL7", "VL4", "VL8", "VL9"), ids(adjacency.getVoltageLevels(List.of("VL1", "VL7"), 1)));
+
+        VoltageLevelFilter filter = VoltageLevelFilter.createVoltageLevelDepthFilter(adjacency, "VL6", 1);
+        assertTrue(filter.test(network.getVoltageLevel("VL13")));
+        assertFalse(filter.test(network.getVoltageLevel("VL1")));
+
+        PowsyblException e = assertThrows(PowsyblException.class, () -> VoltageLevelFilter.createVoltageLevelsDepthFilter(adjacency, List.of("VL1", "VL15"), 1));
+        assertEquals("Unknown voltage level id 'VL15'", e.getMessage());
+        e = assertThrows(PowsyblException.class, () -> VoltageLevelFilter.createVoltageLevelsFilter(network, List.of("VL15")));
+        assertEquals("Unknown voltage level id 'VL15'", e.getMessage());
+    }
+
+    @Test
+    void testSameFiltersAsNetworkTraversal() {
+        checkSameFiltersAsNetworkTraversal(IeeeCdfNetworkFactory.create14());
+        checkSameFiltersAsNetworkTraversal(ThreeWindingsTransformerNetworkFactory.create());
+        checkSameFiltersAsNetworkTraversal(HvdcTestNetwork.createVsc());
+    }
+
+    private static void checkSameFiltersAsNetworkTraversal(Network network) {
+        // Filters created from a shared index or by traversing the network are the same
+        VoltageLevelAdjacency adjacency = new VoltageLevelAdjacency(network);
+        for (VoltageLevel startVl : network.getVoltageLevels()) {
+            for (int depth = 0; depth <= 2; depth++) {
+                VoltageLevelFilter filter = VoltageLevelFilter.createVoltageLevelDepthFilter(adjacency, startVl.getId(), depth);
+                VoltageLevelFilter networkFilter = VoltageLevelFilter.createVoltageLevelDepthFilter(network, startVl.getId(), depth);
+                for (VoltageLevel vl : network.getVoltageLevels()) {
+                    assertEquals(networkFilter.test(vl), filter.test(vl), startVl.getId() + " " + depth + " " + vl.getId());
+                }
+            }
+        }
+    }
+
+    private static Set<String> ids(Set<VoltageLevel> voltageLevels) {
+        return voltageLevels.stream().map(Identifiable::getId).collect(Collectors.toSet());
+    }
+}
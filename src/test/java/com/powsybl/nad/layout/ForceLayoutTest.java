@@ -6,8 +6,19 @@
  */
 package com.powsybl.nad.layout;
 
+import com.powsybl.forcelayout.ForceLayout;
+import com.powsybl.forcelayout.StepControl;
+import com.powsybl.forcelayout.StoppingCriterion;
+import com.powsybl.forcelayout.Vector;
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
 import com.powsybl.iidm.network.*;
 import com.powsybl.nad.AbstractTest;
+import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
+import com.powsybl.nad.model.Edge;
+import com.powsybl.nad.model.Graph;
+import com.powsybl.nad.model.Node;
+import com.powsybl.nad.model.Point;
+import com.powsybl.nad.model.VoltageLevelNode;
 import com.powsybl.nad.svg.LabelProvider;
 import com.powsybl.nad.svg.StyleProvider;
 import com.powsybl.nad.svg.SvgParameters;
@@ -16,7 +27,13 @@ import com.powsybl.nad.svg.iidm.NominalVoltageStyleProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Luma Zamarreno <zamarrenolm at aia.es>
@@ -55,4 +72,177 @@ class ForceLayoutTest extends AbstractTest {
                 toString("/diamond-spring-repulsion-factor-0.2.svg"),
                 generateSvgString(LayoutNetworkFactory.createDiamond(), "/diamond-spring-repulsion-factor-0.2.svg"));
     }
+
+    @Test
+    void testDiamondBarnesHut() {
+        getLayoutParameters().setBarnesHutThetaForceLayout(0.8);
+        assertEquals(
+                toString("/diamond-barnes-hut.svg"),
+                generateSvgString(LayoutNetworkFactory.createDiamond(), "/diamond-barnes-hut.svg"));
+    }
+
+    @Test
+    void testDiamondSpringRepulsionCutoff() {
+        getLayoutParameters().setSpringRepulsionFactorForceLayout(0.2).setSpringRepulsionCutoffForceLayout(200);
+        assertEquals(
+                toString("/diamond-spring-repulsion-cutoff.svg"),
+                generateSvgString(LayoutNetworkFactory.createDiamond(), "/diamond-spring-repulsion-cutoff.svg"));
+    }
+
+    @Test
+    void testDiamondSpringRepulsionLargeCutoff() {
+        // No spring is farther than the cutoff: same result as without cutoff
+        getLayoutParameters().setSpringRepulsionFactorForceLayout(0.2).setSpringRepulsionCutoffForceLayout(1e6);
+        assertEquals(
+                toString("/diamond-spring-repulsion-factor-0.2.svg"),
+                generateSvgString(LayoutNetworkFactory.createDiamond(), "/diamond-spring-repulsion-factor-0.2.svg"));
+    }
+
+    @Test
+    void testDiamondParallel() {
+        getLayoutParameters().setParallelForceLayout(true);
+        assertEquals(
+                toString("/diamond-spring-repulsion-factor-0.0.svg"),
+                generateSvgString(LayoutNetworkFactory.createDiamond(), "/diamond-spring-repulsion-factor-0.0.svg"));
+    }
+
+    @Test
+    void testParallelReproducible() {
+        Network network = IeeeCdfNetworkFactory.create118();
+        getLayoutParameters().setSpringRepulsionFactorForceLayout(0.2).setParallelForceLayout(true);
+        ForkJoinPool pool1 = new ForkJoinPool(1);
+        ForkJoinPool pool4 = new ForkJoinPool(4);
+        try {
+            assertEquals(getPositions(network, pool1), getPositions(network, pool4));
+        } finally {
+            pool1.shutdown();
+            pool4.shutdown();
+        }
+    }
+
+    @Test
+    void testStoppingCriteria() {
+        Network network = IeeeCdfNetworkFactory.create30();
+
+        BasicForceLayout layout = runLayout(network);
+        assertEquals(StoppingCriterion.POINTS_ENERGY, layout.getStoppingCriterion());
+        int nbStepsDefault = layout.getNbSteps();
+
+        getLayoutParameters().setTotalEnergyThresholdForceLayout(1e9);
+        layout = runLayout(network);
+        assertEquals(StoppingCriterion.TOTAL_ENERGY, layout.getStoppingCriterion());
+        assertEquals(1, layout.getNbSteps());
+
+        getLayoutParameters().setTotalEnergyThresholdForceLayout(0).setEnergyDecreaseForceLayout(10, 0.5);
+        layout = runLayout(network);
+        assertEquals(StoppingCriterion.ENERGY_DECREASE, layout.getStoppingCriterion());
+        assertTrue(layout.getNbSteps() >= 10 && layout.getNbSteps() < nbStepsDefault);
+    }
+
+    @Test
+    void testTimeBudget() {
+        org.jgrapht.Graph<Node, Edge> jgraphtGraph = new NetworkGraphBuilder(IeeeCdfNetworkFactory.create30()).buildGraph().getJgraphtGraph(false);
+        // Clock moving forward by one millisecond each time it is read: once at the start, then once per step
+        long[] nanoTime = {0};
+        ForceLayout<Node, Edge> forceLayout = new ForceLayout<>(jgraphtGraph)
+                .setTimeBudget(5)
+                .setNanoClock(() -> nanoTime[0] += 1_000_000);
+        forceLayout.execute();
+        assertEquals(StoppingCriterion.TIME_BUDGET, forceLayout.getStoppingCriterion());
+        assertEquals(6, forceLayout.getNbSteps());
+    }
+
+    @Test
+    void testStepControl() {
+        Network network = IeeeCdfNetworkFactory.create118();
+        int nbStepsConstant = runLayout(network).getNbSteps();
+
+        getLayoutParameters().setStepControlForceLayout(StepControl.COOLING);
+        BasicForceLayout layout = runLayout(network);
+        assertEquals(StoppingCriterion.POINTS_ENERGY, layout.getStoppingCriterion());
+        assertTrue(layout.getNbSteps() < nbStepsConstant);
+
+        getLayoutParameters().setStepControlForceLayout(StepControl.ADAPTIVE);
+        layout = runLayout(network);
+        assertEquals(StoppingCriterion.POINTS_ENERGY, layout.getStoppingCriterion());
+        assertTrue(layout.getNbSteps() < nbStepsConstant);
+    }
+
+    @Test
+    void testAdaptiveStepMaxSpeed() {
+        org.jgrapht.Graph<Node, Edge> jgraphtGraph = new NetworkGraphBuilder(IeeeCdfNetworkFactory.create118()).buildGraph().getJgraphtGraph(false);
+        double maxSpeed = 5;
+        // Each step moves the points by their velocity, the time step being 1: comparing the positions after n and
+        // n + 1 steps gives the speeds at step n + 1
+        Map<Node, Vector> positions = getPositions(jgraphtGraph, maxSpeed, 0);
+        for (int nbSteps = 1; nbSteps <= 30; nbSteps++) {
+            Map<Node, Vector> nextPositions = getPositions(jgraphtGraph, maxSpeed, nbSteps);
+            for (Map.Entry<Node, Vector> e : nextPositions.entrySet()) {
+                double speed = e.getValue().subtract(positions.get(e.getKey())).magnitude();
+                assertTrue(speed <= maxSpeed * (1 + 1e-9), "Speed " + speed + " at step " + nbSteps);
+            }
+            positions = nextPositions;
+        }
+    }
+
+    private static Map<Node, Vector> getPositions(org.jgrapht.Graph<Node, Edge> jgraphtGraph, double maxSpeed, int nbSteps) {
+        ForceLayout<Node, Edge> forceLayout = new ForceLayout<>(jgraphtGraph)
+                .setStepControl(StepControl.ADAPTIVE)
+                .setMaxSpeed(maxSpeed)
+                .setMaxSteps(nbSteps);
+        forceLayout.execute();
+        return jgraphtGraph.vertexSet().stream().collect(Collectors.toMap(v -> v, forceLayout::getStablePosition));
+    }
+
+    @Test
+    void testDiamondAdaptiveStep() {
+        getLayoutParameters().setStepControlForceLayout(StepControl.ADAPTIVE);
+        assertEquals(
+                toString("/diamond-adaptive-step.svg"),
+                generateSvgString(LayoutNetworkFactory.createDiamond(), "/diamond-adaptive-step.svg"));
+    }
+
+    @Test
+    void testMostNodesFixed() {
+        Network network = IeeeCdfNetworkFactory.create118();
+        getLayoutParameters().setSpringRepulsionFactorForceLayout(0.2);
+        Graph graph = new NetworkGraphBuilder(network).buildGraph();
+        BasicForceLayout layout = new BasicForceLayout();
+        layout.run(graph, getLayoutParameters());
+        int nbStepsAllMovable = layout.getNbSteps();
+
+        // Fixing all the voltage level nodes but the first ten, as done when updating an existing diagram
+        Map<String, Point> fixedPositions = graph.getVoltageLevelNodesStream()
+                .skip(10)
+                .collect(Collectors.toMap(VoltageLevelNode::getEquipmentId, node -> new Point(node.getX(), node.getY())));
+        Graph updatedGraph = new NetworkGraphBuilder(network).buildGraph();
+        BasicForceLayout updatedLayout = new BasicForceLayout();
+        updatedLayout.setFixedNodePositions(fixedPositions);
+        updatedLayout.run(updatedGraph, getLayoutParameters());
+
+        assertEquals(StoppingCriterion.POINTS_ENERGY, updatedLayout.getStoppingCriterion());
+        assertTrue(updatedLayout.getNbSteps() < nbStepsAllMovable);
+        updatedGraph.getVoltageLevelNodesStream()
+                .filter(node -> fixedPositions.containsKey(node.getEquipmentId()))
+                .forEach(node -> {
+                    Point expected = fixedPositions.get(node.getEquipmentId());
+                    assertEquals(expected.getX(), node.getX(), 1e-6);
+                    assertEquals(expected.getY(), node.getY(), 1e-6);
+                });
+    }
+
+    private BasicForceLayout runLayout(Network network) {
+        Graph graph = new NetworkGraphBuilder(network).buildGraph();
+        BasicForceLayout layout = new BasicForceLayout();
+        layout.run(graph, getLayoutParameters());
+        return layout;
+    }
+
+    private List<String> getPositions(Network network, ForkJoinPool forkJoinPool) {
+        Graph graph = new NetworkGraphBuilder(network).buildGraph();
+        new BasicForceLayout(forkJoinPool).run(graph, getLayoutParameters());
+        return graph.getNodesStream()
+                .map(node -> node.getDiagramId() + " " + node.getX() + " " + node.getY())
+                .collect(Collectors.toList());
+    }
 }
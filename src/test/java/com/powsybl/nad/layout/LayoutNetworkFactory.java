@@ -68,6 +68,28 @@ public final class LayoutNetworkFactory {
         return network;
     }
 
+    /**
+     * Creates a square grid of the given size, each node of the grid being a voltage level linked to its right and
+     * bottom neighbours.
+     */
+    public static Network createGrid(int size) {
+        Network network = com.powsybl.iidm.network.NetworkFactory.findDefault().createNetwork("grid", "manual");
+        network.setName("grid");
+        Bus[][] buses = new Bus[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                buses[i][j] = createBus(network, "S" + i + "_" + j, 400);
+                if (i > 0) {
+                    createLine(buses[i - 1][j], buses[i][j]);
+                }
+                if (j > 0) {
+                    createLine(buses[i][j - 1], buses[i][j]);
+                }
+            }
+        }
+        return network;
+    }
+
     private static Bus createBus(Network network, String substationId, double nominalVoltage) {
         Substation substation = network.newSubstation().setId(substationId).add();
         return createBus(substation, nominalVoltage);
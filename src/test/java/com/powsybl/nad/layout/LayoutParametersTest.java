@@ -6,9 +6,10 @@
  */
 package com.powsybl.nad.layout;
 
+import com.powsybl.forcelayout.StepControl;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author Florian Dupuy <florian.dupuy at rte-france.com>
@@ -20,13 +21,36 @@ class LayoutParametersTest {
         LayoutParameters layoutParameters0 = new LayoutParameters()
                 .setTextNodesForceLayout(true)
                 .setSpringRepulsionFactorForceLayout(1.0)
+                .setBarnesHutThetaForceLayout(0.8)
+                .setSpringRepulsionCutoffForceLayout(300)
+                .setParallelForceLayout(true)
+                .setTotalEnergyThresholdForceLayout(0.5)
+                .setEnergyDecreaseForceLayout(20, 0.01)
+                .setTimeBudgetForceLayout(1000)
+                .setStepControlForceLayout(StepControl.ADAPTIVE)
+                .setCoolingFactorForceLayout(0.95)
                 .setTextNodeFixedShift(50., 50.);
 
         LayoutParameters layoutParameters1 = new LayoutParameters(layoutParameters0);
 
         assertEquals(layoutParameters0.isTextNodesForceLayout(), layoutParameters1.isTextNodesForceLayout());
         assertEquals(layoutParameters0.getSpringRepulsionFactorForceLayout(), layoutParameters1.getSpringRepulsionFactorForceLayout());
+        assertEquals(layoutParameters0.getBarnesHutThetaForceLayout(), layoutParameters1.getBarnesHutThetaForceLayout());
+        assertEquals(layoutParameters0.getSpringRepulsionCutoffForceLayout(), layoutParameters1.getSpringRepulsionCutoffForceLayout());
+        assertEquals(layoutParameters0.isParallelForceLayout(), layoutParameters1.isParallelForceLayout());
+        assertEquals(layoutParameters0.getTotalEnergyThresholdForceLayout(), layoutParameters1.getTotalEnergyThresholdForceLayout());
+        assertEquals(layoutParameters0.getEnergyDecreaseWindowForceLayout(), layoutParameters1.getEnergyDecreaseWindowForceLayout());
+        assertEquals(layoutParameters0.getMinEnergyDecreaseForceLayout(), layoutParameters1.getMinEnergyDecreaseForceLayout());
+        assertEquals(layoutParameters0.getTimeBudgetForceLayout(), layoutParameters1.getTimeBudgetForceLayout());
+        assertEquals(layoutParameters0.getStepControlForceLayout(), layoutParameters1.getStepControlForceLayout());
+        assertEquals(layoutParameters0.getCoolingFactorForceLayout(), layoutParameters1.getCoolingFactorForceLayout());
         assertEquals(layoutParameters0.getTextNodeFixedShift().getX(), layoutParameters1.getTextNodeFixedShift().getX());
         assertEquals(layoutParameters0.getTextNodeFixedShift().getY(), layoutParameters1.getTextNodeFixedShift().getY());
+
+        assertEquals(layoutParameters0, layoutParameters1);
+        assertEquals(layoutParameters0.hashCode(), layoutParameters1.hashCode());
+        assertNotEquals(layoutParameters0, layoutParameters1.setTextNodeFixedShift(50., 40.));
+        assertNotEquals(layoutParameters0, new LayoutParameters(layoutParameters0).setCoolingFactorForceLayout(0.9));
+        assertNotEquals(new LayoutParameters(), null);
     }
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.layout;
+
+import com.powsybl.forcelayout.StoppingCriterion;
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.nad.AbstractTest;
+import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
+import com.powsybl.nad.model.Graph;
+import com.powsybl.nad.model.Point;
+import com.powsybl.nad.svg.LabelProvider;
+import com.powsybl.nad.svg.StyleProvider;
+import com.powsybl.nad.svg.SvgParameters;
+import com.powsybl.nad.svg.iidm.DefaultLabelProvider;
+import com.powsybl.nad.svg.iidm.NominalVoltageStyleProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class MultilevelForceLayoutTest extends AbstractTest {
+
+    @BeforeEach
+    public void setup() {
+        setLayoutFactory(new MultilevelForceLayoutFactory());
+        setLayoutParameters(new LayoutParameters());
+        setSvgParameters(new SvgParameters()
+                .setInsertNameDesc(false)
+                .setSvgWidthAndHeightAdded(false));
+    }
+
+    @Override
+    protected StyleProvider getStyleProvider(Network network) {
+        return new NominalVoltageStyleProvider(network);
+    }
+
+    @Override
+    protected LabelProvider getLabelProvider(Network network) {
+        return new DefaultLabelProvider(network, getSvgParameters());
+    }
+
+    @Test
+    void testIEEE30() {
+        Network network = IeeeCdfNetworkFactory.create30();
+        assertEquals(toString("/IEEE_30_bus_multilevel.svg"), generateSvgString(network, "/IEEE_30_bus_multilevel.svg"));
+    }
+
+    @Test
+    void testFixedPositions() {
+        Network network = IeeeCdfNetworkFactory.create118();
+        Graph initialGraph = new NetworkGraphBuilder(network, vl -> vl.getNominalV() >= 138).buildGraph();
+        new BasicForceLayout().run(initialGraph, getLayoutParameters());
+        Map<String, Point> fixedPositions = initialGraph.getNodePositions();
+
+        MultilevelForceLayout layout = new MultilevelForceLayout();
+        layout.setFixedNodePositions(fixedPositions);
+        Graph graph = new NetworkGraphBuilder(network).buildGraph();
+        layout.run(graph, getLayoutParameters());
+
+        Map<String, Point> positions = graph.getNodePositions();
+        fixedPositions.forEach((id, expected) -> {
+            assertEquals(expected.getX(), positions.get(id).getX());
+            assertEquals(expected.getY(), positions.get(id).getY());
+        });
+    }
+
+    @Test
+    void testFewerStepsOnGrid() {
+        Network network = LayoutNetworkFactory.createGrid(15);
+        BasicForceLayout basicLayout = new BasicForceLayout();
+        basicLayout.run(new NetworkGraphBuilder(network).buildGraph(), getLayoutParameters());
+        MultilevelForceLayout multilevelLayout = new MultilevelForceLayout();
+        multilevelLayout.run(new NetworkGraphBuilder(network).buildGraph(), getLayoutParameters());
+
+        // Steps of all levels counted: the refinement of the finest level starts from a nearly converged layout
+        assertEquals(StoppingCriterion.POINTS_ENERGY, basicLayout.getStoppingCriterion());
+        assertEquals(StoppingCriterion.POINTS_ENERGY, multilevelLayout.getStoppingCriterion());
+        assertTrue(multilevelLayout.getNbSteps() < basicLayout.getNbSteps() / 2 + 1,
+                multilevelLayout.getNbSteps() + " steps vs " + basicLayout.getNbSteps());
+    }
+}
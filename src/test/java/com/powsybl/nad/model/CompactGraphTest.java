@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.model;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.test.ThreeWindingsTransformerNetworkFactory;
+import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
+import com.powsybl.nad.svg.NetworkTestFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class CompactGraphTest {
+
+    @Test
+    void testParallelTransformers() {
+        checkCompactGraph(new NetworkGraphBuilder(NetworkTestFactory.createTwoVoltageLevelsTwoTransformers()).buildGraph());
+    }
+
+    @Test
+    void testThreeWindingsTransformer() {
+        checkCompactGraph(new NetworkGraphBuilder(ThreeWindingsTransformerNetworkFactory.create()).buildGraph());
+    }
+
+    @Test
+    void testCache() {
+        Network network = NetworkTestFactory.createTwoVoltageLevels();
+        Graph graph = new NetworkGraphBuilder(network).buildGraph();
+        CompactGraph compactGraph = graph.getCompactGraph();
+        assertSame(compactGraph, graph.getCompactGraph());
+
+        compactGraph.setPosition(0, 10, 20);
+        assertEquals(10, compactGraph.getNode(0).getX());
+        assertEquals(20, compactGraph.getY(0));
+
+        graph.addNode(new VoltageLevelNode("newVl", "newVl", "newVl", false, true));
+        assertNotSame(compactGraph, graph.getCompactGraph());
+        assertEquals(compactGraph.getNodeCount() + 1, graph.getCompactGraph().getNodeCount());
+    }
+
+    @Test
+    void testCoordinatesRefresh() {
+        Graph graph = new NetworkGraphBuilder(NetworkTestFactory.createTwoVoltageLevels()).buildGraph();
+        CompactGraph compactGraph = graph.getCompactGraph();
+        compactGraph.getNode(0).setPosition(30, 40);
+        assertSame(compactGraph, graph.getCompactGraph());
+        assertEquals(30, compactGraph.getX(0));
+        assertEquals(40, compactGraph.getY(0));
+    }
+
+    private static void checkCompactGraph(Graph graph) {
+        CompactGraph compactGraph = graph.getCompactGraph();
+        org.jgrapht.Graph<Node, Edge> jgraphtGraph = graph.getJgraphtGraph(false);
+
+        assertEquals(new ArrayList<>(jgraphtGraph.vertexSet()), nodes(compactGraph));
+        assertEquals(new ArrayList<>(jgraphtGraph.edgeSet()), edges(compactGraph));
+        for (int e = 0; e < compactGraph.getEdgeCount(); e++) {
+            Edge edge = compactGraph.getEdge(e);
+            assertSame(graph.getNode1(edge), compactGraph.getNode(compactGraph.getEdgeNode1(e)));
+            assertSame(graph.getNode2(edge), compactGraph.getNode(compactGraph.getEdgeNode2(e)));
+            assertSame(graph.getBusGraphNode1(edge), compactGraph.getBusNode(compactGraph.getEdgeBusNode1(e)));
+            assertSame(graph.getBusGraphNode2(edge), compactGraph.getBusNode(compactGraph.getEdgeBusNode2(e)));
+        }
+
+        for (int i = 0; i < compactGraph.getNodeCount(); i++) {
+            List<Edge> adjacentEdges = new ArrayList<>();
+            for (int k = compactGraph.getAdjacencyStart(i); k < compactGraph.getAdjacencyEnd(i); k++) {
+                adjacentEdges.add(compactGraph.getEdge(compactGraph.getAdjacentEdge(k)));
+            }
+            assertEquals(graph.getEdgeStream(compactGraph.getNode(i)).collect(Collectors.toList()), adjacentEdges);
+        }
+
+        for (int b = 0; b < compactGraph.getBusNodeCount(); b++) {
+            Node busNode = compactGraph.getBusNode(b);
+            if (busNode instanceof BusNode) {
+                List<Edge> adjacentEdges = new ArrayList<>();
+                for (int k = compactGraph.getBusAdjacencyStart(b); k < compactGraph.getBusAdjacencyEnd(b); k++) {
+                    adjacentEdges.add(compactGraph.getEdge(compactGraph.getBusAdjacentEdge(k)));
+                }
+                assertEquals(new ArrayList<>(graph.getBusEdges((BusNode) busNode)), adjacentEdges);
+            }
+        }
+
+        List<List<Edge>> groups = new ArrayList<>();
+        for (int g = 0; g < compactGraph.getEdgeGroupCount(); g++) {
+            List<Edge> group = new ArrayList<>();
+            for (int k = compactGraph.getEdgeGroupStart(g); k < compactGraph.getEdgeGroupEnd(g); k++) {
+                group.add(compactGraph.getEdge(compactGraph.getEdgeGroupEdge(k)));
+            }
+            groups.add(group);
+        }
+        assertEquals(compactGraph.getEdgeCount(), groups.stream().mapToInt(List::size).sum());
+        assertEquals(graph.getMultiBranchEdgesStream().collect(Collectors.toList()),
+                groups.stream().filter(group -> group.size() > 1).collect(Collectors.toList()));
+
+        for (int g = 0; g < compactGraph.getEdgeGroupCount(); g++) {
+            List<Edge> branchEdges = new ArrayList<>();
+            for (int k = compactGraph.getBranchEdgeGroupStart(g); k < compactGraph.getBranchEdgeGroupEnd(g); k++) {
+                branchEdges.add(compactGraph.getEdge(compactGraph.getBranchEdgeGroupEdge(k)));
+            }
+            assertEquals(groups.get(g).stream().filter(BranchEdge.class::isInstance).collect(Collectors.toList()), branchEdges);
+        }
+    }
+
+    private static List<Node> nodes(CompactGraph compactGraph) {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < compactGraph.getNodeCount(); i++) {
+            nodes.add(compactGraph.getNode(i));
+        }
+        return nodes;
+    }
+
+    private static List<Edge> edges(CompactGraph compactGraph) {
+        List<Edge> edges = new ArrayList<>();
+        for (int e = 0; e < compactGraph.getEdgeCount(); e++) {
+            edges.add(compactGraph.getEdge(e));
+        }
+        return edges;
+    }
+}
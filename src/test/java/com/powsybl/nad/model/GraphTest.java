@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.model;
+
+import com.powsybl.iidm.network.test.ThreeWindingsTransformerNetworkFactory;
+import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
+import org.jgrapht.graph.WeightedPseudograph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class GraphTest {
+
+    @Test
+    void testJgraphtGraphWithTextNodes() {
+        Graph graph = new NetworkGraphBuilder(ThreeWindingsTransformerNetworkFactory.create()).buildGraph();
+        org.jgrapht.Graph<Node, Edge> graphWithTextNodes = graph.getJgraphtGraph(true);
+        assertSame(graphWithTextNodes, graph.getJgraphtGraph(true));
+
+        // Same content and order as a copy of the voltage level graph followed by the text nodes and edges
+        org.jgrapht.Graph<Node, Edge> voltageLevelGraph = graph.getJgraphtGraph(false);
+        org.jgrapht.Graph<Node, Edge> expected = new WeightedPseudograph<>(Edge.class);
+        voltageLevelGraph.vertexSet().forEach(expected::addVertex);
+        voltageLevelGraph.edgeSet().forEach(e -> expected.addEdge(voltageLevelGraph.getEdgeSource(e), voltageLevelGraph.getEdgeTarget(e), e));
+        graph.getVoltageLevelTextPairs().forEach(nodePair -> expected.addVertex(nodePair.getSecond()));
+        graph.getTextEdgesMap().forEach((edge, nodePair) -> expected.addEdge(nodePair.getFirst(), nodePair.getSecond(), edge));
+
+        assertEquals(new ArrayList<>(expected.vertexSet()), new ArrayList<>(graphWithTextNodes.vertexSet()));
+        assertEquals(new ArrayList<>(expected.edgeSet()), new ArrayList<>(graphWithTextNodes.edgeSet()));
+        for (Node node : expected.vertexSet()) {
+            assertEquals(new ArrayList<>(expected.edgesOf(node)), new ArrayList<>(graphWithTextNodes.edgesOf(node)));
+        }
+        for (Edge edge : expected.edgeSet()) {
+            assertSame(expected.getEdgeSource(edge), graphWithTextNodes.getEdgeSource(edge));
+            assertSame(expected.getEdgeTarget(edge), graphWithTextNodes.getEdgeTarget(edge));
+            assertEquals(1, graphWithTextNodes.getEdgeWeight(edge));
+        }
+
+        // The view follows the changes of the graph
+        VoltageLevelNode vlNode = new VoltageLevelNode("newVl", "newVl", "newVl", false);
+        graph.addNode(vlNode);
+        graph.addTextNode(vlNode);
+        assertEquals(expected.vertexSet().size() + 2, graphWithTextNodes.vertexSet().size());
+        assertTrue(graphWithTextNodes.containsVertex(vlNode));
+        assertEquals(1, graphWithTextNodes.edgesOf(vlNode).size());
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class CssCacheTest {
+
+    @Test
+    void test(@TempDir Path tempDir) throws IOException {
+        Path cssFile = tempDir.resolve("test.css");
+        Files.writeString(cssFile, ".a {fill: red}\r\n.b {fill: blue}\r");
+        URL cssUrl = cssFile.toUri().toURL();
+
+        String content = CssCache.getContent(cssUrl);
+        assertEquals(".a {fill: red}\n.b {fill: blue}\n", content);
+        assertSame(content, CssCache.getContent(cssUrl));
+
+        // Content cached: not read again until the cache is cleared
+        Files.writeString(cssFile, ".c {fill: green}");
+        assertSame(content, CssCache.getContent(cssUrl));
+        CssCache.clear();
+        assertEquals(".c {fill: green}", CssCache.getContent(cssUrl));
+
+        URL missingCssUrl = tempDir.resolve("missing.css").toUri().toURL();
+        assertThrows(UncheckedIOException.class, () -> CssCache.getContent(missingCssUrl));
+    }
+}
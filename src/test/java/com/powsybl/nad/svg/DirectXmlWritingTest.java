@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import com.powsybl.commons.xml.XmlUtil;
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.test.ThreeWindingsTransformerNetworkFactory;
+import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
+import com.powsybl.nad.build.iidm.VoltageLevelFilter;
+import com.powsybl.nad.layout.BasicForceLayoutFactory;
+import com.powsybl.nad.layout.LayoutParameters;
+import com.powsybl.nad.model.Graph;
+import com.powsybl.nad.svg.iidm.DefaultLabelProvider;
+import com.powsybl.nad.svg.iidm.NominalVoltageStyleProvider;
+import com.powsybl.nad.svg.iidm.TopologicalStyleProvider;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class DirectXmlWritingTest {
+
+    @Test
+    void testSameXml() throws XMLStreamException {
+        String text = "a&b<c>d\"e'f\tgéh€😀i";
+
+        ByteArrayOutputStream staxOs = new ByteArrayOutputStream();
+        XMLStreamWriter staxWriter = XmlUtil.initializeWriter(true, "  ", staxOs);
+        writeXml(staxWriter, text);
+
+        ByteArrayOutputStream directOs = new ByteArrayOutputStream();
+        AbstractSvgSink sink = AbstractSvgSink.of(directOs);
+        XMLStreamWriter directWriter = new DirectXmlStreamWriter(sink, "  ", System.lineSeparator());
+        directWriter.writeStartDocument("UTF-8", "1.0");
+        writeXml(directWriter, text);
+
+        assertEquals(staxOs.toString(StandardCharsets.UTF_8), directOs.toString(StandardCharsets.UTF_8));
+        assertEquals(staxOs.size(), sink.getByteCount());
+    }
+
+    private static void writeXml(XMLStreamWriter writer, String text) throws XMLStreamException {
+        writer.writeStartElement("svg");
+        writer.writeNamespace("nv", "http://www.powsybl.org/schema/nad-metadata/1_0");
+        writer.writeDefaultNamespace("http://www.w3.org/2000/svg");
+        writer.writeStartElement("style");
+        writer.writeCData(".a {fill: red}");
+        writer.writeEndElement();
+        writer.writeStartElement("g");
+        writer.writeEndElement();
+        writer.writeStartElement("g");
+        writer.writeAttribute("class", text);
+        writer.writeEmptyElement("circle");
+        writer.writeAttribute("r", "1");
+        writer.writeStartElement("text");
+        writer.writeCharacters(text);
+        writer.writeStartElement("tspan");
+        writer.writeCharacters("");
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeStartElement("g");
+        writer.writeEmptyElement("nv", "busNode", "http://www.powsybl.org/schema/nad-metadata/1_0");
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+    }
+
+    @Test
+    void testSameXmlWithNamespaceUris() throws XMLStreamException {
+        ByteArrayOutputStream staxOs = new ByteArrayOutputStream();
+        XMLStreamWriter staxWriter = XmlUtil.initializeWriter(true, "  ", staxOs);
+        writeXmlWithNamespaceUris(staxWriter);
+
+        ByteArrayOutputStream directOs = new ByteArrayOutputStream();
+        XMLStreamWriter directWriter = new DirectXmlStreamWriter(AbstractSvgSink.of(directOs), "  ", System.lineSeparator());
+        directWriter.writeStartDocument("UTF-8", "1.0");
+        writeXmlWithNamespaceUris(directWriter);
+
+        assertEquals(staxOs.toString(StandardCharsets.UTF_8), directOs.toString(StandardCharsets.UTF_8));
+    }
+
+    private static void writeXmlWithNamespaceUris(XMLStreamWriter writer) throws XMLStreamException {
+        writer.setNamespaceContext(new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                return "ctx".equals(prefix) ? "urn:ctx" : null;
+            }
+
+            @Override
+            public String getPrefix(String namespaceURI) {
+                return "urn:ctx".equals(namespaceURI) ? "ctx" : null;
+            }
+
+            @Override
+            public Iterator<String> getPrefixes(String namespaceURI) {
+                return Collections.emptyIterator();
+            }
+        });
+        writer.setDefaultNamespace("http://www.w3.org/2000/svg");
+        writer.writeStartElement("http://www.w3.org/2000/svg", "svg");
+        writer.writeDefaultNamespace("http://www.w3.org/2000/svg");
+        writer.writeNamespace("nv", "http://www.powsybl.org/schema/nad-metadata/1_0");
+        writer.writeNamespace("ctx", "urn:ctx");
+        writer.writeStartElement("g");
+        writer.setPrefix("x", "urn:x");
+        writer.writeAttribute("http://www.w3.org/2000/svg", "class", "a");
+        writer.writeAttribute("urn:ctx", "b", "1");
+        writer.writeEmptyElement("http://www.powsybl.org/schema/nad-metadata/1_0", "busNode");
+        writer.writeEmptyElement("urn:x", "c");
+        writer.writeEndElement();
+        assertNull(writer.getPrefix("urn:x"));
+        assertEquals("nv", writer.getNamespaceContext().getPrefix("http://www.powsybl.org/schema/nad-metadata/1_0"));
+        assertEquals("urn:ctx", writer.getNamespaceContext().getNamespaceURI("ctx"));
+        writer.writeEndDocument();
+        writer.flush();
+    }
+
+    @Test
+    void testUnboundNamespaceUri() throws XMLStreamException {
+        XMLStreamWriter writer = new DirectXmlStreamWriter(AbstractSvgSink.of(new StringWriter()), "  ", "\n");
+        writer.writeStartElement("svg");
+        XMLStreamException e = assertThrows(XMLStreamException.class, () -> writer.writeAttribute("urn:x", "a", "1"));
+        assertEquals("No prefix bound to namespace URI 'urn:x'", e.getMessage());
+        assertThrows(XMLStreamException.class, () -> writer.writeStartElement("urn:x", "g"));
+        assertThrows(XMLStreamException.class, () -> writer.writeEmptyElement("urn:x", "g"));
+    }
+
+    @Test
+    void testSameSvg() {
+        SvgParameters svgParameters = new SvgParameters().setInsertNameDesc(true).setSvgWidthAndHeightAdded(true);
+        Network network = IeeeCdfNetworkFactory.create118();
+        checkSameSvg(network, svgParameters, new NominalVoltageStyleProvider(network));
+        checkSameSvg(network, svgParameters.setCssLocation(SvgParameters.CssLocation.EXTERNAL_IMPORTED), new TopologicalStyleProvider(network));
+
+        Network threeWtNetwork = ThreeWindingsTransformerNetworkFactory.create();
+        checkSameSvg(threeWtNetwork, new SvgParameters().setCssLocation(SvgParameters.CssLocation.EXTERNAL_NO_IMPORT), new TopologicalStyleProvider(threeWtNetwork));
+        checkSameSvg(threeWtNetwork, new SvgParameters().setMinifiedSvg(true), new NominalVoltageStyleProvider(threeWtNetwork));
+    }
+
+    private static void checkSameSvg(Network network, SvgParameters svgParameters, StyleProvider styleProvider) {
+        SvgParameters directSvgParameters = new SvgParameters(svgParameters).setDirectXmlWriting(true);
+
+        StringWriter staxWriter = new StringWriter();
+        createSvgWriter(network, svgParameters, styleProvider).writeSvg(createGraph(network), staxWriter);
+        String staxSvg = staxWriter.toString();
+
+        StringWriter directWriter = new StringWriter();
+        createSvgWriter(network, directSvgParameters, styleProvider).writeSvg(createGraph(network), directWriter);
+        assertEquals(staxSvg, directWriter.toString());
+
+        byte[] staxBytes = staxSvg.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream directOs = new ByteArrayOutputStream();
+        createSvgWriter(network, directSvgParameters, styleProvider).writeSvg(createGraph(network), directOs);
+        assertArrayEquals(staxBytes, directOs.toByteArray());
+
+        ByteBuffer directBuffer = ByteBuffer.allocate(staxBytes.length);
+        createSvgWriter(network, directSvgParameters, styleProvider).writeSvg(createGraph(network), directBuffer);
+        assertEquals(staxBytes.length, directBuffer.position());
+        assertArrayEquals(staxBytes, directBuffer.array());
+
+        ByteBuffer staxBuffer = ByteBuffer.allocate(staxBytes.length + 10);
+        createSvgWriter(network, svgParameters, styleProvider).writeSvg(createGraph(network), staxBuffer);
+        assertEquals(staxBytes.length, staxBuffer.position());
+        assertArrayEquals(staxBytes, Arrays.copyOf(staxBuffer.array(), staxBuffer.position()));
+    }
+
+    private static SvgWriter createSvgWriter(Network network, SvgParameters svgParameters, StyleProvider styleProvider) {
+        return new SvgWriter(svgParameters, styleProvider, new DefaultLabelProvider(network, svgParameters));
+    }
+
+    private static Graph createGraph(Network network) {
+        Graph graph = new NetworkGraphBuilder(network, VoltageLevelFilter.NO_FILTER).buildGraph();
+        new BasicForceLayoutFactory().create().run(graph, new LayoutParameters());
+        return graph;
+    }
+
+    @Test
+    void testStreamsLeftOpen() {
+        Network network = ThreeWindingsTransformerNetworkFactory.create();
+        for (boolean directXmlWriting : new boolean[] {false, true}) {
+            SvgParameters svgParameters = new SvgParameters().setDirectXmlWriting(directXmlWriting);
+            SvgWriter svgWriter = createSvgWriter(network, svgParameters, new TopologicalStyleProvider(network));
+
+            ClosingRecorderWriter writer = new ClosingRecorderWriter();
+            svgWriter.writeSvg(createGraph(network), writer);
+            assertFalse(writer.closed);
+            assertTrue(writer.toString().trim().endsWith("</svg>"));
+
+            ClosingRecorderOutputStream os = new ClosingRecorderOutputStream();
+            svgWriter.writeSvg(createGraph(network), os);
+            assertFalse(os.closed);
+            assertTrue(os.toString(StandardCharsets.UTF_8).trim().endsWith("</svg>"));
+        }
+    }
+
+    private static final class ClosingRecorderWriter extends StringWriter {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static final class ClosingRecorderOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void testUnpairedSurrogates() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        AbstractSvgSink sink = AbstractSvgSink.of(os);
+        sink.write("a😀b\ude00c\ud83d");
+        sink.flush();
+        assertEquals("a😀b?c?", os.toString(StandardCharsets.UTF_8));
+        assertEquals(os.size(), sink.getByteCount());
+
+        StringWriter writer = new StringWriter();
+        AbstractSvgSink writerSink = AbstractSvgSink.of(writer);
+        writerSink.write("\ud83dxé");
+        writerSink.flush();
+        assertEquals("?xé", writer.toString());
+        assertEquals(4, writerSink.getByteCount());
+    }
+}
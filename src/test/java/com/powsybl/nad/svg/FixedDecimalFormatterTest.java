@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class FixedDecimalFormatterTest {
+
+    @Test
+    void testSpecialValues() {
+        double[] values = {0, -0.0, -0.001, 0.005, 0.125, 1.005, 2.675, -2.675, 0.995, -0.995, 9.995, 123456.785, 0.045,
+            4.35, 1e-5, Double.MIN_VALUE, 1e11, 1e20, -1e20, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY};
+        for (double value : values) {
+            checkFormat(value);
+        }
+        assertEquals("-0.00", FixedDecimalFormatter.format(-0.001, 2));
+        assertEquals("1.01", FixedDecimalFormatter.format(1.005, 2));
+        assertEquals("12.050", FixedDecimalFormatter.format(12.05, 3));
+        assertEquals("x=3.14", FixedDecimalFormatter.append(new StringBuilder("x="), Math.PI, 2).toString());
+    }
+
+    @Test
+    void testRandomValues() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            checkFormat((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12)));
+            // Values with few decimals, close to rounding ties
+            checkFormat(random.nextInt(2000000) / 1000. - 1000);
+        }
+    }
+
+    @Test
+    void testShortest() {
+        assertEquals("12.5", shortest(12.5, 2));
+        assertEquals("3", shortest(3.001, 2));
+        assertEquals("-3", shortest(-2.999, 2));
+        assertEquals("100", shortest(100, 2));
+        assertEquals(".5", shortest(0.5, 2));
+        assertEquals("-.05", shortest(-0.05, 2));
+        assertEquals("0", shortest(0, 2));
+        assertEquals("0", shortest(-0.001, 2));
+        assertEquals("1.005", shortest(1.005, 3));
+        assertEquals("NaN", shortest(Double.NaN, 2));
+        assertEquals("x=3.14 ", FixedDecimalFormatter.appendShortest(new StringBuilder("x="), Math.PI, 2).append(' ').toString());
+    }
+
+    private static String shortest(double value, int decimals) {
+        return FixedDecimalFormatter.appendShortest(new StringBuilder(), value, decimals).toString();
+    }
+
+    private static void checkFormat(double value) {
+        for (int decimals = 0; decimals <= 3; decimals++) {
+            String expected = String.format(Locale.US, "%." + decimals + "f", value);
+            assertEquals(expected, FixedDecimalFormatter.format(value, decimals), "Formatting " + value);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
+import com.powsybl.nad.build.iidm.VoltageLevelFilter;
+import com.powsybl.nad.layout.BasicForceLayoutFactory;
+import com.powsybl.nad.layout.LayoutParameters;
+import com.powsybl.nad.model.Graph;
+import com.powsybl.nad.svg.iidm.DefaultLabelProvider;
+import com.powsybl.nad.svg.iidm.TopologicalStyleProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class MinifiedSvgTest {
+
+    @Test
+    void test() {
+        Network network = IeeeCdfNetworkFactory.create14();
+        SvgParameters svgParameters = new SvgParameters().setSvgWidthAndHeightAdded(true)
+                .setCssLocation(SvgParameters.CssLocation.EXTERNAL_IMPORTED);
+        String svg = writeSvg(network, svgParameters);
+        String minifiedSvg = writeSvg(network, new SvgParameters(svgParameters).setMinifiedSvg(true));
+
+        assertTrue(minifiedSvg.length() < svg.length());
+        assertEquals(1, minifiedSvg.split("\n").length);
+        assertFalse(Pattern.compile("\\d\\.\\d*0[^\\d]").matcher(minifiedSvg.substring(minifiedSvg.indexOf("?>"))).find());
+        assertEquals(count(svg, "<"), count(minifiedSvg, "<"));
+        assertTrue(minifiedSvg.contains("<circle r=\"27.5\" id=\"1\""));
+    }
+
+    private static long count(String svg, String s) {
+        return svg.split(s, -1).length - 1;
+    }
+
+    private static String writeSvg(Network network, SvgParameters svgParameters) {
+        Graph graph = new NetworkGraphBuilder(network, VoltageLevelFilter.NO_FILTER).buildGraph();
+        new BasicForceLayoutFactory().create().run(graph, new LayoutParameters());
+        StringWriter writer = new StringWriter();
+        new SvgWriter(svgParameters, new TopologicalStyleProvider(network), new DefaultLabelProvider(network, svgParameters))
+                .writeSvg(graph, writer);
+        return writer.toString().replace(System.lineSeparator(), "\n").trim();
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2022, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.powsybl.nad.svg;
+
+import com.powsybl.ieeecdf.converter.IeeeCdfNetworkFactory;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.test.ThreeWindingsTransformerNetworkFactory;
+import com.powsybl.nad.build.iidm.NetworkGraphBuilder;
+import com.powsybl.nad.build.iidm.VoltageLevelFilter;
+import com.powsybl.nad.layout.BasicForceLayoutFactory;
+import com.powsybl.nad.layout.LayoutParameters;
+import com.powsybl.nad.model.Graph;
+import com.powsybl.nad.svg.iidm.DefaultLabelProvider;
+import com.powsybl.nad.svg.iidm.NominalVoltageStyleProvider;
+import com.powsybl.nad.svg.iidm.TopologicalStyleProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Florian Dupuy <florian.dupuy at rte-france.com>
+ */
+class ParallelRenderingTest {
+
+    @Test
+    void test() {
+        SvgParameters svgParameters = new SvgParameters().setInsertNameDesc(true).setSvgWidthAndHeightAdded(true);
+        checkSameSvg(IeeeCdfNetworkFactory.create118(), svgParameters, NominalVoltageStyleProvider::new);
+        checkSameSvg(IeeeCdfNetworkFactory.create118(), new SvgParameters(svgParameters).setMinifiedSvg(true), NominalVoltageStyleProvider::new);
+        checkSameSvg(ThreeWindingsTransformerNetworkFactory.create(), svgParameters, NominalVoltageStyleProvider::new);
+    }
+
+    @Test
+    void testTopologicalStyle() {
+        SvgParameters svgParameters = new SvgParameters().setInsertNameDesc(true).setSvgWidthAndHeightAdded(true);
+        checkSameSvg(IeeeCdfNetworkFactory.create118(), svgParameters, TopologicalStyleProvider::new);
+        checkSameSvg(IeeeCdfNetworkFactory.create118(), new SvgParameters(svgParameters).setMinifiedSvg(true), TopologicalStyleProvider::new);
+        checkSameSvg(ThreeWindingsTransformerNetworkFactory.create(), svgParameters, TopologicalStyleProvider::new);
+    }
+
+    private static void checkSameSvg(Network network, SvgParameters svgParameters, Function<Network, StyleProvider> styleProviderFactory) {
+        StringWriter serialWriter = new StringWriter();
+        new SvgWriter(svgParameters, styleProviderFactory.apply(network), new DefaultLabelProvider(network, svgParameters))
+                .writeSvg(createGraph(network), serialWriter);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int chunkSize : new int[] {1, 7, 1000}) {
+                SvgParameters parallelParameters = new SvgParameters(svgParameters).setParallelRendering(true).setRenderingChunkSize(chunkSize);
+                Supplier<SvgWriter> svgWriterFactory = () -> new SvgWriter(parallelParameters, createCallingThreadStyleProvider(styleProviderFactory.apply(network)),
+                        new DefaultLabelProvider(network, parallelParameters), executor);
+
+                StringWriter parallelWriter = new StringWriter();
+                svgWriterFactory.get().writeSvg(createGraph(network), parallelWriter);
+                assertEquals(serialWriter.toString(), parallelWriter.toString());
+
+                ByteArrayOutputStream parallelOs = new ByteArrayOutputStream();
+                svgWriterFactory.get().writeSvg(createGraph(network), parallelOs);
+                assertArrayEquals(serialWriter.toString().getBytes(StandardCharsets.UTF_8), parallelOs.toByteArray());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates a style provider checking that the given style provider is only called on the current thread.
+     */
+    private static StyleProvider createCallingThreadStyleProvider(StyleProvider styleProvider) {
+        Thread callingThread = Thread.currentThread();
+        return (StyleProvider) Proxy.newProxyInstance(StyleProvider.class.getClassLoader(), new Class<?>[] {StyleProvider.class}, (proxy, method, args) -> {
+            assertSame(callingThread, Thread.currentThread());
+            try {
+                return method.invoke(styleProvider, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static Graph createGraph(Network network) {
+        Graph graph = new NetworkGraphBuilder(network, VoltageLevelFilter.NO_FILTER).buildGraph();
+        new BasicForceLayoutFactory().create().run(graph, new LayoutParameters());
+        return graph;
+    }
+}
@@ -9,6 +9,7 @@ package com.powsybl.nad.svg;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Florian Dupuy <florian.dupuy at rte-france.com>
@@ -46,7 +47,14 @@ class SvgParametersTest {
                 .setSvgPrefix("TestPrefix")
                 .setIdDisplayed(true)
                 .setSubstationDescriptionDisplayed(true)
-                .setArrowHeight(25);
+                .setArrowHeight(25)
+                .setDirectXmlWriting(true)
+                .setMinifiedSvg(true)
+                .setSvgzOutput(true)
+                .setCompressionLevel(9)
+                .setCompressionBufferSize(4096)
+                .setParallelRendering(true)
+                .setRenderingChunkSize(10);
 
         SvgParameters svgParameters1 = new SvgParameters(svgParameters0);
 
@@ -82,5 +90,27 @@ class SvgParametersTest {
         assertEquals(svgParameters0.isIdDisplayed(), svgParameters1.isIdDisplayed());
         assertEquals(svgParameters0.isSubstationDescriptionDisplayed(), svgParameters1.isSubstationDescriptionDisplayed());
         assertEquals(svgParameters0.getArrowHeight(), svgParameters1.getArrowHeight());
+        assertEquals(svgParameters0.isDirectXmlWriting(), svgParameters1.isDirectXmlWriting());
+        assertEquals(svgParameters0.isMinifiedSvg(), svgParameters1.isMinifiedSvg());
+        assertEquals(svgParameters0.isSvgzOutput(), svgParameters1.isSvgzOutput());
+        assertEquals(svgParameters0.getCompressionLevel(), svgParameters1.getCompressionLevel());
+        assertEquals(svgParameters0.getCompressionBufferSize(), svgParameters1.getCompressionBufferSize());
+        assertEquals(svgParameters0.isParallelRendering(), svgParameters1.isParallelRendering());
+        assertEquals(svgParameters0.getRenderingChunkSize(), svgParameters1.getRenderingChunkSize());
+    }
+
+    @Test
+    void testCompressionParameters() {
+        SvgParameters svgParameters = new SvgParameters();
+        assertEquals(-1, svgParameters.setCompressionLevel(-1).getCompressionLevel());
+        assertEquals(0, svgParameters.setCompressionLevel(0).getCompressionLevel());
+        assertEquals(1, svgParameters.setCompressionBufferSize(1).getCompressionBufferSize());
+
+        assertThrows(IllegalArgumentException.class, () -> svgParameters.setCompressionLevel(-2));
+        assertThrows(IllegalArgumentException.class, () -> svgParameters.setCompressionLevel(10));
+        assertThrows(IllegalArgumentException.class, () -> svgParameters.setCompressionBufferSize(0));
+        assertThrows(IllegalArgumentException.class, () -> svgParameters.setCompressionBufferSize(-8192));
+        assertEquals(0, svgParameters.getCompressionLevel());
+        assertEquals(1, svgParameters.getCompressionBufferSize());
     }
 }